@@ -0,0 +1,101 @@
+package dev.ciprian.benchmark;
+
+import dev.ciprian.config.BodyCompressionConfig;
+import dev.ciprian.models.domain.Post;
+import dev.ciprian.service.BodyCodec;
+import dev.ciprian.service.PostMapper;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// mapping cost per body size and codec, the setup prints the stored item size and the capacity units it costs
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BodyCompressionBenchmark {
+
+    private static final String[] WORDS = {
+            "lambda", "function", "request", "latency", "table", "partition", "the", "a", "of", "and", "to", "is",
+            "cold", "start", "post", "tag", "user", "capacity", "read", "write", "item", "size", "with", "for"
+    };
+
+    @Param({"512", "4096", "32768", "262144"})
+    int bodySize;
+
+    @Param({"none", "gzip", "deflate"})
+    String codec;
+
+    private PostMapper postMapper;
+    private Post post;
+    private Map<String, AttributeValue> item;
+
+    @Setup
+    public void setUp() {
+        var bodyCompressionConfig = new BodyCompressionConfig();
+        bodyCompressionConfig.setEnabled(!"none".equals(codec));
+        bodyCompressionConfig.setThresholdBytes(0);
+
+        if (bodyCompressionConfig.isEnabled()) {
+            bodyCompressionConfig.setCodec(BodyCodec.forEncoding(codec));
+        }
+
+        postMapper = new PostMapper(bodyCompressionConfig);
+        post = new Post("Post title", text(bodySize), List.of("java", "lambda", "dynamodb"));
+        item = postMapper.toItem("e654ebca-38e0-487a-b609-0284923be582", post);
+
+        var itemBytes = itemBytes(item);
+        System.out.printf("%n%s body of %d bytes: item %d bytes, %d WCU per write, %.1f RCU per eventually consistent read%n",
+                codec, bodySize, itemBytes, (itemBytes + 1023) / 1024, ((itemBytes + 4095) / 4096) / 2.0);
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> toItem() {
+        return postMapper.toItem("e654ebca-38e0-487a-b609-0284923be582", post);
+    }
+
+    @Benchmark
+    public Post toPost() {
+        return postMapper.toPost(item);
+    }
+
+    // prose-like text from a small vocabulary, repeated filler would compress unrealistically well
+    private static String text(int size) {
+        var random = new Random(size);
+        var text = new StringBuilder(size + 16);
+
+        while (text.length() < size) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(10) == 0 ? ". " : " ");
+        }
+
+        return text.substring(0, size);
+    }
+
+    // DynamoDB item size: attribute names plus values, lists add three bytes and one per element
+    private static long itemBytes(Map<String, AttributeValue> item) {
+        var bytes = 0L;
+
+        for (var entry : item.entrySet()) {
+            bytes += entry.getKey().getBytes(StandardCharsets.UTF_8).length + valueBytes(entry.getValue());
+        }
+
+        return bytes;
+    }
+
+    private static long valueBytes(AttributeValue value) {
+        if (value.b() != null) {
+            return value.b().asByteArrayUnsafe().length;
+        }
+
+        if (value.hasL()) {
+            return 3 + value.l().stream().mapToLong(element -> 1 + valueBytes(element)).sum();
+        }
+
+        return value.s() == null ? 0 : value.s().getBytes(StandardCharsets.UTF_8).length;
+    }
+
+}
@@ -0,0 +1,87 @@
+package dev.ciprian.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.Application;
+import dev.ciprian.stub.StubClientsConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// every routed bean applied end to end against the in-memory DynamoDB and Cognito clients
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FunctionBenchmark {
+
+    @Param({"getPosts", "getPostsByTag", "getPost", "savePost", "savePosts", "deletePost", "deleteAllPosts", "loginUser", "refreshLogin"})
+    String functionName;
+
+    private ConfigurableApplicationContext context;
+    private Function<byte[], ?> function;
+    private byte[] request;
+    private Function<byte[], ?> seed;
+    private byte[] seedRequest;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws IOException {
+        context = new SpringApplicationBuilder(Application.class, StubClientsConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties("REGION=eu-central-1", "USER_POOL_ID=eu-central-1_test", "CLIENT_ID=client", "TABLE_NAME=posts")
+                .run();
+
+        Function<byte[], ?> savePosts = context.getBean("savePosts", Function.class);
+        savePosts.apply(fixture("savePosts"));
+
+        function = context.getBean(functionName, Function.class);
+        request = fixture(functionName);
+
+        switch (functionName) {
+            case "deletePost" -> {
+                seed = context.getBean("savePost", Function.class);
+                seedRequest = context.getBean(ObjectMapper.class).writeValueAsBytes(Map.of(
+                        "headers", Map.of("x-function-name", "savePost", "x-user-id", "e654ebca-38e0-487a-b609-0284923be582"),
+                        "body", Map.of("postTitle", "My new post", "postBody", "Something to delete", "postTags", List.of("jmh"))
+                ));
+            }
+            case "deleteAllPosts" -> {
+                seed = savePosts;
+                seedRequest = fixture("savePosts");
+            }
+            default -> {
+            }
+        }
+    }
+
+    // deletes would only hit the not found path after their first invocation, so their posts are put back every time
+    @Setup(Level.Invocation)
+    public void seed() {
+        if (seed != null) {
+            seed.apply(seedRequest);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object apply() {
+        return function.apply(request);
+    }
+
+    private byte[] fixture(String functionName) throws IOException {
+        var fileName = functionName.replaceAll("([A-Z])", "-$1").toLowerCase() + ".json";
+        return new ClassPathResource("/requests/" + fileName).getInputStream().readAllBytes();
+    }
+
+}
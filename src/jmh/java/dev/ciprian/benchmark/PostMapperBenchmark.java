@@ -0,0 +1,50 @@
+package dev.ciprian.benchmark;
+
+import dev.ciprian.config.BodyCompressionConfig;
+import dev.ciprian.models.domain.Post;
+import dev.ciprian.service.PostMapper;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PostMapperBenchmark {
+
+    @Param({"1", "25", "100", "1000"})
+    int itemCount;
+
+    private final PostMapper postMapper = new PostMapper(new BodyCompressionConfig());
+    private List<Map<String, AttributeValue>> items;
+    private List<Post> posts;
+
+    @Setup
+    public void setUp() {
+        items = new ArrayList<>(itemCount);
+        posts = new ArrayList<>(itemCount);
+
+        for (var i = 0; i < itemCount; i++) {
+            var post = new Post("Post title number " + i, "Lorem ipsum dolor sit amet, consectetur adipiscing elit ".repeat(8), List.of("java", "lambda", "dynamodb"));
+            posts.add(post);
+            items.add(postMapper.toItem("e654ebca-38e0-487a-b609-0284923be582", post));
+        }
+    }
+
+    @Benchmark
+    public List<Post> toPosts() {
+        return postMapper.toPosts(items);
+    }
+
+    @Benchmark
+    public List<Map<String, AttributeValue>> toItems() {
+        return posts.stream()
+                .map(post -> postMapper.toItem("e654ebca-38e0-487a-b609-0284923be582", post))
+                .toList();
+    }
+
+}
@@ -0,0 +1,48 @@
+package dev.ciprian.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import dev.ciprian.models.request.PostRequest;
+import dev.ciprian.models.request.UserRequest;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RequestDecodingBenchmark {
+
+    @Param({"save-post.json", "save-post-gateway.json", "delete-post.json"})
+    String postFixture;
+
+    @Param({"register-user.json"})
+    String userFixture;
+
+    private ObjectReader postRequestReader;
+    private ObjectReader userRequestReader;
+    private byte[] postRequest;
+    private byte[] userRequest;
+
+    @Setup
+    public void setUp() throws IOException {
+        var objectMapper = new ObjectMapper();
+        postRequestReader = objectMapper.readerFor(PostRequest.class);
+        userRequestReader = objectMapper.readerFor(UserRequest.class);
+        postRequest = new ClassPathResource("/requests/" + postFixture).getInputStream().readAllBytes();
+        userRequest = new ClassPathResource("/requests/" + userFixture).getInputStream().readAllBytes();
+    }
+
+    @Benchmark
+    public PostRequest decodePostRequest() throws IOException {
+        return postRequestReader.readValue(postRequest);
+    }
+
+    @Benchmark
+    public UserRequest decodeUserRequest() throws IOException {
+        return userRequestReader.readValue(userRequest);
+    }
+
+}
@@ -0,0 +1,43 @@
+package dev.ciprian.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import dev.ciprian.models.domain.Post;
+import dev.ciprian.models.response.PostsResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResponseSerializationBenchmark {
+
+    @Param({"1", "25", "100", "1000"})
+    int postCount;
+
+    private ObjectWriter postsResponseWriter;
+    private PostsResponse postsResponse;
+
+    @Setup
+    public void setUp() {
+        postsResponseWriter = new ObjectMapper().writerFor(PostsResponse.class);
+        var posts = new ArrayList<Post>(postCount);
+
+        for (var i = 0; i < postCount; i++) {
+            posts.add(new Post("Post title number " + i, "Lorem ipsum dolor sit amet, consectetur adipiscing elit ".repeat(8), List.of("java", "lambda", "dynamodb")));
+        }
+
+        postsResponse = new PostsResponse(true, 200);
+        postsResponse.setPosts(posts);
+    }
+
+    @Benchmark
+    public byte[] serializePostsResponse() throws JsonProcessingException {
+        return postsResponseWriter.writeValueAsBytes(postsResponse);
+    }
+
+}
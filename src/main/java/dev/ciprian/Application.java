@@ -1,13 +1,23 @@
 package dev.ciprian;
 
+import dev.ciprian.config.NativeHints;
+import dev.ciprian.config.StartupTiming;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(NativeHints.class)
 public class Application {
 
     public static void main(String[] args) {
-        SpringApplication.run(Application.class, args);
+        var application = new SpringApplication(Application.class);
+
+        if (Boolean.getBoolean(StartupTiming.PROPERTY)) {
+            StartupTiming.install(application);
+        }
+
+        application.run(args);
     }
 
 }
\ No newline at end of file
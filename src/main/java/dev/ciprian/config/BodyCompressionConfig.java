@@ -0,0 +1,39 @@
+package dev.ciprian.config;
+
+import dev.ciprian.service.BodyCodec;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "body-compression")
+public class BodyCompressionConfig {
+
+    private boolean enabled;
+    private BodyCodec codec = BodyCodec.GZIP;
+    private int thresholdBytes = 4096;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public BodyCodec getCodec() {
+        return codec;
+    }
+
+    public void setCodec(BodyCodec codec) {
+        this.codec = codec;
+    }
+
+    public int getThresholdBytes() {
+        return thresholdBytes;
+    }
+
+    public void setThresholdBytes(int thresholdBytes) {
+        this.thresholdBytes = thresholdBytes;
+    }
+
+}
@@ -3,18 +3,20 @@ package dev.ciprian.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import software.amazon.awssdk.regions.Region;
+import org.springframework.context.annotation.Lazy;
 import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
 
-import static org.springframework.util.StringUtils.hasLength;
+import static dev.ciprian.constants.FunctionGroupConstants.USERS;
 
 @Configuration
 @ConfigurationProperties(prefix = "cognito")
+@ConditionalOnFunctionGroup(USERS)
 public class CognitoConfig {
 
     private String region;
     private String userPoolId;
     private String clientId;
+    private SdkClientProperties client = new SdkClientProperties();
 
     public String getRegion() {
         return region;
@@ -40,12 +42,18 @@ public class CognitoConfig {
         this.clientId = clientId;
     }
 
+    public SdkClientProperties getClient() {
+        return client;
+    }
+
+    public void setClient(SdkClientProperties client) {
+        this.client = client;
+    }
+
     @Bean
+    @Lazy
     CognitoIdentityProviderClient cognitoIdentityProviderClient() {
-        var region = hasLength(this.region) ? Region.of(this.region) : Region.EU_CENTRAL_1;
-        return CognitoIdentityProviderClient.builder()
-                .region(region)
-                .build();
+        return SdkClients.build(CognitoIdentityProviderClient.builder(), region, client);
     }
 
 }
@@ -0,0 +1,17 @@
+package dev.ciprian.config;
+
+import org.springframework.context.annotation.Conditional;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Conditional(OnFunctionGroupCondition.class)
+public @interface ConditionalOnFunctionGroup {
+
+    String value();
+
+}
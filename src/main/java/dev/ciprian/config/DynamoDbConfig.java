@@ -1,19 +1,39 @@
 package dev.ciprian.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
+import java.net.URI;
+
+import static dev.ciprian.constants.FunctionGroupConstants.POSTS;
 import static org.springframework.util.StringUtils.hasLength;
 
 @Configuration
 @ConfigurationProperties(prefix = "dynamodb")
+@ConditionalOnFunctionGroup(POSTS)
 public class DynamoDbConfig {
 
     private String region;
     private String tableName;
+    private int maxPageSize = 100;
+    private boolean async;
+    private int maxBatchSize = 500;
+    private int batchMaxAttempts = 5;
+    private long batchBaseDelayMillis = 50;
+    private long batchMaxDelayMillis = 1000;
+    private long deleteAllBudgetMillis = 10000;
+    private boolean tagMigrationEnabled;
+    private long tagMigrationBudgetMillis = 10000;
+    private boolean versionTagsEnabled;
+    private long versionTagsEpoch;
+    private HedgingProperties hedging = new HedgingProperties();
+    private SdkClientProperties client = new SdkClientProperties();
 
     public String getRegion() {
         return region;
@@ -31,12 +51,130 @@ public class DynamoDbConfig {
         this.tableName = tableName;
     }
 
+    public int getMaxPageSize() {
+        return maxPageSize;
+    }
+
+    public void setMaxPageSize(int maxPageSize) {
+        this.maxPageSize = maxPageSize;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public int getBatchMaxAttempts() {
+        return batchMaxAttempts;
+    }
+
+    public void setBatchMaxAttempts(int batchMaxAttempts) {
+        this.batchMaxAttempts = batchMaxAttempts;
+    }
+
+    public long getBatchBaseDelayMillis() {
+        return batchBaseDelayMillis;
+    }
+
+    public void setBatchBaseDelayMillis(long batchBaseDelayMillis) {
+        this.batchBaseDelayMillis = batchBaseDelayMillis;
+    }
+
+    public long getBatchMaxDelayMillis() {
+        return batchMaxDelayMillis;
+    }
+
+    public void setBatchMaxDelayMillis(long batchMaxDelayMillis) {
+        this.batchMaxDelayMillis = batchMaxDelayMillis;
+    }
+
+    public long getDeleteAllBudgetMillis() {
+        return deleteAllBudgetMillis;
+    }
+
+    public void setDeleteAllBudgetMillis(long deleteAllBudgetMillis) {
+        this.deleteAllBudgetMillis = deleteAllBudgetMillis;
+    }
+
+    public boolean isTagMigrationEnabled() {
+        return tagMigrationEnabled;
+    }
+
+    public void setTagMigrationEnabled(boolean tagMigrationEnabled) {
+        this.tagMigrationEnabled = tagMigrationEnabled;
+    }
+
+    public long getTagMigrationBudgetMillis() {
+        return tagMigrationBudgetMillis;
+    }
+
+    public void setTagMigrationBudgetMillis(long tagMigrationBudgetMillis) {
+        this.tagMigrationBudgetMillis = tagMigrationBudgetMillis;
+    }
+
+    public boolean isVersionTagsEnabled() {
+        return versionTagsEnabled;
+    }
+
+    public void setVersionTagsEnabled(boolean versionTagsEnabled) {
+        this.versionTagsEnabled = versionTagsEnabled;
+    }
+
+    public long getVersionTagsEpoch() {
+        return versionTagsEpoch;
+    }
+
+    public void setVersionTagsEpoch(long versionTagsEpoch) {
+        this.versionTagsEpoch = versionTagsEpoch;
+    }
+
+    public HedgingProperties getHedging() {
+        return hedging;
+    }
+
+    public void setHedging(HedgingProperties hedging) {
+        this.hedging = hedging;
+    }
+
+    public SdkClientProperties getClient() {
+        return client;
+    }
+
+    public void setClient(SdkClientProperties client) {
+        this.client = client;
+    }
+
     @Bean
+    @Lazy
     DynamoDbClient dynamoDbClient() {
+        return SdkClients.build(DynamoDbClient.builder(), region, client);
+    }
+
+    @Bean
+    @Lazy
+    @ConditionalOnProperty(prefix = "dynamodb", name = "async", havingValue = "true")
+    DynamoDbAsyncClient dynamoDbAsyncClient() {
         var region = hasLength(this.region) ? Region.of(this.region) : Region.EU_CENTRAL_1;
-        return DynamoDbClient.builder()
+        var builder = DynamoDbAsyncClient.builder()
                 .region(region)
-                .build();
+                .overrideConfiguration(SdkClients.overrideConfiguration(client, true));
+
+        if (hasLength(client.getEndpointOverride())) {
+            builder.endpointOverride(URI.create(client.getEndpointOverride()));
+        }
+
+        return builder.build();
     }
 
 }
@@ -0,0 +1,26 @@
+package dev.ciprian.config;
+
+import org.springframework.util.ClassUtils;
+
+public enum HttpClientType {
+
+    URL_CONNECTION("software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient"),
+    APACHE("software.amazon.awssdk.http.apache.ApacheHttpClient"),
+    CRT("software.amazon.awssdk.http.crt.AwsCrtHttpClient");
+
+    private final String className;
+
+    HttpClientType(String className) {
+        this.className = className;
+    }
+
+    // url-connection and crt are only on the classpath of jars built with -PhttpClients
+    public boolean isBundled() {
+        return ClassUtils.isPresent(className, HttpClientType.class.getClassLoader());
+    }
+
+    public String value() {
+        return name().toLowerCase().replace('_', '-');
+    }
+
+}
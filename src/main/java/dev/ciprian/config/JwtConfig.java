@@ -0,0 +1,71 @@
+package dev.ciprian.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import static org.springframework.util.StringUtils.hasLength;
+
+@Configuration
+@ConfigurationProperties(prefix = "jwt")
+public class JwtConfig {
+
+    private boolean enabled;
+    private String region;
+    private String userPoolId;
+    private String clientId;
+    private String jwksLocation;
+    private long clockSkewSeconds = 60;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public String getUserPoolId() {
+        return userPoolId;
+    }
+
+    public void setUserPoolId(String userPoolId) {
+        this.userPoolId = userPoolId;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
+
+    public String getJwksLocation() {
+        return hasLength(jwksLocation) ? jwksLocation : getIssuer() + "/.well-known/jwks.json";
+    }
+
+    public void setJwksLocation(String jwksLocation) {
+        this.jwksLocation = jwksLocation;
+    }
+
+    public long getClockSkewSeconds() {
+        return clockSkewSeconds;
+    }
+
+    public void setClockSkewSeconds(long clockSkewSeconds) {
+        this.clockSkewSeconds = clockSkewSeconds;
+    }
+
+    public String getIssuer() {
+        return "https://cognito-idp." + region + ".amazonaws.com/" + userPoolId;
+    }
+
+}
@@ -0,0 +1,58 @@
+package dev.ciprian.config;
+
+import dev.ciprian.models.domain.Post;
+import dev.ciprian.models.domain.RefreshToken;
+import dev.ciprian.models.domain.User;
+import dev.ciprian.models.request.GenericRequest;
+import dev.ciprian.models.request.PostRequest;
+import dev.ciprian.models.request.PostsRequest;
+import dev.ciprian.models.request.RefreshRequest;
+import dev.ciprian.models.request.UserRequest;
+import dev.ciprian.models.response.AccessResponse;
+import dev.ciprian.models.response.BatchResponse;
+import dev.ciprian.models.response.GenericResponse;
+import dev.ciprian.models.response.ItemStatus;
+import dev.ciprian.models.response.PostResponse;
+import dev.ciprian.models.response.PostsResponse;
+import dev.ciprian.models.response.ProgressResponse;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.util.List;
+
+public class NativeHints implements RuntimeHintsRegistrar {
+
+    private static final List<Class<?>> MODELS = List.of(
+            Post.class, User.class, RefreshToken.class,
+            GenericRequest.class, PostRequest.class, PostsRequest.class, UserRequest.class, RefreshRequest.class,
+            GenericResponse.class, PostsResponse.class, PostResponse.class, AccessResponse.class, BatchResponse.class, ItemStatus.class, ProgressResponse.class
+    );
+
+    private static final List<String> SDK_HTTP_SERVICES = List.of(
+            "software.amazon.awssdk.http.apache.ApacheSdkHttpService",
+            "software.amazon.awssdk.http.urlconnection.UrlConnectionSdkHttpService",
+            "software.amazon.awssdk.http.crt.AwsCrtSdkHttpService",
+            "software.amazon.awssdk.http.nio.netty.NettySdkAsyncHttpService",
+            "software.amazon.awssdk.http.crt.AwsCrtSdkAsyncHttpService"
+    );
+
+    private static final List<String> SDK_SERVICES = List.of("dynamodb", "cognitoidentityprovider");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), MODELS.toArray(Class<?>[]::new));
+
+        for (var service : SDK_HTTP_SERVICES) {
+            hints.reflection().registerTypeIfPresent(classLoader, service, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+
+        hints.resources().registerPattern("software/amazon/awssdk/global/handlers/execution.interceptors");
+
+        for (var service : SDK_SERVICES) {
+            hints.resources().registerPattern("software/amazon/awssdk/services/" + service + "/execution.interceptors");
+        }
+    }
+
+}
@@ -0,0 +1,29 @@
+package dev.ciprian.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+import java.util.Arrays;
+
+class OnFunctionGroupCondition extends SpringBootCondition {
+
+    static final String GROUPS_PROPERTY = "functions.groups";
+
+    @Override
+    public ConditionOutcome getMatchOutcome(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        var attributes = metadata.getAnnotationAttributes(ConditionalOnFunctionGroup.class.getName());
+        var group = (String) attributes.get("value");
+        var groups = context.getEnvironment().getProperty(GROUPS_PROPERTY, String[].class);
+
+        if (groups == null || groups.length == 0) {
+            return ConditionOutcome.match("no " + GROUPS_PROPERTY + " set, every function group is deployed");
+        }
+
+        return Arrays.stream(groups).map(String::trim).anyMatch(group::equalsIgnoreCase)
+                ? ConditionOutcome.match("function group " + group + " is deployed")
+                : ConditionOutcome.noMatch("function group " + group + " is not in " + GROUPS_PROPERTY);
+    }
+
+}
@@ -0,0 +1,40 @@
+package dev.ciprian.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Set;
+
+@Configuration
+@ConfigurationProperties(prefix = "response-compression")
+public class ResponseCompressionConfig {
+
+    private boolean enabled = true;
+    private int thresholdBytes = 1024;
+    private Set<String> functions = Set.of("getPosts", "getPostsByTag", "getPost");
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getThresholdBytes() {
+        return thresholdBytes;
+    }
+
+    public void setThresholdBytes(int thresholdBytes) {
+        this.thresholdBytes = thresholdBytes;
+    }
+
+    public Set<String> getFunctions() {
+        return functions;
+    }
+
+    public void setFunctions(Set<String> functions) {
+        this.functions = functions;
+    }
+
+}
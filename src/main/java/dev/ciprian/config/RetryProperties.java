@@ -0,0 +1,71 @@
+package dev.ciprian.config;
+
+import software.amazon.awssdk.core.retry.RetryMode;
+
+public class RetryProperties {
+
+    private RetryMode mode = RetryMode.ADAPTIVE;
+    private Integer maxAttempts;
+    private long baseDelayMillis = 25;
+    private long throttleBaseDelayMillis = 100;
+    private long maxBackoffMillis = 2000;
+    private double maxRequestsPerSecond = 200;
+    private double minRequestsPerSecond = 1;
+
+    public RetryMode getMode() {
+        return mode;
+    }
+
+    public void setMode(RetryMode mode) {
+        this.mode = mode;
+    }
+
+    public Integer getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(Integer maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public long getBaseDelayMillis() {
+        return baseDelayMillis;
+    }
+
+    public void setBaseDelayMillis(long baseDelayMillis) {
+        this.baseDelayMillis = baseDelayMillis;
+    }
+
+    public long getThrottleBaseDelayMillis() {
+        return throttleBaseDelayMillis;
+    }
+
+    public void setThrottleBaseDelayMillis(long throttleBaseDelayMillis) {
+        this.throttleBaseDelayMillis = throttleBaseDelayMillis;
+    }
+
+    public long getMaxBackoffMillis() {
+        return maxBackoffMillis;
+    }
+
+    public void setMaxBackoffMillis(long maxBackoffMillis) {
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public double getMaxRequestsPerSecond() {
+        return maxRequestsPerSecond;
+    }
+
+    public void setMaxRequestsPerSecond(double maxRequestsPerSecond) {
+        this.maxRequestsPerSecond = maxRequestsPerSecond;
+    }
+
+    public double getMinRequestsPerSecond() {
+        return minRequestsPerSecond;
+    }
+
+    public void setMinRequestsPerSecond(double minRequestsPerSecond) {
+        this.minRequestsPerSecond = minRequestsPerSecond;
+    }
+
+}
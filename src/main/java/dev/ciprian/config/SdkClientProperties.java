@@ -0,0 +1,96 @@
+package dev.ciprian.config;
+
+public class SdkClientProperties {
+
+    private HttpClientType type = HttpClientType.APACHE;
+    private Integer maxConnections;
+    private Long connectionTtlMillis;
+    private boolean tcpKeepAlive;
+    private Long connectionTimeoutMillis;
+    private Long apiCallTimeoutMillis;
+    private Long apiCallAttemptTimeoutMillis;
+    private long deadlineMarginMillis = 200;
+    private String endpointOverride;
+    private RetryProperties retry = new RetryProperties();
+
+    public HttpClientType getType() {
+        return type;
+    }
+
+    public void setType(HttpClientType type) {
+        this.type = type;
+    }
+
+    public Integer getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(Integer maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public Long getConnectionTtlMillis() {
+        return connectionTtlMillis;
+    }
+
+    public void setConnectionTtlMillis(Long connectionTtlMillis) {
+        this.connectionTtlMillis = connectionTtlMillis;
+    }
+
+    public boolean isTcpKeepAlive() {
+        return tcpKeepAlive;
+    }
+
+    public void setTcpKeepAlive(boolean tcpKeepAlive) {
+        this.tcpKeepAlive = tcpKeepAlive;
+    }
+
+    public Long getConnectionTimeoutMillis() {
+        return connectionTimeoutMillis;
+    }
+
+    public void setConnectionTimeoutMillis(Long connectionTimeoutMillis) {
+        this.connectionTimeoutMillis = connectionTimeoutMillis;
+    }
+
+    public Long getApiCallTimeoutMillis() {
+        return apiCallTimeoutMillis;
+    }
+
+    public void setApiCallTimeoutMillis(Long apiCallTimeoutMillis) {
+        this.apiCallTimeoutMillis = apiCallTimeoutMillis;
+    }
+
+    public Long getApiCallAttemptTimeoutMillis() {
+        return apiCallAttemptTimeoutMillis;
+    }
+
+    public void setApiCallAttemptTimeoutMillis(Long apiCallAttemptTimeoutMillis) {
+        this.apiCallAttemptTimeoutMillis = apiCallAttemptTimeoutMillis;
+    }
+
+    public long getDeadlineMarginMillis() {
+        return deadlineMarginMillis;
+    }
+
+    public void setDeadlineMarginMillis(long deadlineMarginMillis) {
+        this.deadlineMarginMillis = deadlineMarginMillis;
+    }
+
+    public String getEndpointOverride() {
+        return endpointOverride;
+    }
+
+    public void setEndpointOverride(String endpointOverride) {
+        this.endpointOverride = endpointOverride;
+    }
+
+    public RetryProperties getRetry() {
+        return retry;
+    }
+
+    public void setRetry(RetryProperties retry) {
+        this.retry = retry;
+    }
+
+}
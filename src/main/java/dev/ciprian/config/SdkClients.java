@@ -0,0 +1,172 @@
+package dev.ciprian.config;
+
+import dev.ciprian.deadline.DeadlineInterceptor;
+import dev.ciprian.metrics.MetricsInterceptor;
+import dev.ciprian.retry.DecorrelatedJitterBackoff;
+import dev.ciprian.retry.RateLimitedBackoff;
+import dev.ciprian.retry.RetryInterceptor;
+import dev.ciprian.retry.ThrottleAwareRetryCondition;
+import dev.ciprian.tracing.TracingInterceptor;
+import software.amazon.awssdk.awscore.client.builder.AwsClientBuilder;
+import software.amazon.awssdk.awscore.client.builder.AwsSyncClientBuilder;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryMode;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.core.retry.backoff.BackoffStrategy;
+import software.amazon.awssdk.core.retry.conditions.RetryCondition;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.crt.AwsCrtHttpClient;
+import software.amazon.awssdk.http.crt.TcpKeepAliveConfiguration;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.springframework.util.StringUtils.hasLength;
+
+public class SdkClients {
+
+    private static final Duration KEEP_ALIVE_INTERVAL = Duration.ofSeconds(30);
+    private static final Duration KEEP_ALIVE_TIMEOUT = Duration.ofSeconds(5);
+
+    private SdkClients() {
+    }
+
+    public static <B extends AwsClientBuilder<B, C> & AwsSyncClientBuilder<B, C>, C> C build(B builder, String region, SdkClientProperties properties) {
+        builder.region(hasLength(region) ? Region.of(region) : Region.EU_CENTRAL_1)
+                .httpClient(httpClient(properties))
+                .overrideConfiguration(overrideConfiguration(properties, false));
+
+        if (hasLength(properties.getEndpointOverride())) {
+            builder.endpointOverride(URI.create(properties.getEndpointOverride()));
+        }
+
+        return builder.build();
+    }
+
+    public static ClientOverrideConfiguration overrideConfiguration(SdkClientProperties properties, boolean async) {
+        // the rate limiter waits before the tracing interceptor opens the call span
+        var builder = ClientOverrideConfiguration.builder()
+                .retryPolicy(retryPolicy(properties.getRetry()))
+                .addExecutionInterceptor(new DeadlineInterceptor(properties))
+                .addExecutionInterceptor(new MetricsInterceptor())
+                .addExecutionInterceptor(new RetryInterceptor(properties.getRetry(), properties.getEndpointOverride(), async))
+                .addExecutionInterceptor(new TracingInterceptor());
+
+        if (properties.getApiCallTimeoutMillis() != null) {
+            builder.apiCallTimeout(Duration.ofMillis(properties.getApiCallTimeoutMillis()));
+        }
+
+        if (properties.getApiCallAttemptTimeoutMillis() != null) {
+            builder.apiCallAttemptTimeout(Duration.ofMillis(properties.getApiCallAttemptTimeoutMillis()));
+        }
+
+        return builder.build();
+    }
+
+    // adaptive mode keeps the standard retry rules, the backend's token bucket does the client-side rate limiting
+    public static RetryPolicy retryPolicy(RetryProperties retry) {
+        var builder = RetryPolicy.builder(retry.getMode() == RetryMode.ADAPTIVE ? RetryMode.STANDARD : retry.getMode())
+                .backoffStrategy(backoff(retry.getBaseDelayMillis(), retry.getMaxBackoffMillis()))
+                .throttlingBackoffStrategy(backoff(retry.getThrottleBaseDelayMillis(), retry.getMaxBackoffMillis()))
+                .retryCondition(new ThrottleAwareRetryCondition(RetryCondition.defaultRetryCondition()));
+
+        if (retry.getMaxAttempts() != null) {
+            builder.numRetries(Math.max(0, retry.getMaxAttempts() - 1));
+        }
+
+        return builder.build();
+    }
+
+    private static BackoffStrategy backoff(long baseDelayMillis, long maxBackoffMillis) {
+        return new RateLimitedBackoff(new DecorrelatedJitterBackoff(baseDelayMillis, maxBackoffMillis));
+    }
+
+    public static SdkHttpClient httpClient(SdkClientProperties properties) {
+        var type = properties.getType();
+
+        if (!type.isBundled()) {
+            throw new IllegalStateException("The " + type.value() + " HTTP client is not bundled, build with -PhttpClients=" + type.value());
+        }
+
+        return switch (type) {
+            case URL_CONNECTION -> UrlConnection.client(properties);
+            case APACHE -> apacheClient(properties);
+            case CRT -> Crt.client(properties);
+        };
+    }
+
+    private static SdkHttpClient apacheClient(SdkClientProperties properties) {
+        var builder = ApacheHttpClient.builder()
+                .tcpKeepAlive(properties.isTcpKeepAlive());
+
+        if (properties.getMaxConnections() != null) {
+            builder.maxConnections(properties.getMaxConnections());
+        }
+
+        if (properties.getConnectionTtlMillis() != null) {
+            builder.connectionTimeToLive(Duration.ofMillis(properties.getConnectionTtlMillis()));
+        }
+
+        if (properties.getConnectionTimeoutMillis() != null) {
+            builder.connectionTimeout(Duration.ofMillis(properties.getConnectionTimeoutMillis()));
+        }
+
+        return builder.build();
+    }
+
+    // the optional clients live in their own classes, so nothing loads them unless they are selected
+    private static final class UrlConnection {
+
+        private UrlConnection() {
+        }
+
+        // HttpURLConnection pools through the JVM keep-alive cache, so only the timeouts apply
+        static SdkHttpClient client(SdkClientProperties properties) {
+            var builder = UrlConnectionHttpClient.builder();
+
+            if (properties.getConnectionTimeoutMillis() != null) {
+                builder.connectionTimeout(Duration.ofMillis(properties.getConnectionTimeoutMillis()));
+            }
+
+            return builder.build();
+        }
+
+    }
+
+    private static final class Crt {
+
+        private Crt() {
+        }
+
+        static SdkHttpClient client(SdkClientProperties properties) {
+            var builder = AwsCrtHttpClient.builder();
+
+            if (properties.getMaxConnections() != null) {
+                builder.maxConcurrency(properties.getMaxConnections());
+            }
+
+            // CRT has no hard TTL, idle connections are closed after this instead
+            if (properties.getConnectionTtlMillis() != null) {
+                builder.connectionMaxIdleTime(Duration.ofMillis(properties.getConnectionTtlMillis()));
+            }
+
+            if (properties.isTcpKeepAlive()) {
+                builder.tcpKeepAliveConfiguration(TcpKeepAliveConfiguration.builder()
+                        .keepAliveInterval(KEEP_ALIVE_INTERVAL)
+                        .keepAliveTimeout(KEEP_ALIVE_TIMEOUT)
+                        .build());
+            }
+
+            if (properties.getConnectionTimeoutMillis() != null) {
+                builder.connectionTimeout(Duration.ofMillis(properties.getConnectionTimeoutMillis()));
+            }
+
+            return builder.build();
+        }
+
+    }
+
+}
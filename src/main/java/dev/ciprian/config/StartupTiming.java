@@ -0,0 +1,81 @@
+package dev.ciprian.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.core.metrics.StartupStep;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+
+// enabled with -Dstartup.timing=true, prints the lines read by the cold start benchmark once the context is ready
+// and again on shutdown, the latter including the lazy beans built while serving requests
+public class StartupTiming {
+
+    public static final String PROPERTY = "startup.timing";
+    public static final String READY_PREFIX = "STARTUP_TIMING_READY ";
+    public static final String CLOSED_PREFIX = "STARTUP_TIMING_CLOSED ";
+
+    private static final int CAPACITY = 10_000;
+
+    private StartupTiming() {
+    }
+
+    public static void install(SpringApplication application) {
+        var startup = new BufferingApplicationStartup(CAPACITY);
+        startup.addFilter(step -> step.getName().equals("spring.beans.instantiate"));
+        application.setApplicationStartup(startup);
+        application.addListeners((ApplicationReadyEvent event) -> report(READY_PREFIX, startup, event.getApplicationContext()));
+        application.addListeners((ContextClosedEvent event) -> report(CLOSED_PREFIX, startup, (ConfigurableApplicationContext) event.getApplicationContext()));
+    }
+
+    private static void report(String prefix, BufferingApplicationStartup startup, ConfigurableApplicationContext context) {
+        var beanFactory = context.getBeanFactory();
+        var beanInitMillis = new TreeMap<String, Long>();
+
+        for (var timelineEvent : startup.getBufferedTimeline().getEvents()) {
+            var beanName = tag(timelineEvent.getStartupStep(), "beanName");
+
+            if (beanName == null || !beanFactory.containsBeanDefinition(beanName)) {
+                continue;
+            }
+
+            var definition = beanFactory.getBeanDefinition(beanName);
+            var owner = definition.getFactoryBeanName() != null && beanFactory.containsBeanDefinition(definition.getFactoryBeanName())
+                    ? beanFactory.getBeanDefinition(definition.getFactoryBeanName()).getBeanClassName()
+                    : definition.getBeanClassName();
+
+            if (owner != null) {
+                beanInitMillis.merge(owner, timelineEvent.getDuration().toMillis(), Long::sum);
+            }
+        }
+
+        var timing = Map.of(
+                "jvmUptimeMillis", ManagementFactory.getRuntimeMXBean().getUptime(),
+                "classesLoaded", ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount(),
+                "beanInitMillis", beanInitMillis
+        );
+
+        try {
+            System.out.println(prefix + new ObjectMapper().writeValueAsString(timing));
+        } catch (JsonProcessingException exception) {
+            System.out.println(prefix + "{}");
+        }
+    }
+
+    private static String tag(StartupStep step, String key) {
+        for (var tag : step.getTags()) {
+            if (key.equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+
+        return null;
+    }
+
+}
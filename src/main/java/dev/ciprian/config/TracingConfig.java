@@ -0,0 +1,56 @@
+package dev.ciprian.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "tracing")
+public class TracingConfig {
+
+    private boolean enabled;
+    private String serviceName = "user-posts-lambda";
+    private long slowThresholdMillis = 1000;
+    private double sampleRate = 0.01;
+    private String daemonAddress;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public void setServiceName(String serviceName) {
+        this.serviceName = serviceName;
+    }
+
+    public long getSlowThresholdMillis() {
+        return slowThresholdMillis;
+    }
+
+    public void setSlowThresholdMillis(long slowThresholdMillis) {
+        this.slowThresholdMillis = slowThresholdMillis;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public String getDaemonAddress() {
+        return daemonAddress;
+    }
+
+    public void setDaemonAddress(String daemonAddress) {
+        this.daemonAddress = daemonAddress;
+    }
+
+}
@@ -0,0 +1,8 @@
+package dev.ciprian.constants;
+
+public class FunctionGroupConstants {
+
+    public static final String POSTS = "posts";
+    public static final String USERS = "users";
+
+}
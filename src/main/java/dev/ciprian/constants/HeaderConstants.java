@@ -3,5 +3,15 @@ package dev.ciprian.constants;
 public class HeaderConstants {
 
     public static final String USER_ID_HEADER = "x-user-id";
+    public static final String AUTHORIZATION_HEADER = "authorization";
+    public static final String PAGE_SIZE_HEADER = "x-page-size";
+    public static final String NEXT_TOKEN_HEADER = "x-next-token";
+    public static final String POST_TAG_HEADER = "x-post-tag";
+    public static final String SUMMARY_HEADER = "x-summary";
+    public static final String PREVIEW_LENGTH_HEADER = "x-preview-length";
+    public static final String CONSISTENT_READ_HEADER = "x-consistent-read";
+    public static final String IF_NONE_MATCH_HEADER = "if-none-match";
+    public static final String FUNCTION_NAME_HEADER = "x-function-name";
+    public static final String ACCEPT_ENCODING_HEADER = "accept-encoding";
 
 }
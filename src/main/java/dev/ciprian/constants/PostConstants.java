@@ -6,5 +6,7 @@ public class PostConstants {
     public static final String POST_TITLE = "PostTitle";
     public static final String POST_BODY = "PostBody";
     public static final String POST_TAGS = "PostTags";
+    public static final String POST_BODY_ENCODING = "PostBodyEncoding";
+    public static final String POSTS_VERSION = "PostsVersion";
 
 }
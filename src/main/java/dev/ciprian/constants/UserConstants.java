@@ -5,5 +5,6 @@ public class UserConstants {
     public static final String EMAIL = "email";
     public static final String AUTH_USERNAME = "USERNAME";
     public static final String AUTH_PASSWORD = "PASSWORD";
+    public static final String AUTH_REFRESH_TOKEN = "REFRESH_TOKEN";
 
 }
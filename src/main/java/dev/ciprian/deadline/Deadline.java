@@ -0,0 +1,44 @@
+package dev.ciprian.deadline;
+
+public class Deadline {
+
+    private static final long NANOS_PER_MILLI = 1_000_000;
+
+    // not inherited: worker threads get the invocation's deadline handed over through InvocationContext
+    private static final ThreadLocal<Long> CURRENT = new ThreadLocal<>();
+
+    private Deadline() {
+    }
+
+    public static void start(long remainingMillis) {
+        CURRENT.set(System.nanoTime() + remainingMillis * NANOS_PER_MILLI);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public static Long current() {
+        return CURRENT.get();
+    }
+
+    // puts the given deadline on the current thread and returns the one it replaced
+    public static Long enter(Long deadline) {
+        var previous = CURRENT.get();
+
+        if (deadline == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(deadline);
+        }
+
+        return previous;
+    }
+
+    // null outside invocations started by the Lambda handler
+    public static Long remainingMillis() {
+        var deadline = CURRENT.get();
+        return deadline == null ? null : (deadline - System.nanoTime()) / NANOS_PER_MILLI;
+    }
+
+}
@@ -0,0 +1,50 @@
+package dev.ciprian.deadline;
+
+import dev.ciprian.config.SdkClientProperties;
+import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+
+import java.time.Duration;
+
+// shrinks the call and attempt timeouts of each request to what is left of the Lambda invocation
+public class DeadlineInterceptor implements ExecutionInterceptor {
+
+    private final SdkClientProperties properties;
+
+    public DeadlineInterceptor(SdkClientProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public SdkRequest modifyRequest(Context.ModifyRequest context, ExecutionAttributes executionAttributes) {
+        var remainingMillis = Deadline.remainingMillis();
+
+        if (remainingMillis == null || !(context.request() instanceof AwsRequest request)) {
+            return context.request();
+        }
+
+        // the margin leaves time to answer with an error before Lambda kills the invocation
+        var budgetMillis = Math.max(1, remainingMillis - properties.getDeadlineMarginMillis());
+        var callTimeoutMillis = properties.getApiCallTimeoutMillis() == null
+                ? budgetMillis
+                : Math.min(properties.getApiCallTimeoutMillis(), budgetMillis);
+
+        var overrideConfiguration = request.overrideConfiguration()
+                .map(AwsRequestOverrideConfiguration::toBuilder)
+                .orElseGet(AwsRequestOverrideConfiguration::builder)
+                .apiCallTimeout(Duration.ofMillis(callTimeoutMillis));
+
+        if (properties.getApiCallAttemptTimeoutMillis() != null) {
+            overrideConfiguration.apiCallAttemptTimeout(Duration.ofMillis(Math.min(properties.getApiCallAttemptTimeoutMillis(), callTimeoutMillis)));
+        }
+
+        return request.toBuilder()
+                .overrideConfiguration(overrideConfiguration.build())
+                .build();
+    }
+
+}
@@ -6,4 +6,16 @@ public class CustomException extends RuntimeException {
         super(message);
     }
 
+    // messages start with the HTTP status, e.g. "403 Invalid user id"
+    public int statusCode() {
+        var message = getMessage();
+        var space = message == null ? -1 : message.indexOf(' ');
+
+        try {
+            return Integer.parseInt(space > 0 ? message.substring(0, space) : message);
+        } catch (NumberFormatException ignored) {
+            return 500;
+        }
+    }
+
 }
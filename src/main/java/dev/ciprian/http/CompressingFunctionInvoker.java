@@ -0,0 +1,56 @@
+package dev.ciprian.http;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import dev.ciprian.deadline.Deadline;
+import dev.ciprian.tracing.Tracer;
+import org.springframework.cloud.function.adapter.aws.FunctionInvoker;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public class CompressingFunctionInvoker extends FunctionInvoker {
+
+    private final ResponseCompressor responseCompressor;
+    private final Tracer tracer;
+
+    // the superclass constructor has booted the application context by now, so both come bound to application.yaml
+    // and the tracer is the same bean the metrics recorder uses
+    public CompressingFunctionInvoker() {
+        var invokerBeans = InvokerBeans.current();
+        this.responseCompressor = invokerBeans.responseCompressor();
+        this.tracer = invokerBeans.tracer();
+    }
+
+    // the trace starts here, so routing before the function and serialization after it get spans of their own
+    @Override
+    public void handleRequest(InputStream input, OutputStream output, Context context) throws IOException {
+        var trace = tracer.isEnabled() ? tracer.start() : null;
+
+        if (context != null) {
+            Deadline.start(context.getRemainingTimeInMillis());
+        }
+
+        try {
+            var request = input.readAllBytes();
+            var response = new ByteArrayOutputStream();
+
+            super.handleRequest(new ByteArrayInputStream(request), response, context);
+
+            if (trace != null) {
+                trace.serialized();
+            }
+
+            output.write(responseCompressor.compress(request, response.toByteArray()));
+        } finally {
+            Deadline.clear();
+
+            if (trace != null) {
+                tracer.finish(trace);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,38 @@
+package dev.ciprian.http;
+
+import dev.ciprian.tracing.Tracer;
+import org.springframework.stereotype.Component;
+
+// FunctionInvoker boots the application context in its constructor and keeps it to itself,
+// so the beans the Lambda handler wraps the function with are handed over from inside the context
+@Component
+class InvokerBeans {
+
+    private static volatile InvokerBeans current;
+
+    private final ResponseCompressor responseCompressor;
+    private final Tracer tracer;
+
+    InvokerBeans(ResponseCompressor responseCompressor, Tracer tracer) {
+        this.responseCompressor = responseCompressor;
+        this.tracer = tracer;
+        current = this;
+    }
+
+    static InvokerBeans current() {
+        if (current == null) {
+            throw new IllegalStateException("The application context was not started by the function invoker");
+        }
+
+        return current;
+    }
+
+    ResponseCompressor responseCompressor() {
+        return responseCompressor;
+    }
+
+    Tracer tracer() {
+        return tracer;
+    }
+
+}
@@ -1,87 +1,412 @@
 package dev.ciprian.http;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import dev.ciprian.config.ConditionalOnFunctionGroup;
 import dev.ciprian.config.DynamoDbConfig;
 import dev.ciprian.exceptions.CustomException;
+import dev.ciprian.metrics.MetricsRecorder;
 import dev.ciprian.models.request.GenericRequest;
 import dev.ciprian.models.request.PostRequest;
+import dev.ciprian.models.request.PostsRequest;
+import dev.ciprian.models.response.BatchResponse;
 import dev.ciprian.models.response.GenericResponse;
+import dev.ciprian.models.response.PostResponse;
 import dev.ciprian.models.response.PostsResponse;
+import dev.ciprian.models.response.ProgressResponse;
+import dev.ciprian.service.AsyncPostsService;
+import dev.ciprian.service.PostMapper;
+import dev.ciprian.service.PostsCache;
 import dev.ciprian.service.PostsService;
+import dev.ciprian.service.TokenVerifier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpStatus;
 
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
 import java.util.function.Function;
 import java.util.logging.Logger;
 
-import static dev.ciprian.constants.HeaderConstants.USER_ID_HEADER;
+import static dev.ciprian.constants.FunctionGroupConstants.POSTS;
+import static dev.ciprian.constants.HeaderConstants.*;
+import static dev.ciprian.metrics.Phase.*;
 import static org.springframework.util.StringUtils.hasLength;
 
 @Configuration
+@Lazy
+@ConditionalOnFunctionGroup(POSTS)
 public class PostsConfig {
 
     private final Logger logger;
     private final DynamoDbConfig dynamoDbConfig;
-    private final ObjectMapper objectMapper;
+    private final ObjectReader genericRequestReader;
+    private final ObjectReader postRequestReader;
+    private final ObjectReader postsRequestReader;
     private final PostsService postsService;
+    private final AsyncPostsService asyncPostsService;
+    private final PostsCache postsCache;
+    private final PostMapper postMapper;
+    private final TokenVerifier tokenVerifier;
+    private final MetricsRecorder metricsRecorder;
 
-    public PostsConfig(DynamoDbConfig dynamoDbConfig, ObjectMapper objectMapper, PostsService postsService) {
+    public PostsConfig(DynamoDbConfig dynamoDbConfig, ObjectMapper objectMapper, PostsService postsService,
+                       ObjectProvider<AsyncPostsService> asyncPostsService, PostsCache postsCache, PostMapper postMapper,
+                       TokenVerifier tokenVerifier, MetricsRecorder metricsRecorder) {
         this.logger = Logger.getLogger(PostsConfig.class.getName());
         this.dynamoDbConfig = dynamoDbConfig;
-        this.objectMapper = objectMapper;
+        this.genericRequestReader = objectMapper.readerFor(GenericRequest.class);
+        this.postRequestReader = objectMapper.readerFor(PostRequest.class);
+        this.postsRequestReader = objectMapper.readerFor(PostsRequest.class);
         this.postsService = postsService;
+        this.asyncPostsService = asyncPostsService.getIfAvailable();
+        this.postsCache = postsCache;
+        this.postMapper = postMapper;
+        this.tokenVerifier = tokenVerifier;
+        this.metricsRecorder = metricsRecorder;
     }
 
     @Bean
-    public Function<String, PostsResponse> getPosts() {
-        return request -> {
+    public Function<byte[], PostsResponse> getPosts() {
+        return metricsRecorder.wrap("getPosts", request -> {
             try {
-                var genericRequest = objectMapper.readValue(request, GenericRequest.class);
-                var sub = genericRequest.getHeaders().get(USER_ID_HEADER);
+                var genericRequest = genericRequestReader.readValue(request);
+                metricsRecorder.lap(DECODE);
+                var sub = tokenVerifier.subject(genericRequest.getHeaders());
 
                 if (!hasLength(sub)) {
                     throw new CustomException(HttpStatus.FORBIDDEN.value() + " Invalid user id");
                 }
 
+                var pageSize = pageSize(genericRequest.getHeaders().get(PAGE_SIZE_HEADER));
+                var nextToken = genericRequest.getHeaders().get(NEXT_TOKEN_HEADER);
+                var summary = Boolean.parseBoolean(genericRequest.getHeaders().get(SUMMARY_HEADER));
+                var previewLength = summary ? previewLength(genericRequest.getHeaders().get(PREVIEW_LENGTH_HEADER)) : null;
+
+                metricsRecorder.userId(sub);
+                metricsRecorder.lap(VALIDATE);
+
+                // read before the posts, so a write racing the query can only make the tag older than the posts
+                var version = dynamoDbConfig.isVersionTagsEnabled() ? postsService.getVersion(dynamoDbConfig.getTableName(), sub) : null;
+                var etag = version == null ? null : etag(version, pageSize, nextToken, summary, previewLength);
+
+                if (etag != null && matches(genericRequest.getHeaders().get(IF_NONE_MATCH_HEADER), etag)) {
+                    metricsRecorder.lap(BACKEND);
+                    logger.info("Posts not modified for sub: " + sub);
+                    var response = new PostsResponse(true, HttpStatus.NOT_MODIFIED.value());
+                    response.setEtag(etag);
+                    return response;
+                }
+
                 logger.info("Getting posts for sub: " + sub);
-                var response = postsService.getPosts(dynamoDbConfig.getTableName(), sub);
+                var response = summary
+                        ? fetchSummaries(sub, pageSize, nextToken, previewLength, version)
+                        : fetchPosts(sub, pageSize, nextToken, version);
+
+                metricsRecorder.lap(BACKEND);
+
+                if (!response.isValid()) {
+                    throw new CustomException(response.getStatusCode() + " " + response.getErrorMessage());
+                }
+
+                response.setEtag(etag);
+                return response;
+            } catch (IOException exception) {
+                logger.warning("Could not deserialize request: " + exception.getMessage());
+                throw new CustomException(HttpStatus.INTERNAL_SERVER_ERROR.value() + " Could not deserialize request");
+            }
+        });
+    }
+
+    @Bean
+    public Function<byte[], PostsResponse> getPostsByTag() {
+        return metricsRecorder.wrap("getPostsByTag", request -> {
+            try {
+                var genericRequest = genericRequestReader.readValue(request);
+                metricsRecorder.lap(DECODE);
+                var sub = tokenVerifier.subject(genericRequest.getHeaders());
+
+                if (!hasLength(sub)) {
+                    throw new CustomException(HttpStatus.FORBIDDEN.value() + " Invalid user id");
+                }
+
+                var tag = genericRequest.getHeaders().get(POST_TAG_HEADER);
+
+                if (!hasLength(tag)) {
+                    throw new CustomException(HttpStatus.BAD_REQUEST.value() + " Invalid tag");
+                }
+
+                var pageSize = pageSize(genericRequest.getHeaders().get(PAGE_SIZE_HEADER));
+                var nextToken = genericRequest.getHeaders().get(NEXT_TOKEN_HEADER);
+
+                metricsRecorder.userId(sub);
+                metricsRecorder.lap(VALIDATE);
+
+                logger.info("Getting posts tagged " + tag + " for sub: " + sub);
+                var response = postsService.getPostsByTag(dynamoDbConfig.getTableName(), sub, tag, pageSize, nextToken);
+
+                metricsRecorder.lap(BACKEND);
+
+                if (!response.isValid()) {
+                    throw new CustomException(response.getStatusCode() + " " + response.getErrorMessage());
+                }
+
+                return response;
+            } catch (IOException exception) {
+                logger.warning("Could not deserialize request: " + exception.getMessage());
+                throw new CustomException(HttpStatus.INTERNAL_SERVER_ERROR.value() + " Could not deserialize request");
+            }
+        });
+    }
+
+    // the version only moves on writes while tags are enabled, so the epoch is raised when turning them back on
+    private String etag(long version, Integer pageSize, String nextToken, boolean summary, Integer previewLength) {
+        return "\"" + dynamoDbConfig.getVersionTagsEpoch() + "." + version + "-" + Integer.toHexString(Objects.hash(pageSize, nextToken, summary, previewLength)) + "\"";
+    }
+
+    private boolean matches(String ifNoneMatch, String etag) {
+        if (!hasLength(ifNoneMatch)) {
+            return false;
+        }
+
+        for (var candidate : ifNoneMatch.split(",")) {
+            var value = candidate.trim();
+
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+
+            if (value.equals(etag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private PostsResponse fetchSummaries(String sub, Integer pageSize, String nextToken, Integer previewLength, Long version) {
+        var cached = postsCache.isEnabled() && pageSize == null && nextToken == null ? postsCache.get(sub, version) : null;
+        PostsResponse response;
+
+        if (cached != null) {
+            response = new PostsResponse(true, HttpStatus.OK.value());
+            response.setPosts(cached);
+        } else {
+            var projection = previewLength == null ? PostMapper.SUMMARY_PROJECTION : PostMapper.PREVIEW_PROJECTION;
+            response = asyncPostsService != null
+                    ? asyncPostsService.getPosts(dynamoDbConfig.getTableName(), sub, pageSize, nextToken, projection).join()
+                    : postsService.getPosts(dynamoDbConfig.getTableName(), sub, pageSize, nextToken, projection);
+        }
+
+        if (response.isValid()) {
+            response.setPosts(response.getPosts().stream().map(post -> postMapper.toSummary(post, previewLength)).toList());
+        }
+
+        return response;
+    }
+
+    private PostsResponse fetchPosts(String sub, Integer pageSize, String nextToken, Long version) {
+        var cacheable = postsCache.isEnabled() && pageSize == null && nextToken == null;
+
+        if (cacheable) {
+            var posts = postsCache.get(sub, version);
+
+            if (posts != null) {
+                var response = new PostsResponse(true, HttpStatus.OK.value());
+                response.setPosts(posts);
+                return response;
+            }
+        }
+
+        var generation = postsCache.generation(sub);
+        var response = asyncPostsService != null
+                ? asyncPostsService.getPosts(dynamoDbConfig.getTableName(), sub, pageSize, nextToken).join()
+                : postsService.getPosts(dynamoDbConfig.getTableName(), sub, pageSize, nextToken);
+
+        if (cacheable && response.isValid()) {
+            postsCache.put(sub, response.getPosts(), generation, version);
+        }
+
+        return response;
+    }
+
+    private Integer previewLength(String header) {
+        if (!hasLength(header)) {
+            return null;
+        }
+
+        try {
+            var previewLength = Integer.parseInt(header);
+
+            if (previewLength < 1) {
+                throw new CustomException(HttpStatus.BAD_REQUEST.value() + " Invalid preview length");
+            }
+
+            return previewLength;
+        } catch (NumberFormatException exception) {
+            throw new CustomException(HttpStatus.BAD_REQUEST.value() + " Invalid preview length");
+        }
+    }
+
+    private Integer pageSize(String header) {
+        if (!hasLength(header)) {
+            return null;
+        }
+
+        try {
+            var pageSize = Integer.parseInt(header);
+
+            if (pageSize < 1) {
+                throw new CustomException(HttpStatus.BAD_REQUEST.value() + " Invalid page size");
+            }
+
+            return Math.min(pageSize, dynamoDbConfig.getMaxPageSize());
+        } catch (NumberFormatException exception) {
+            throw new CustomException(HttpStatus.BAD_REQUEST.value() + " Invalid page size");
+        }
+    }
+
+    @Bean
+    public Function<byte[], PostResponse> getPost() {
+        return metricsRecorder.wrap("getPost", request -> {
+            try {
+                var postRequest = postRequestReader.readValue(request);
+                metricsRecorder.lap(DECODE);
+                var sub = tokenVerifier.subject(postRequest.getHeaders());
+
+                validate(sub, postRequest);
+
+                var postTitle = postRequest.getBody().postTitle();
+                var consistentRead = Boolean.parseBoolean(postRequest.getHeaders().get(CONSISTENT_READ_HEADER));
+
+                metricsRecorder.userId(sub);
+                metricsRecorder.lap(VALIDATE);
+
+                logger.info("Getting post: " + postTitle);
+                var response = consistentRead ? null : cachedPost(sub, postTitle);
+
+                if (response == null) {
+                    response = asyncPostsService != null
+                            ? asyncPostsService.getPost(dynamoDbConfig.getTableName(), sub, postTitle, consistentRead).join()
+                            : postsService.getPost(dynamoDbConfig.getTableName(), sub, postTitle, consistentRead);
+                }
+
+                metricsRecorder.lap(BACKEND);
 
                 if (!response.isValid()) {
                     throw new CustomException(response.getStatusCode() + " " + response.getErrorMessage());
                 }
 
                 return response;
-            } catch (JsonProcessingException exception) {
+            } catch (IOException exception) {
                 logger.warning("Could not deserialize request: " + exception.getMessage());
                 throw new CustomException(HttpStatus.INTERNAL_SERVER_ERROR.value() + " Could not deserialize request");
             }
-        };
+        });
+    }
+
+    private PostResponse cachedPost(String sub, String postTitle) {
+        if (!postsCache.isEnabled()) {
+            return null;
+        }
+
+        // checked like getPosts, so a list cached before another instance's write is not served
+        var version = dynamoDbConfig.isVersionTagsEnabled() ? postsService.getVersion(dynamoDbConfig.getTableName(), sub) : null;
+        var posts = postsCache.get(sub, version);
+
+        if (posts == null) {
+            return null;
+        }
+
+        for (var post : posts) {
+            if (post.postTitle().equals(postTitle)) {
+                var response = new PostResponse(true, HttpStatus.OK.value());
+                response.setPost(post);
+                return response;
+            }
+        }
+
+        // the cached list is complete, so a missing title is a miss for the table as well
+        return new PostResponse(false, HttpStatus.NOT_FOUND.value(), "Post not found");
     }
 
     @Bean
-    public Function<String, GenericResponse> savePost() {
-        return request -> {
+    public Function<byte[], GenericResponse> savePost() {
+        return metricsRecorder.wrap("savePost", request -> {
             try {
-                var postRequest = objectMapper.readValue(request, PostRequest.class);
-                var sub = postRequest.getHeaders().get(USER_ID_HEADER);
+                var postRequest = postRequestReader.readValue(request);
+                metricsRecorder.lap(DECODE);
+                var sub = tokenVerifier.subject(postRequest.getHeaders());
 
                 validate(sub, postRequest);
 
+                metricsRecorder.userId(sub);
+                metricsRecorder.lap(VALIDATE);
+
                 logger.info("Saving post: " + postRequest.getBody().postTitle());
-                var response = postsService.save(dynamoDbConfig.getTableName(), sub, postRequest.getBody());
+                var response = asyncPostsService != null
+                        ? asyncPostsService.save(dynamoDbConfig.getTableName(), sub, postRequest.getBody()).join()
+                        : postsService.save(dynamoDbConfig.getTableName(), sub, postRequest.getBody());
+                postsCache.invalidate(sub);
+
+                metricsRecorder.lap(BACKEND);
+
+                if (!response.isValid()) {
+                    throw new CustomException(response.getStatusCode() + " " + response.getErrorMessage());
+                }
+
+                return response;
+            } catch (IOException exception) {
+                logger.warning("Could not deserialize request: " + exception.getMessage());
+                throw new CustomException(HttpStatus.INTERNAL_SERVER_ERROR.value() + " Could not deserialize request");
+            }
+        });
+    }
+
+    @Bean
+    public Function<byte[], BatchResponse> savePosts() {
+        return metricsRecorder.wrap("savePosts", request -> {
+            try {
+                var postsRequest = postsRequestReader.readValue(request);
+                metricsRecorder.lap(DECODE);
+                var sub = tokenVerifier.subject(postsRequest.getHeaders());
+
+                validate(sub, postsRequest);
+
+                metricsRecorder.userId(sub);
+                metricsRecorder.lap(VALIDATE);
+
+                logger.info("Saving " + postsRequest.getBody().size() + " posts");
+                var response = postsService.saveAll(dynamoDbConfig.getTableName(), sub, postsRequest.getBody());
+                postsCache.invalidate(sub);
+
+                metricsRecorder.lap(BACKEND);
 
                 if (!response.isValid()) {
                     throw new CustomException(response.getStatusCode() + " " + response.getErrorMessage());
                 }
 
                 return response;
-            } catch (JsonProcessingException exception) {
+            } catch (IOException exception) {
                 logger.warning("Could not deserialize request: " + exception.getMessage());
                 throw new CustomException(HttpStatus.INTERNAL_SERVER_ERROR.value() + " Could not deserialize request");
             }
-        };
+        });
+    }
+
+    private void validate(String sub, PostsRequest postsRequest) {
+        if (!hasLength(sub)) {
+            throw new CustomException(HttpStatus.FORBIDDEN.value() + " Invalid user id");
+        }
+
+        if (postsRequest.getBody() == null || postsRequest.getBody().isEmpty()
+                || postsRequest.getBody().size() > dynamoDbConfig.getMaxBatchSize()) {
+            throw new CustomException(HttpStatus.BAD_REQUEST.value() + " Invalid data");
+        }
     }
 
     private void validate(String sub, PostRequest postRequest) {
@@ -95,27 +420,101 @@ public class PostsConfig {
     }
 
     @Bean
-    public Function<String, GenericResponse> deletePost() {
-        return request -> {
+    public Function<byte[], GenericResponse> deletePost() {
+        return metricsRecorder.wrap("deletePost", request -> {
             try {
-                var postRequest = objectMapper.readValue(request, PostRequest.class);
-                var sub = postRequest.getHeaders().get(USER_ID_HEADER);
+                var postRequest = postRequestReader.readValue(request);
+                metricsRecorder.lap(DECODE);
+                var sub = tokenVerifier.subject(postRequest.getHeaders());
 
                 validate(sub, postRequest);
 
+                metricsRecorder.userId(sub);
+                metricsRecorder.lap(VALIDATE);
+
                 logger.info("Deleting post: " + postRequest.getBody().postTitle());
-                var response = postsService.delete(dynamoDbConfig.getTableName(), sub, postRequest.getBody());
+                var response = asyncPostsService != null
+                        ? asyncPostsService.delete(dynamoDbConfig.getTableName(), sub, postRequest.getBody()).join()
+                        : postsService.delete(dynamoDbConfig.getTableName(), sub, postRequest.getBody());
+                postsCache.invalidate(sub);
+
+                metricsRecorder.lap(BACKEND);
+
+                if (!response.isValid()) {
+                    throw new CustomException(response.getStatusCode() + " " + response.getErrorMessage());
+                }
+
+                return response;
+            } catch (IOException exception) {
+                logger.warning("Could not deserialize request: " + exception.getMessage());
+                throw new CustomException(HttpStatus.INTERNAL_SERVER_ERROR.value() + " Could not deserialize request");
+            }
+        });
+    }
+
+    @Bean
+    public Function<byte[], ProgressResponse> deleteAllPosts() {
+        return metricsRecorder.wrap("deleteAllPosts", request -> {
+            try {
+                var genericRequest = genericRequestReader.readValue(request);
+                metricsRecorder.lap(DECODE);
+                var sub = tokenVerifier.subject(genericRequest.getHeaders());
+
+                if (!hasLength(sub)) {
+                    throw new CustomException(HttpStatus.FORBIDDEN.value() + " Invalid user id");
+                }
+
+                var nextToken = genericRequest.getHeaders().get(NEXT_TOKEN_HEADER);
+
+                metricsRecorder.userId(sub);
+                metricsRecorder.lap(VALIDATE);
+
+                logger.info("Deleting all posts for sub: " + sub);
+                var response = postsService.deleteAll(dynamoDbConfig.getTableName(), sub, nextToken, dynamoDbConfig.getDeleteAllBudgetMillis());
+                postsCache.invalidate(sub);
+
+                metricsRecorder.lap(BACKEND);
+
+                if (!response.isValid()) {
+                    throw new CustomException(response.getStatusCode() + " " + response.getErrorMessage());
+                }
+
+                return response;
+            } catch (IOException exception) {
+                logger.warning("Could not deserialize request: " + exception.getMessage());
+                throw new CustomException(HttpStatus.INTERNAL_SERVER_ERROR.value() + " Could not deserialize request");
+            }
+        });
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "dynamodb", name = "tag-migration-enabled", havingValue = "true")
+    public Function<byte[], ProgressResponse> migratePostTags() {
+        return metricsRecorder.wrap("migratePostTags", request -> {
+            try {
+                var genericRequest = genericRequestReader.readValue(request);
+                metricsRecorder.lap(DECODE);
+                var headers = genericRequest.getHeaders() == null ? Map.<String, String>of() : genericRequest.getHeaders();
+                var nextToken = headers.get(NEXT_TOKEN_HEADER);
+
+                metricsRecorder.lap(VALIDATE);
+
+                logger.info("Migrating legacy post tags");
+                var response = postsService.migrateTags(dynamoDbConfig.getTableName(), dynamoDbConfig.getMaxPageSize(),
+                        nextToken, dynamoDbConfig.getTagMigrationBudgetMillis());
+
+                metricsRecorder.lap(BACKEND);
 
                 if (!response.isValid()) {
                     throw new CustomException(response.getStatusCode() + " " + response.getErrorMessage());
                 }
 
                 return response;
-            } catch (JsonProcessingException exception) {
+            } catch (IOException exception) {
                 logger.warning("Could not deserialize request: " + exception.getMessage());
                 throw new CustomException(HttpStatus.INTERNAL_SERVER_ERROR.value() + " Could not deserialize request");
             }
-        };
+        });
     }
 
 }
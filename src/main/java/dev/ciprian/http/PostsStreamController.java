@@ -0,0 +1,29 @@
+package dev.ciprian.http;
+
+import dev.ciprian.config.ConditionalOnFunctionGroup;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import static dev.ciprian.constants.FunctionGroupConstants.POSTS;
+
+@RestController
+@Lazy
+@ConditionalOnFunctionGroup(POSTS)
+public class PostsStreamController {
+
+    private final PostsStreamer postsStreamer;
+
+    public PostsStreamController(PostsStreamer postsStreamer) {
+        this.postsStreamer = postsStreamer;
+    }
+
+    @PostMapping(path = "/stream/getPosts", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamingResponseBody getPosts(@RequestBody byte[] request) {
+        return output -> postsStreamer.stream(request, output);
+    }
+
+}
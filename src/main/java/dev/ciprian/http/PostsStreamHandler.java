@@ -0,0 +1,31 @@
+package dev.ciprian.http;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import dev.ciprian.Application;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public class PostsStreamHandler implements RequestStreamHandler {
+
+    private static final ConfigurableApplicationContext APPLICATION_CONTEXT = new SpringApplicationBuilder(Application.class)
+            .web(WebApplicationType.NONE)
+            .run();
+
+    private final PostsStreamer postsStreamer;
+
+    public PostsStreamHandler() {
+        this.postsStreamer = APPLICATION_CONTEXT.getBean(PostsStreamer.class);
+    }
+
+    @Override
+    public void handleRequest(InputStream input, OutputStream output, Context context) throws IOException {
+        postsStreamer.stream(input, output);
+    }
+
+}
@@ -0,0 +1,159 @@
+package dev.ciprian.http;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import dev.ciprian.config.ConditionalOnFunctionGroup;
+import dev.ciprian.config.DynamoDbConfig;
+import dev.ciprian.exceptions.CustomException;
+import dev.ciprian.metrics.MetricsRecorder;
+import dev.ciprian.models.domain.Post;
+import dev.ciprian.models.request.GenericRequest;
+import dev.ciprian.models.response.GenericResponse;
+import dev.ciprian.service.PostsService;
+import dev.ciprian.service.TokenVerifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static dev.ciprian.constants.FunctionGroupConstants.POSTS;
+import static dev.ciprian.metrics.Phase.BACKEND;
+import static dev.ciprian.metrics.Phase.DECODE;
+import static dev.ciprian.metrics.Phase.VALIDATE;
+import static org.springframework.util.StringUtils.hasLength;
+
+@Component
+@Lazy
+@ConditionalOnFunctionGroup(POSTS)
+public class PostsStreamer {
+
+    private static final String FUNCTION_NAME = "streamPosts";
+
+    private final Logger logger;
+    private final DynamoDbConfig dynamoDbConfig;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader genericRequestReader;
+    private final PostsService postsService;
+    private final TokenVerifier tokenVerifier;
+    private final MetricsRecorder metricsRecorder;
+
+    public PostsStreamer(DynamoDbConfig dynamoDbConfig, ObjectMapper objectMapper, PostsService postsService, TokenVerifier tokenVerifier,
+                         MetricsRecorder metricsRecorder) {
+        this.logger = Logger.getLogger(PostsStreamer.class.getName());
+        this.dynamoDbConfig = dynamoDbConfig;
+        this.objectMapper = objectMapper;
+        this.genericRequestReader = objectMapper.readerFor(GenericRequest.class);
+        this.postsService = postsService;
+        this.tokenVerifier = tokenVerifier;
+        this.metricsRecorder = metricsRecorder;
+    }
+
+    public void stream(InputStream request, OutputStream output) throws IOException {
+        stream(request.readAllBytes(), output);
+    }
+
+    // metered and traced like the functions, the response returned to the wrappers is the status written at the end
+    public void stream(byte[] request, OutputStream output) throws IOException {
+        try {
+            metricsRecorder.wrap(FUNCTION_NAME, body -> write(readSub(body), output)).apply(request);
+        } catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+    }
+
+    private String readSub(byte[] request) {
+        try {
+            var genericRequest = genericRequestReader.readValue(request);
+            metricsRecorder.lap(DECODE);
+            var sub = tokenVerifier.subject(genericRequest.getHeaders());
+
+            if (!hasLength(sub)) {
+                throw new CustomException(HttpStatus.FORBIDDEN.value() + " Invalid user id");
+            }
+
+            metricsRecorder.userId(sub);
+            metricsRecorder.lap(VALIDATE);
+            return sub;
+        } catch (IOException exception) {
+            logger.warning("Could not deserialize request: " + exception.getMessage());
+            throw new CustomException(HttpStatus.INTERNAL_SERVER_ERROR.value() + " Could not deserialize request");
+        }
+    }
+
+    private GenericResponse write(String sub, OutputStream output) {
+        logger.info("Streaming posts for sub: " + sub);
+
+        try (var writer = new PostsWriter(objectMapper.createGenerator(output))) {
+            var response = postsService.forEachPage(dynamoDbConfig.getTableName(), sub, writer::writePage);
+            metricsRecorder.lap(BACKEND);
+
+            if (!response.isValid() && !writer.isStarted()) {
+                throw new CustomException(response.getStatusCode() + " " + response.getErrorMessage());
+            }
+
+            writer.finish(response);
+            return response;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static class PostsWriter implements AutoCloseable {
+
+        private final JsonGenerator generator;
+        private boolean started;
+
+        PostsWriter(JsonGenerator generator) {
+            this.generator = generator;
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        boolean isStarted() {
+            return started;
+        }
+
+        void writePage(List<Post> posts) {
+            try {
+                if (!started) {
+                    generator.writeStartObject();
+                    generator.writeArrayFieldStart("posts");
+                    started = true;
+                }
+
+                for (var post : posts) {
+                    generator.writeObject(post);
+                }
+
+                generator.flush();
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+        void finish(GenericResponse response) throws IOException {
+            generator.writeEndArray();
+            generator.writeNumberField("statusCode", response.getStatusCode());
+
+            if (hasLength(response.getErrorMessage())) {
+                generator.writeStringField("errorMessage", response.getErrorMessage());
+            }
+
+            generator.writeEndObject();
+            generator.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+
+    }
+
+}
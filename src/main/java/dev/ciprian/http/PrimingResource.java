@@ -0,0 +1,175 @@
+package dev.ciprian.http;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.config.CognitoConfig;
+import dev.ciprian.config.DynamoDbConfig;
+import dev.ciprian.config.PrimingConfig;
+import dev.ciprian.models.domain.Post;
+import dev.ciprian.models.domain.RefreshToken;
+import dev.ciprian.models.response.AccessResponse;
+import dev.ciprian.models.response.BatchResponse;
+import dev.ciprian.models.response.GenericResponse;
+import dev.ciprian.models.response.ItemStatus;
+import dev.ciprian.models.response.PostResponse;
+import dev.ciprian.models.response.PostsResponse;
+import dev.ciprian.models.response.ProgressResponse;
+import dev.ciprian.service.AsyncPostsService;
+import dev.ciprian.service.LoginService;
+import dev.ciprian.service.PostsCache;
+import dev.ciprian.service.PostsService;
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.function.context.FunctionCatalog;
+import org.springframework.cloud.function.context.config.RoutingFunction;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+import static dev.ciprian.constants.HeaderConstants.FUNCTION_NAME_HEADER;
+import static dev.ciprian.constants.HeaderConstants.USER_ID_HEADER;
+
+@Component
+@ConditionalOnProperty(prefix = "priming", name = "enabled", havingValue = "true")
+public class PrimingResource implements Resource {
+
+    private final Logger logger;
+    private final PrimingConfig primingConfig;
+    private final ObjectProvider<DynamoDbConfig> dynamoDbConfig;
+    private final ObjectProvider<CognitoConfig> cognitoConfig;
+    private final ObjectMapper objectMapper;
+    private final FunctionCatalog functionCatalog;
+    private final ObjectProvider<PostsService> postsService;
+    private final ObjectProvider<AsyncPostsService> asyncPostsService;
+    private final ObjectProvider<LoginService> loginService;
+    private final PostsCache postsCache;
+
+    public PrimingResource(PrimingConfig primingConfig, ObjectProvider<DynamoDbConfig> dynamoDbConfig, ObjectProvider<CognitoConfig> cognitoConfig,
+                           ObjectMapper objectMapper, FunctionCatalog functionCatalog, ObjectProvider<PostsService> postsService,
+                           ObjectProvider<AsyncPostsService> asyncPostsService, ObjectProvider<LoginService> loginService, PostsCache postsCache) {
+        this.logger = Logger.getLogger(PrimingResource.class.getName());
+        this.primingConfig = primingConfig;
+        this.dynamoDbConfig = dynamoDbConfig;
+        this.cognitoConfig = cognitoConfig;
+        this.objectMapper = objectMapper;
+        this.functionCatalog = functionCatalog;
+        this.postsService = postsService;
+        this.asyncPostsService = asyncPostsService;
+        this.loginService = loginService;
+        this.postsCache = postsCache;
+        Core.getGlobalContext().register(this);
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) {
+        var start = System.nanoTime();
+
+        primeFunctions();
+        primeSerializers();
+        primeConnections();
+
+        logger.info("Primed functions before checkpoint in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        var start = System.nanoTime();
+
+        // connections opened before the checkpoint do not survive the restore
+        primeConnections();
+
+        logger.info("Re-established connections after restore in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private void primeFunctions() {
+        var sub = primingConfig.getSub();
+
+        // the payloads are routed and decoded, then rejected by validation, except getPosts and deleteAllPosts which reach the
+        // backend for the priming sub while jwt.enabled is off, with it on they carry no token and stop at validation too
+        invoke("getPosts", Map.of(USER_ID_HEADER, sub), null);
+        invoke("getPostsByTag", Map.of(USER_ID_HEADER, sub), null);
+        invoke("getPost", Map.of(USER_ID_HEADER, sub), Map.of("postTitle", ""));
+        invoke("savePost", Map.of(USER_ID_HEADER, sub), Map.of("postTitle", ""));
+        invoke("savePosts", Map.of(USER_ID_HEADER, sub), List.of());
+        invoke("deletePost", Map.of(USER_ID_HEADER, sub), Map.of("postTitle", ""));
+        invoke("deleteAllPosts", Map.of(USER_ID_HEADER, sub), null);
+        invoke("registerUser", Map.of(), Map.of("username", ""));
+        invoke("loginUser", Map.of(), Map.of("username", ""));
+        invoke("refreshLogin", Map.of(), Map.of("refreshToken", ""));
+
+        // the backend paths are primed through the service either way, the priming sub is no Cognito sub and owns no posts
+        try {
+            postsService.ifAvailable(service -> {
+                var tableName = dynamoDbConfig.getObject().getTableName();
+                service.getPostsByTag(tableName, sub, "priming", 1, null);
+                service.deleteAll(tableName, sub, null, dynamoDbConfig.getObject().getDeleteAllBudgetMillis());
+            });
+        } catch (RuntimeException exception) {
+            logger.warning("Could not prime posts service: " + exception.getMessage());
+        }
+
+        postsCache.invalidate(sub);
+    }
+
+    private void primeSerializers() {
+        var postsResponse = new PostsResponse(true, HttpStatus.OK.value());
+        postsResponse.setPosts(List.of(new Post("priming", "priming", List.of("priming"))));
+        postsResponse.setNextToken("priming");
+
+        var batchResponse = new BatchResponse(true, HttpStatus.CREATED.value());
+        batchResponse.setItems(List.of(new ItemStatus("priming", HttpStatus.CREATED.value(), null)));
+
+        var responses = List.of(
+                new GenericResponse(false, HttpStatus.BAD_REQUEST.value(), "priming"),
+                postsResponse,
+                new PostResponse(false, HttpStatus.NOT_FOUND.value(), "priming"),
+                batchResponse,
+                new ProgressResponse(true, HttpStatus.OK.value()),
+                new AccessResponse(true, HttpStatus.OK.value())
+        );
+
+        try {
+            for (var response : responses) {
+                objectMapper.writeValueAsBytes(response);
+            }
+        } catch (JsonProcessingException exception) {
+            logger.warning("Could not prime serializers: " + exception.getMessage());
+        }
+    }
+
+    private void primeConnections() {
+        var sub = primingConfig.getSub();
+
+        try {
+            // services of function groups that are not deployed are absent and skipped
+            postsService.ifAvailable(service -> service.getPosts(dynamoDbConfig.getObject().getTableName(), sub));
+            asyncPostsService.ifAvailable(service -> service.getPosts(dynamoDbConfig.getObject().getTableName(), sub, 1, null).join());
+
+            // an unknown refresh token is rejected by Cognito, which still opens the connection and loads the unmarshallers
+            loginService.ifAvailable(service -> service.refresh(new RefreshToken("priming"),
+                    cognitoConfig.getObject().getUserPoolId(), cognitoConfig.getObject().getClientId()));
+        } catch (RuntimeException exception) {
+            logger.warning("Could not prime connections: " + exception.getMessage());
+        }
+    }
+
+    private void invoke(String functionName, Map<String, String> headers, Object body) {
+        try {
+            Function<Message<byte[]>, Object> router = functionCatalog.lookup(RoutingFunction.FUNCTION_NAME);
+            var payload = objectMapper.writeValueAsBytes(body == null ? Map.of("headers", headers) : Map.of("headers", headers, "body", body));
+            router.apply(MessageBuilder.withPayload(payload).setHeader(FUNCTION_NAME_HEADER, functionName).build());
+        } catch (RuntimeException | JsonProcessingException exception) {
+            logger.fine("Primed " + functionName + ": " + exception.getMessage());
+        }
+    }
+
+}
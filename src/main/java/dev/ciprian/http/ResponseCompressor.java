@@ -0,0 +1,166 @@
+package dev.ciprian.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.ciprian.config.ResponseCompressionConfig;
+import dev.ciprian.models.request.GenericRequest;
+import dev.ciprian.service.BodyCodec;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+import static dev.ciprian.constants.HeaderConstants.ACCEPT_ENCODING_HEADER;
+import static dev.ciprian.constants.HeaderConstants.FUNCTION_NAME_HEADER;
+import static org.springframework.util.StringUtils.hasLength;
+
+@Component
+public class ResponseCompressor {
+
+    private static final String CONTENT_ENCODING_HEADER = "Content-Encoding";
+    private static final String VARY_HEADER = "Vary";
+
+    private final Logger logger;
+    private final ResponseCompressionConfig responseCompressionConfig;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader genericRequestReader;
+
+    public ResponseCompressor(ResponseCompressionConfig responseCompressionConfig, ObjectMapper objectMapper) {
+        this.logger = Logger.getLogger(ResponseCompressor.class.getName());
+        this.responseCompressionConfig = responseCompressionConfig;
+        this.objectMapper = objectMapper;
+        this.genericRequestReader = objectMapper.readerFor(GenericRequest.class);
+    }
+
+    public byte[] compress(byte[] request, byte[] response) {
+        if (!responseCompressionConfig.isEnabled()) {
+            return response;
+        }
+
+        try {
+            var codec = negotiate(request);
+
+            if (codec == null) {
+                return response;
+            }
+
+            // only API Gateway proxy responses carry a string body that can be swapped for an encoded one
+            if (!(objectMapper.readTree(response) instanceof ObjectNode envelope) || !envelope.has("statusCode")
+                    || !envelope.path("body").isTextual() || envelope.path("isBase64Encoded").asBoolean()) {
+                return response;
+            }
+
+            var body = envelope.get("body").textValue().getBytes(StandardCharsets.UTF_8);
+
+            if (body.length < responseCompressionConfig.getThresholdBytes()) {
+                return response;
+            }
+
+            var encoded = codec.encode(body);
+
+            if (encoded.length >= body.length) {
+                return response;
+            }
+
+            var headers = envelope.get("headers") instanceof ObjectNode existing ? existing : envelope.putObject("headers");
+            headers.put(CONTENT_ENCODING_HEADER, codec.encoding());
+            headers.put(VARY_HEADER, "Accept-Encoding");
+            envelope.put("body", Base64.getEncoder().encodeToString(encoded));
+            envelope.put("isBase64Encoded", true);
+
+            return objectMapper.writeValueAsBytes(envelope);
+        } catch (IOException exception) {
+            logger.warning("Could not compress response: " + exception.getMessage());
+            return response;
+        }
+    }
+
+    private BodyCodec negotiate(byte[] request) throws IOException {
+        GenericRequest genericRequest = genericRequestReader.readValue(request);
+
+        if (genericRequest.getHeaders() == null) {
+            return null;
+        }
+
+        String acceptEncoding = null;
+        String functionName = null;
+
+        // REST APIs keep the client's header casing, HTTP APIs lower-case it
+        for (var header : genericRequest.getHeaders().entrySet()) {
+            if (ACCEPT_ENCODING_HEADER.equalsIgnoreCase(header.getKey())) {
+                acceptEncoding = header.getValue();
+            } else if (FUNCTION_NAME_HEADER.equalsIgnoreCase(header.getKey())) {
+                functionName = header.getValue();
+            }
+        }
+
+        if (functionName != null && !responseCompressionConfig.getFunctions().contains(functionName)) {
+            return null;
+        }
+
+        return negotiate(acceptEncoding);
+    }
+
+    static BodyCodec negotiate(String acceptEncoding) {
+        if (!hasLength(acceptEncoding)) {
+            return null;
+        }
+
+        var qualities = new EnumMap<BodyCodec, Double>(BodyCodec.class);
+        Double wildcard = null;
+
+        for (var coding : acceptEncoding.split(",")) {
+            var parts = coding.split(";");
+            var name = parts[0].trim().toLowerCase(Locale.ROOT);
+            var quality = quality(parts);
+
+            if (name.equals("*")) {
+                wildcard = quality;
+                continue;
+            }
+
+            for (var codec : BodyCodec.values()) {
+                if (codec.encoding().equals(name)) {
+                    qualities.put(codec, quality);
+                }
+            }
+        }
+
+        BodyCodec selected = null;
+        var selectedQuality = 0.0;
+
+        // ties go to the earlier codec, so gzip wins over deflate
+        for (var codec : BodyCodec.values()) {
+            var quality = qualities.getOrDefault(codec, wildcard == null ? 0.0 : wildcard);
+
+            if (quality > selectedQuality) {
+                selected = codec;
+                selectedQuality = quality;
+            }
+        }
+
+        return selected;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            var parameter = parts[i].trim();
+
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException exception) {
+                    return 0.0;
+                }
+            }
+        }
+
+        return 1.0;
+    }
+
+}
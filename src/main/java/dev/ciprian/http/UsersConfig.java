@@ -1,10 +1,13 @@
 package dev.ciprian.http;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import dev.ciprian.config.CognitoConfig;
+import dev.ciprian.config.ConditionalOnFunctionGroup;
 import dev.ciprian.exceptions.CustomException;
+import dev.ciprian.metrics.MetricsRecorder;
 import dev.ciprian.models.domain.User;
+import dev.ciprian.models.request.RefreshRequest;
 import dev.ciprian.models.request.UserRequest;
 import dev.ciprian.models.response.AccessResponse;
 import dev.ciprian.models.response.GenericResponse;
@@ -12,71 +15,119 @@ import dev.ciprian.service.LoginService;
 import dev.ciprian.service.RegisterService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
 
+import java.io.IOException;
 import java.util.function.Function;
 import java.util.logging.Logger;
 
+import static dev.ciprian.constants.FunctionGroupConstants.USERS;
+import static dev.ciprian.metrics.Phase.*;
 import static org.springframework.util.StringUtils.hasLength;
 
 @Configuration
+@Lazy
+@ConditionalOnFunctionGroup(USERS)
 public class UsersConfig {
 
     private final Logger logger;
     private final CognitoConfig cognitoConfig;
     private final RegisterService registerService;
     private final LoginService loginService;
-    private final ObjectMapper objectMapper;
+    private final ObjectReader userRequestReader;
+    private final ObjectReader refreshRequestReader;
+    private final MetricsRecorder metricsRecorder;
 
-    public UsersConfig(CognitoConfig cognitoConfig, RegisterService registerService, LoginService loginService, ObjectMapper objectMapper) {
+    public UsersConfig(CognitoConfig cognitoConfig, RegisterService registerService, LoginService loginService, ObjectMapper objectMapper,
+                       MetricsRecorder metricsRecorder) {
         this.logger = Logger.getLogger(UsersConfig.class.getName());
         this.cognitoConfig = cognitoConfig;
         this.registerService = registerService;
         this.loginService = loginService;
-        this.objectMapper = objectMapper;
+        this.userRequestReader = objectMapper.readerFor(UserRequest.class);
+        this.refreshRequestReader = objectMapper.readerFor(RefreshRequest.class);
+        this.metricsRecorder = metricsRecorder;
     }
 
     @Bean
-    public Function<String, GenericResponse> registerUser() {
-        return request -> {
+    public Function<byte[], GenericResponse> registerUser() {
+        return metricsRecorder.wrap("registerUser", request -> {
             try {
-                var userRequest = objectMapper.readValue(request, UserRequest.class);
+                var userRequest = userRequestReader.readValue(request);
+                metricsRecorder.lap(DECODE);
                 validate(userRequest.getBody());
+                metricsRecorder.lap(VALIDATE);
 
                 var response = registerService.register(userRequest.getBody(), cognitoConfig.getUserPoolId());
 
+                metricsRecorder.lap(BACKEND);
+
                 if (!response.isValid()) {
                     throw new CustomException(response.getStatusCode() + " " + response.getErrorMessage());
                 }
 
                 return response;
-            } catch (JsonProcessingException exception) {
+            } catch (IOException exception) {
                 logger.warning("Could not deserialize request: " + exception.getMessage());
                 throw new CustomException(HttpStatus.INTERNAL_SERVER_ERROR.value() + " Could not deserialize request");
             }
-        };
+        });
     }
 
     @Bean
-    public Function<String, AccessResponse> loginUser() {
-        return request -> {
+    public Function<byte[], AccessResponse> loginUser() {
+        return metricsRecorder.wrap("loginUser", request -> {
             try {
-                var userRequest = objectMapper.readValue(request, UserRequest.class);
+                var userRequest = userRequestReader.readValue(request);
+                metricsRecorder.lap(DECODE);
                 validate(userRequest.getBody());
+                metricsRecorder.lap(VALIDATE);
 
                 var response = loginService.login(userRequest.getBody(), cognitoConfig.getUserPoolId(), cognitoConfig.getClientId());
 
+                metricsRecorder.lap(BACKEND);
+
+                if (!response.isValid()) {
+                    throw new CustomException(response.getStatusCode() + " " + response.getErrorMessage());
+                }
+
+                return response;
+            } catch (IOException exception) {
+                logger.warning("Could not deserialize request: " + exception.getMessage());
+                throw new CustomException(HttpStatus.INTERNAL_SERVER_ERROR.value() + " Could not deserialize request");
+            }
+        });
+    }
+
+    @Bean
+    public Function<byte[], AccessResponse> refreshLogin() {
+        return metricsRecorder.wrap("refreshLogin", request -> {
+            try {
+                var refreshRequest = refreshRequestReader.readValue(request);
+                metricsRecorder.lap(DECODE);
+
+                if (refreshRequest.getBody() == null || !hasLength(refreshRequest.getBody().refreshToken())) {
+                    throw new CustomException(HttpStatus.BAD_REQUEST.value() + " Invalid data");
+                }
+
+                metricsRecorder.lap(VALIDATE);
+
+                var response = loginService.refresh(refreshRequest.getBody(), cognitoConfig.getUserPoolId(), cognitoConfig.getClientId());
+
+                metricsRecorder.lap(BACKEND);
+
                 if (!response.isValid()) {
                     throw new CustomException(response.getStatusCode() + " " + response.getErrorMessage());
                 }
 
                 return response;
-            } catch (JsonProcessingException exception) {
+            } catch (IOException exception) {
                 logger.warning("Could not deserialize request: " + exception.getMessage());
                 throw new CustomException(HttpStatus.INTERNAL_SERVER_ERROR.value() + " Could not deserialize request");
             }
-        };
+        });
     }
 
     private void validate(@NonNull User user) {
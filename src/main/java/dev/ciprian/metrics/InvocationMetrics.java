@@ -0,0 +1,193 @@
+package dev.ciprian.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
+
+public class InvocationMetrics {
+
+    // not inherited, pooled SDK threads would keep the invocation that created them, InvocationContext carries it instead
+    private static final ThreadLocal<InvocationMetrics> CURRENT = new ThreadLocal<>();
+
+    private final String functionName;
+    private final int requestBytes;
+    private final long startNanos;
+    private final EnumMap<Phase, Long> phaseNanos;
+    private final AtomicInteger sdkCalls;
+    private final AtomicInteger sdkAttempts;
+    private final AtomicInteger throttles;
+    private final AtomicInteger retries;
+    private final AtomicInteger giveUps;
+    private final AtomicInteger cacheHits;
+    private final AtomicInteger cacheMisses;
+    private final AtomicInteger cacheEvictions;
+    private final DoubleAdder readCapacityUnits;
+    private final DoubleAdder writeCapacityUnits;
+    private long lapNanos;
+    private long durationNanos;
+    private String userId;
+    private int statusCode;
+
+    InvocationMetrics(String functionName, int requestBytes) {
+        this.functionName = functionName;
+        this.requestBytes = requestBytes;
+        this.startNanos = System.nanoTime();
+        this.lapNanos = startNanos;
+        this.phaseNanos = new EnumMap<>(Phase.class);
+        this.sdkCalls = new AtomicInteger();
+        this.sdkAttempts = new AtomicInteger();
+        this.throttles = new AtomicInteger();
+        this.retries = new AtomicInteger();
+        this.giveUps = new AtomicInteger();
+        this.cacheHits = new AtomicInteger();
+        this.cacheMisses = new AtomicInteger();
+        this.cacheEvictions = new AtomicInteger();
+        this.readCapacityUnits = new DoubleAdder();
+        this.writeCapacityUnits = new DoubleAdder();
+    }
+
+    public static InvocationMetrics current() {
+        return CURRENT.get();
+    }
+
+    // puts the given metrics on the current thread and returns the ones it replaced
+    public static InvocationMetrics enter(InvocationMetrics metrics) {
+        var previous = CURRENT.get();
+
+        if (metrics == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(metrics);
+        }
+
+        return previous;
+    }
+
+    static InvocationMetrics start(String functionName, int requestBytes) {
+        var metrics = new InvocationMetrics(functionName, requestBytes);
+        CURRENT.set(metrics);
+        return metrics;
+    }
+
+    void finish() {
+        durationNanos = System.nanoTime() - startNanos;
+        CURRENT.remove();
+    }
+
+    // phases are laps on the invoking thread, each one ending where the next starts
+    void lap(Phase phase) {
+        var now = System.nanoTime();
+        phaseNanos.merge(phase, now - lapNanos, Long::sum);
+        lapNanos = now;
+    }
+
+    public void sdkCall() {
+        sdkCalls.incrementAndGet();
+    }
+
+    public void sdkAttempt() {
+        sdkAttempts.incrementAndGet();
+    }
+
+    public void throttle() {
+        throttles.incrementAndGet();
+    }
+
+    public void retry() {
+        retries.incrementAndGet();
+    }
+
+    public void giveUp() {
+        giveUps.incrementAndGet();
+    }
+
+    public void cacheHit() {
+        cacheHits.incrementAndGet();
+    }
+
+    public void cacheMiss() {
+        cacheMisses.incrementAndGet();
+    }
+
+    public void cacheEviction() {
+        cacheEvictions.incrementAndGet();
+    }
+
+    public void consumedCapacity(boolean write, double capacityUnits) {
+        (write ? writeCapacityUnits : readCapacityUnits).add(capacityUnits);
+    }
+
+    public String functionName() {
+        return functionName;
+    }
+
+    public int requestBytes() {
+        return requestBytes;
+    }
+
+    public long durationNanos() {
+        return durationNanos;
+    }
+
+    public Map<Phase, Long> phaseNanos() {
+        return phaseNanos;
+    }
+
+    public int sdkCalls() {
+        return sdkCalls.get();
+    }
+
+    public int sdkAttempts() {
+        return sdkAttempts.get();
+    }
+
+    public int throttles() {
+        return throttles.get();
+    }
+
+    public int retries() {
+        return retries.get();
+    }
+
+    public int giveUps() {
+        return giveUps.get();
+    }
+
+    public int cacheHits() {
+        return cacheHits.get();
+    }
+
+    public int cacheMisses() {
+        return cacheMisses.get();
+    }
+
+    public int cacheEvictions() {
+        return cacheEvictions.get();
+    }
+
+    public double readCapacityUnits() {
+        return readCapacityUnits.sum();
+    }
+
+    public double writeCapacityUnits() {
+        return writeCapacityUnits.sum();
+    }
+
+    public String userId() {
+        return userId;
+    }
+
+    void userId(String userId) {
+        this.userId = userId;
+    }
+
+    public int statusCode() {
+        return statusCode;
+    }
+
+    void statusCode(int statusCode) {
+        this.statusCode = statusCode;
+    }
+
+}
@@ -0,0 +1,104 @@
+package dev.ciprian.metrics;
+
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.List;
+
+// registered on every SDK client, it only does work while a metered invocation is running
+public class MetricsInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<InvocationMetrics> METRICS = new ExecutionAttribute<>("InvocationMetrics");
+
+    // runs on the calling thread for async clients too, later callbacks read the attribute instead
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        var metrics = InvocationMetrics.current();
+
+        if (metrics != null) {
+            executionAttributes.putAttribute(METRICS, metrics);
+            metrics.sdkCall();
+        }
+    }
+
+    @Override
+    public SdkRequest modifyRequest(Context.ModifyRequest context, ExecutionAttributes executionAttributes) {
+        if (executionAttributes.getAttribute(METRICS) == null) {
+            return context.request();
+        }
+
+        return switch (context.request()) {
+            case GetItemRequest request when request.returnConsumedCapacity() == null ->
+                    request.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            case QueryRequest request when request.returnConsumedCapacity() == null ->
+                    request.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            case ScanRequest request when request.returnConsumedCapacity() == null ->
+                    request.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            case BatchGetItemRequest request when request.returnConsumedCapacity() == null ->
+                    request.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            case PutItemRequest request when request.returnConsumedCapacity() == null ->
+                    request.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            case UpdateItemRequest request when request.returnConsumedCapacity() == null ->
+                    request.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            case DeleteItemRequest request when request.returnConsumedCapacity() == null ->
+                    request.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            case BatchWriteItemRequest request when request.returnConsumedCapacity() == null ->
+                    request.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            case TransactWriteItemsRequest request when request.returnConsumedCapacity() == null ->
+                    request.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+            default -> context.request();
+        };
+    }
+
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+        var metrics = executionAttributes.getAttribute(METRICS);
+
+        if (metrics != null) {
+            metrics.sdkAttempt();
+        }
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        var metrics = executionAttributes.getAttribute(METRICS);
+
+        if (metrics != null) {
+            consumedCapacity(metrics, context.response());
+        }
+    }
+
+    private void consumedCapacity(InvocationMetrics metrics, SdkResponse response) {
+        switch (response) {
+            case GetItemResponse itemResponse -> add(metrics, false, itemResponse.consumedCapacity());
+            case QueryResponse queryResponse -> add(metrics, false, queryResponse.consumedCapacity());
+            case ScanResponse scanResponse -> add(metrics, false, scanResponse.consumedCapacity());
+            case BatchGetItemResponse batchResponse -> add(metrics, false, batchResponse.consumedCapacity());
+            case PutItemResponse itemResponse -> add(metrics, true, itemResponse.consumedCapacity());
+            case UpdateItemResponse itemResponse -> add(metrics, true, itemResponse.consumedCapacity());
+            case DeleteItemResponse itemResponse -> add(metrics, true, itemResponse.consumedCapacity());
+            case BatchWriteItemResponse batchResponse -> add(metrics, true, batchResponse.consumedCapacity());
+            case TransactWriteItemsResponse transactResponse -> add(metrics, true, transactResponse.consumedCapacity());
+            default -> {
+            }
+        }
+    }
+
+    private void add(InvocationMetrics metrics, boolean write, List<ConsumedCapacity> consumedCapacities) {
+        for (var consumedCapacity : consumedCapacities) {
+            add(metrics, write, consumedCapacity);
+        }
+    }
+
+    private void add(InvocationMetrics metrics, boolean write, ConsumedCapacity consumedCapacity) {
+        if (consumedCapacity != null && consumedCapacity.capacityUnits() != null) {
+            metrics.consumedCapacity(write, consumedCapacity.capacityUnits());
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+package dev.ciprian.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.config.MetricsConfig;
+import dev.ciprian.exceptions.CustomException;
+import dev.ciprian.models.response.GenericResponse;
+import dev.ciprian.tracing.Tracer;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+@Component
+public class MetricsRecorder {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Logger logger;
+    private final MetricsConfig metricsConfig;
+    private final Tracer tracer;
+    private final ObjectMapper objectMapper;
+
+    public MetricsRecorder(MetricsConfig metricsConfig, Tracer tracer, ObjectMapper objectMapper) {
+        this.logger = Logger.getLogger(MetricsRecorder.class.getName());
+        this.metricsConfig = metricsConfig;
+        this.tracer = tracer;
+        this.objectMapper = objectMapper;
+    }
+
+    // the trace wraps the metered function, so its span also covers the metrics bookkeeping
+    public <R> Function<byte[], R> wrap(String functionName, Function<byte[], R> function) {
+        return tracer.wrap(functionName, meter(functionName, function));
+    }
+
+    // functions are returned as they are when metrics are off, so the disabled path costs nothing
+    private <R> Function<byte[], R> meter(String functionName, Function<byte[], R> function) {
+        if (!metricsConfig.isEnabled()) {
+            return function;
+        }
+
+        return request -> {
+            var metrics = InvocationMetrics.start(functionName, request == null ? 0 : request.length);
+
+            try {
+                var response = function.apply(request);
+                metrics.statusCode(response instanceof GenericResponse genericResponse ? genericResponse.getStatusCode() : HttpStatus.OK.value());
+                return response;
+            } catch (CustomException exception) {
+                metrics.statusCode(exception.statusCode());
+                throw exception;
+            } catch (RuntimeException exception) {
+                metrics.statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value());
+                throw exception;
+            } finally {
+                metrics.finish();
+                flush(metrics);
+            }
+        };
+    }
+
+    // the same laps split the function span into phases when the invocation is traced
+    public void lap(Phase phase) {
+        var metrics = InvocationMetrics.current();
+
+        if (metrics != null) {
+            metrics.lap(phase);
+        }
+
+        if (tracer.isEnabled()) {
+            tracer.lap(phase.spanName());
+        }
+    }
+
+    public void userId(String userId) {
+        var metrics = InvocationMetrics.current();
+
+        if (metrics != null) {
+            metrics.userId(userId);
+        }
+    }
+
+    void flush(InvocationMetrics metrics) {
+        var definitions = new ArrayList<Map<String, String>>();
+        var document = new LinkedHashMap<String, Object>();
+        document.put("_aws", Map.of(
+                "Timestamp", System.currentTimeMillis(),
+                "CloudWatchMetrics", List.of(Map.of(
+                        "Namespace", metricsConfig.getNamespace(),
+                        "Dimensions", List.of(List.of("Function")),
+                        "Metrics", definitions
+                ))
+        ));
+        document.put("Function", metrics.functionName());
+
+        metric(document, definitions, "Duration", "Milliseconds", metrics.durationNanos() / NANOS_PER_MILLI);
+
+        for (var phase : Phase.values()) {
+            var nanos = metrics.phaseNanos().get(phase);
+
+            if (nanos != null) {
+                metric(document, definitions, phase.metricName(), "Milliseconds", nanos / NANOS_PER_MILLI);
+            }
+        }
+
+        // error and fault follow the API Gateway convention of 4xx and 5xx
+        metric(document, definitions, "Error", "Count", metrics.statusCode() >= 400 && metrics.statusCode() < 500 ? 1 : 0);
+        metric(document, definitions, "Fault", "Count", metrics.statusCode() >= 500 ? 1 : 0);
+        metric(document, definitions, "RequestBytes", "Bytes", metrics.requestBytes());
+
+        metric(document, definitions, "SdkCalls", "Count", metrics.sdkCalls());
+        metric(document, definitions, "SdkAttempts", "Count", metrics.sdkAttempts());
+        metric(document, definitions, "Throttles", "Count", metrics.throttles());
+        metric(document, definitions, "Retries", "Count", metrics.retries());
+        metric(document, definitions, "GiveUps", "Count", metrics.giveUps());
+        metric(document, definitions, "ReadCapacityUnits", "Count", metrics.readCapacityUnits());
+        metric(document, definitions, "WriteCapacityUnits", "Count", metrics.writeCapacityUnits());
+        metric(document, definitions, "CacheHits", "Count", metrics.cacheHits());
+        metric(document, definitions, "CacheMisses", "Count", metrics.cacheMisses());
+        metric(document, definitions, "CacheEvictions", "Count", metrics.cacheEvictions());
+
+        // high cardinality values stay properties, searchable in Logs Insights without becoming dimensions
+        document.put("StatusCode", metrics.statusCode());
+
+        if (metrics.userId() != null) {
+            document.put("UserId", metrics.userId());
+        }
+
+        try {
+            System.out.println(objectMapper.writeValueAsString(document));
+        } catch (IOException exception) {
+            logger.warning("Could not write metrics: " + exception.getMessage());
+        }
+    }
+
+    private void metric(Map<String, Object> document, List<Map<String, String>> definitions, String name, String unit, Number value) {
+        definitions.add(Map.of("Name", name, "Unit", unit));
+        document.put(name, value);
+    }
+
+}
@@ -0,0 +1,25 @@
+package dev.ciprian.metrics;
+
+public enum Phase {
+
+    DECODE("DecodeTime", "deserialization"),
+    VALIDATE("ValidateTime", "validation"),
+    BACKEND("BackendTime", "backend");
+
+    private final String metricName;
+    private final String spanName;
+
+    Phase(String metricName, String spanName) {
+        this.metricName = metricName;
+        this.spanName = spanName;
+    }
+
+    public String metricName() {
+        return metricName;
+    }
+
+    public String spanName() {
+        return spanName;
+    }
+
+}
@@ -0,0 +1,4 @@
+package dev.ciprian.models.domain;
+
+public record RefreshToken(String refreshToken) {
+}
@@ -1,7 +1,10 @@
 package dev.ciprian.models.request;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 import java.util.Map;
 
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class GenericRequest {
 
     private Map<String, String> headers;
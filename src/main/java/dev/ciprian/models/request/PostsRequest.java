@@ -0,0 +1,19 @@
+package dev.ciprian.models.request;
+
+import dev.ciprian.models.domain.Post;
+
+import java.util.List;
+
+public class PostsRequest extends GenericRequest {
+
+    private List<Post> body;
+
+    public List<Post> getBody() {
+        return body;
+    }
+
+    public void setBody(List<Post> body) {
+        this.body = body;
+    }
+
+}
@@ -0,0 +1,17 @@
+package dev.ciprian.models.request;
+
+import dev.ciprian.models.domain.RefreshToken;
+
+public class RefreshRequest extends GenericRequest {
+
+    private RefreshToken body;
+
+    public RefreshToken getBody() {
+        return body;
+    }
+
+    public void setBody(RefreshToken body) {
+        this.body = body;
+    }
+
+}
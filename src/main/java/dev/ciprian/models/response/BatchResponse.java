@@ -0,0 +1,28 @@
+package dev.ciprian.models.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class BatchResponse extends GenericResponse {
+
+    private List<ItemStatus> items;
+
+    public BatchResponse(boolean valid, int statusCode) {
+        super(valid, statusCode);
+    }
+
+    public BatchResponse(boolean valid, int statusCode, String errorMessage) {
+        super(valid, statusCode, errorMessage);
+    }
+
+    public List<ItemStatus> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ItemStatus> items) {
+        this.items = items;
+    }
+
+}
@@ -0,0 +1,7 @@
+package dev.ciprian.models.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record ItemStatus(String postTitle, int statusCode, String errorMessage) {
+}
@@ -0,0 +1,27 @@
+package dev.ciprian.models.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import dev.ciprian.models.domain.Post;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class PostResponse extends GenericResponse {
+
+    private Post post;
+
+    public PostResponse(boolean valid, int statusCode) {
+        super(valid, statusCode);
+    }
+
+    public PostResponse(boolean valid, int statusCode, String errorMessage) {
+        super(valid, statusCode, errorMessage);
+    }
+
+    public Post getPost() {
+        return post;
+    }
+
+    public void setPost(Post post) {
+        this.post = post;
+    }
+
+}
@@ -9,6 +9,8 @@ import java.util.List;
 public class PostsResponse extends GenericResponse {
 
     private List<Post> posts;
+    private String nextToken;
+    private String etag;
 
     public PostsResponse(boolean valid, int statusCode) {
         super(valid, statusCode);
@@ -26,4 +28,20 @@ public class PostsResponse extends GenericResponse {
         this.posts = posts;
     }
 
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    public void setNextToken(String nextToken) {
+        this.nextToken = nextToken;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+
 }
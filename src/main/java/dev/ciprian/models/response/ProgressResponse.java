@@ -0,0 +1,53 @@
+package dev.ciprian.models.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class ProgressResponse extends GenericResponse {
+
+    private int processedCount;
+    private int failedCount;
+    private boolean complete;
+    private String nextToken;
+
+    public ProgressResponse(boolean valid, int statusCode) {
+        super(valid, statusCode);
+    }
+
+    public ProgressResponse(boolean valid, int statusCode, String errorMessage) {
+        super(valid, statusCode, errorMessage);
+    }
+
+    public int getProcessedCount() {
+        return processedCount;
+    }
+
+    public void setProcessedCount(int processedCount) {
+        this.processedCount = processedCount;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(int failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    public void setNextToken(String nextToken) {
+        this.nextToken = nextToken;
+    }
+
+}
@@ -0,0 +1,80 @@
+package dev.ciprian.retry;
+
+import software.amazon.awssdk.core.exception.AbortedException;
+
+import java.util.concurrent.TimeUnit;
+
+// token bucket whose refill rate halves on every throttle and creeps back up with each success
+public class AdaptiveRateLimiter {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    private static final double DECREASE_FACTOR = 0.5;
+    private static final double INCREASE_STEP = 1.0;
+
+    private final double minRate;
+    private final double maxRate;
+    private double rate;
+    private double tokens;
+    private long refilledNanos;
+
+    public AdaptiveRateLimiter(double minRate, double maxRate) {
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.rate = maxRate;
+        this.tokens = maxRate;
+        this.refilledNanos = System.nanoTime();
+    }
+
+    public void acquire() {
+        var waitNanos = reserve();
+
+        if (waitNanos <= 0) {
+            return;
+        }
+
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw AbortedException.builder().message("Interrupted while waiting for the rate limiter").cause(exception).build();
+        }
+    }
+
+    // takes a token only when one is available, for callers that must not wait
+    synchronized void tryAcquire() {
+        refill();
+
+        if (tokens >= 1) {
+            tokens -= 1;
+        }
+    }
+
+    // tokens may go negative, so concurrent callers queue up behind each other instead of all waking at once
+    synchronized long reserve() {
+        refill();
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) (-tokens / rate * NANOS_PER_SECOND);
+    }
+
+    public synchronized void onThrottle() {
+        refill();
+        rate = Math.max(minRate, rate * DECREASE_FACTOR);
+        tokens = Math.min(tokens, rate);
+    }
+
+    public synchronized void onSuccess() {
+        refill();
+        rate = Math.min(maxRate, rate + INCREASE_STEP);
+    }
+
+    public synchronized double rate() {
+        return rate;
+    }
+
+    private void refill() {
+        var now = System.nanoTime();
+        tokens = Math.min(rate, tokens + (now - refilledNanos) / NANOS_PER_SECOND * rate);
+        refilledNanos = now;
+    }
+
+}
@@ -0,0 +1,107 @@
+package dev.ciprian.retry;
+
+import dev.ciprian.config.RetryProperties;
+import software.amazon.awssdk.core.retry.RetryMode;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// one per service and endpoint, so the sync and async DynamoDB clients share their rate limiter and counters
+public class Backend {
+
+    private static final Map<String, Backend> BACKENDS = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final AdaptiveRateLimiter rateLimiter;
+    private final LongAdder throttles;
+    private final LongAdder retries;
+    private final LongAdder giveUps;
+
+    Backend(String name, AdaptiveRateLimiter rateLimiter) {
+        this.name = name;
+        this.rateLimiter = rateLimiter;
+        this.throttles = new LongAdder();
+        this.retries = new LongAdder();
+        this.giveUps = new LongAdder();
+    }
+
+    public static String name(String serviceName, String endpointOverride) {
+        return endpointOverride == null ? serviceName : serviceName + " " + endpointOverride;
+    }
+
+    public static Backend get(String name) {
+        return BACKENDS.get(name);
+    }
+
+    public static Collection<Backend> all() {
+        return BACKENDS.values();
+    }
+
+    // only adaptive mode limits the request rate, the other modes just count
+    static Backend of(String name, RetryProperties retry) {
+        return BACKENDS.computeIfAbsent(name, key -> new Backend(key, retry.getMode() == RetryMode.ADAPTIVE
+                ? new AdaptiveRateLimiter(retry.getMinRequestsPerSecond(), retry.getMaxRequestsPerSecond())
+                : null));
+    }
+
+    void acquire() {
+        if (rateLimiter != null) {
+            rateLimiter.acquire();
+        }
+    }
+
+    void tryAcquire() {
+        if (rateLimiter != null) {
+            rateLimiter.tryAcquire();
+        }
+    }
+
+    long reserve() {
+        return rateLimiter == null ? 0 : rateLimiter.reserve();
+    }
+
+    void succeeded() {
+        if (rateLimiter != null) {
+            rateLimiter.onSuccess();
+        }
+    }
+
+    void throttled() {
+        throttles.increment();
+
+        if (rateLimiter != null) {
+            rateLimiter.onThrottle();
+        }
+    }
+
+    void retried() {
+        retries.increment();
+    }
+
+    void gaveUp() {
+        giveUps.increment();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public AdaptiveRateLimiter rateLimiter() {
+        return rateLimiter;
+    }
+
+    public long throttles() {
+        return throttles.sum();
+    }
+
+    public long retries() {
+        return retries.sum();
+    }
+
+    public long giveUps() {
+        return giveUps.sum();
+    }
+
+}
@@ -0,0 +1,37 @@
+package dev.ciprian.retry;
+
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.retry.RetryPolicyContext;
+import software.amazon.awssdk.core.retry.backoff.BackoffStrategy;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+// each delay is drawn between the base and three times the previous one, so concurrent callers spread out
+public class DecorrelatedJitterBackoff implements BackoffStrategy {
+
+    private static final ExecutionAttribute<Long> PREVIOUS_DELAY = new ExecutionAttribute<>("DecorrelatedJitterDelay");
+
+    private final long baseDelayMillis;
+    private final long maxBackoffMillis;
+
+    public DecorrelatedJitterBackoff(long baseDelayMillis, long maxBackoffMillis) {
+        this.baseDelayMillis = Math.max(1, baseDelayMillis);
+        this.maxBackoffMillis = Math.max(this.baseDelayMillis, maxBackoffMillis);
+    }
+
+    @Override
+    public Duration computeDelayBeforeNextRetry(RetryPolicyContext context) {
+        var executionAttributes = context.executionAttributes();
+        var previous = executionAttributes == null ? null : executionAttributes.getAttribute(PREVIOUS_DELAY);
+        var upper = Math.min(maxBackoffMillis, (previous == null ? baseDelayMillis : previous) * 3);
+        var delay = ThreadLocalRandom.current().nextLong(baseDelayMillis, Math.max(baseDelayMillis, upper) + 1);
+
+        if (executionAttributes != null) {
+            executionAttributes.putAttribute(PREVIOUS_DELAY, delay);
+        }
+
+        return Duration.ofMillis(delay);
+    }
+
+}
@@ -0,0 +1,24 @@
+package dev.ciprian.retry;
+
+import software.amazon.awssdk.core.retry.RetryPolicyContext;
+import software.amazon.awssdk.core.retry.backoff.BackoffStrategy;
+
+import java.time.Duration;
+
+// reserves the retry's token up front and adds the wait to the backoff, so retries wait outside the attempt timeout
+public class RateLimitedBackoff implements BackoffStrategy {
+
+    private final BackoffStrategy delegate;
+
+    public RateLimitedBackoff(BackoffStrategy delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Duration computeDelayBeforeNextRetry(RetryPolicyContext context) {
+        var delay = delegate.computeDelayBeforeNextRetry(context);
+        var backend = context.executionAttributes() == null ? null : RetryInterceptor.backend(context.executionAttributes());
+        return backend == null ? delay : delay.plusNanos(backend.reserve());
+    }
+
+}
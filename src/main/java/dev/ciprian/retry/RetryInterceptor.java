@@ -0,0 +1,126 @@
+package dev.ciprian.retry;
+
+import dev.ciprian.config.RetryProperties;
+import dev.ciprian.metrics.InvocationMetrics;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.core.retry.RetryUtils;
+
+// paces every call through the backend's rate limiter and counts throttles, retries and give-ups
+public class RetryInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<Backend> BACKEND = new ExecutionAttribute<>("RetryBackend");
+    private static final ExecutionAttribute<InvocationMetrics> METRICS = new ExecutionAttribute<>("RetryMetrics");
+    private static final ExecutionAttribute<Integer> ATTEMPTS = new ExecutionAttribute<>("RetryAttempts");
+    private static final ExecutionAttribute<Throwable> LAST_THROTTLE = new ExecutionAttribute<>("RetryLastThrottle");
+
+    private final RetryProperties retry;
+    private final String endpointOverride;
+    private final boolean async;
+
+    // async clients must not block their caller, so their first attempt only takes a token when one is free
+    public RetryInterceptor(RetryProperties retry, String endpointOverride, boolean async) {
+        this.retry = retry;
+        this.endpointOverride = endpointOverride;
+        this.async = async;
+    }
+
+    static Backend backend(ExecutionAttributes executionAttributes) {
+        return executionAttributes.getAttribute(BACKEND);
+    }
+
+    // the retry condition sees the throttles of the attempts that are retried, the interceptor the final one
+    static void throttled(ExecutionAttributes executionAttributes, Throwable exception) {
+        var backend = executionAttributes.getAttribute(BACKEND);
+
+        if (backend == null || exception == executionAttributes.getAttribute(LAST_THROTTLE)) {
+            return;
+        }
+
+        executionAttributes.putAttribute(LAST_THROTTLE, exception);
+        backend.throttled();
+
+        var metrics = executionAttributes.getAttribute(METRICS);
+
+        if (metrics != null) {
+            metrics.throttle();
+        }
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        var serviceName = executionAttributes.getAttribute(SdkExecutionAttribute.SERVICE_NAME);
+        var backend = Backend.of(Backend.name(serviceName, endpointOverride), retry);
+        executionAttributes.putAttribute(BACKEND, backend);
+        executionAttributes.putAttribute(ATTEMPTS, 0);
+
+        var metrics = InvocationMetrics.current();
+
+        if (metrics != null) {
+            executionAttributes.putAttribute(METRICS, metrics);
+        }
+
+        // paced before the call and attempt timers start, retries wait for their token in RateLimitedBackoff
+        if (async) {
+            backend.tryAcquire();
+        } else {
+            backend.acquire();
+        }
+    }
+
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+        var attempts = executionAttributes.getAttribute(ATTEMPTS) + 1;
+        executionAttributes.putAttribute(ATTEMPTS, attempts);
+
+        if (attempts > 1) {
+            executionAttributes.getAttribute(BACKEND).retried();
+
+            var metrics = executionAttributes.getAttribute(METRICS);
+
+            if (metrics != null) {
+                metrics.retry();
+            }
+        }
+    }
+
+    @Override
+    public void afterTransmission(Context.AfterTransmission context, ExecutionAttributes executionAttributes) {
+        if (context.httpResponse().isSuccessful()) {
+            executionAttributes.getAttribute(BACKEND).succeeded();
+        }
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        var backend = executionAttributes.getAttribute(BACKEND);
+
+        if (backend == null || !(context.exception() instanceof SdkException exception)) {
+            return;
+        }
+
+        var throttle = RetryUtils.isThrottlingException(exception);
+
+        if (throttle) {
+            throttled(executionAttributes, exception);
+        }
+
+        // a retryable error reaching the caller means the attempts or the retry capacity ran out
+        if (throttle || exception.retryable() || RetryUtils.isRetryableException(exception)
+                || exception instanceof SdkServiceException serviceException && serviceException.statusCode() >= 500) {
+            backend.gaveUp();
+
+            var metrics = executionAttributes.getAttribute(METRICS);
+
+            if (metrics != null) {
+                metrics.giveUp();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+package dev.ciprian.retry;
+
+import software.amazon.awssdk.core.retry.RetryPolicyContext;
+import software.amazon.awssdk.core.retry.RetryUtils;
+import software.amazon.awssdk.core.retry.conditions.RetryCondition;
+
+// sees the exception of every failed attempt, so throttles slow the rate limiter down before the retry
+public class ThrottleAwareRetryCondition implements RetryCondition {
+
+    private final RetryCondition delegate;
+
+    public ThrottleAwareRetryCondition(RetryCondition delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean shouldRetry(RetryPolicyContext context) {
+        var exception = context.exception();
+
+        if (exception != null && context.executionAttributes() != null && RetryUtils.isThrottlingException(exception)) {
+            RetryInterceptor.throttled(context.executionAttributes(), exception);
+        }
+
+        return delegate.shouldRetry(context);
+    }
+
+    @Override
+    public void requestWillNotBeRetried(RetryPolicyContext context) {
+        delegate.requestWillNotBeRetried(context);
+    }
+
+    @Override
+    public void requestSucceeded(RetryPolicyContext context) {
+        delegate.requestSucceeded(context);
+    }
+
+}
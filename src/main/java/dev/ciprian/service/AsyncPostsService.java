@@ -0,0 +1,201 @@
+package dev.ciprian.service;
+
+import dev.ciprian.config.ConditionalOnFunctionGroup;
+import dev.ciprian.config.DynamoDbConfig;
+import dev.ciprian.models.domain.Post;
+import dev.ciprian.models.response.GenericResponse;
+import dev.ciprian.models.response.PostResponse;
+import dev.ciprian.models.response.PostsResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Logger;
+
+import static dev.ciprian.constants.FunctionGroupConstants.POSTS;
+import static dev.ciprian.constants.PostConstants.POST_TAGS;
+
+@Service
+@ConditionalOnProperty(prefix = "dynamodb", name = "async", havingValue = "true")
+@Lazy
+@ConditionalOnFunctionGroup(POSTS)
+public class AsyncPostsService {
+
+    private final Logger logger;
+    private final DynamoDbAsyncClient dynamoDbAsyncClient;
+    private final DynamoDbConfig dynamoDbConfig;
+    private final PostMapper postMapper;
+    private final HedgedReader hedgedReader;
+
+    public AsyncPostsService(DynamoDbAsyncClient dynamoDbAsyncClient, DynamoDbConfig dynamoDbConfig, PostMapper postMapper, HedgedReader hedgedReader) {
+        this.logger = Logger.getLogger(AsyncPostsService.class.getName());
+        this.dynamoDbAsyncClient = dynamoDbAsyncClient;
+        this.dynamoDbConfig = dynamoDbConfig;
+        this.postMapper = postMapper;
+        this.hedgedReader = hedgedReader;
+    }
+
+    public CompletableFuture<PostsResponse> getPosts(String tableName, String sub, Integer pageSize, String nextToken) {
+        return getPosts(tableName, sub, pageSize, nextToken, null);
+    }
+
+    public CompletableFuture<PostsResponse> getPosts(String tableName, String sub, Integer pageSize, String nextToken, String projection) {
+        Map<String, AttributeValue> startKey;
+
+        try {
+            startKey = PageTokens.decode(nextToken, sub);
+        } catch (IllegalArgumentException exception) {
+            logger.warning("Invalid next token: " + exception.getMessage());
+            return CompletableFuture.completedFuture(new PostsResponse(false, HttpStatus.BAD_REQUEST.value(), "Invalid next token"));
+        }
+
+        var posts = new ArrayList<Post>();
+
+        return queryPages(tableName, sub, pageSize, startKey, projection, posts)
+                .thenApply(lastKey -> {
+                    var response = new PostsResponse(true, HttpStatus.OK.value());
+                    response.setPosts(posts);
+
+                    if (lastKey != null) {
+                        response.setNextToken(PageTokens.encode(lastKey));
+                    }
+
+                    return response;
+                })
+                .exceptionally(throwable -> {
+                    var exception = sdkException(throwable);
+                    return new PostsResponse(false, SdkErrors.statusCode(exception), exception.getMessage());
+                });
+    }
+
+    private CompletableFuture<Map<String, AttributeValue>> queryPages(String tableName, String sub, Integer pageSize,
+                                                                      Map<String, AttributeValue> startKey, String projection, List<Post> posts) {
+        var queryRequest = postMapper.queryRequest(tableName, sub, pageSize, startKey, projection);
+
+        // the next page is requested from an SDK thread, which gets the invocation handed over
+        return hedgedReader.readAsync(() -> dynamoDbAsyncClient.query(queryRequest))
+                .thenCompose(InvocationContext.propagate(queryResponse -> {
+                    posts.addAll(postMapper.toPosts(queryResponse.items()));
+                    var lastKey = queryResponse.hasLastEvaluatedKey() ? queryResponse.lastEvaluatedKey() : null;
+
+                    if (pageSize != null || lastKey == null) {
+                        return CompletableFuture.completedFuture(lastKey);
+                    }
+
+                    return queryPages(tableName, sub, pageSize, lastKey, projection, posts);
+                }));
+    }
+
+    public CompletableFuture<PostResponse> getPost(String tableName, String sub, String postTitle, boolean consistentRead) {
+        var getItemRequest = postMapper.getItemRequest(tableName, sub, postTitle, consistentRead);
+
+        return hedgedReader.readAsync(() -> dynamoDbAsyncClient.getItem(getItemRequest))
+                .thenApply(getItemResponse -> {
+                    if (!getItemResponse.hasItem() || getItemResponse.item().isEmpty()) {
+                        return new PostResponse(false, HttpStatus.NOT_FOUND.value(), "Post not found");
+                    }
+
+                    var response = new PostResponse(true, HttpStatus.OK.value());
+                    response.setPost(postMapper.toPost(getItemResponse.item()));
+                    return response;
+                })
+                .exceptionally(throwable -> {
+                    var exception = sdkException(throwable);
+                    return new PostResponse(false, SdkErrors.statusCode(exception), exception.getMessage());
+                });
+    }
+
+    public CompletableFuture<GenericResponse> save(String tableName, String userId, Post post) {
+        var indexedTags = postMapper.indexedTags(post.postTags());
+
+        var versionTagsEnabled = dynamoDbConfig.isVersionTagsEnabled();
+
+        if (indexedTags.size() > PostMapper.maxTags(versionTagsEnabled)) {
+            return CompletableFuture.completedFuture(new GenericResponse(false, HttpStatus.BAD_REQUEST.value(), "Too many tags"));
+        }
+
+        CompletableFuture<?> write = indexedTags.isEmpty() && !versionTagsEnabled
+                ? dynamoDbAsyncClient.putItem(PutItemRequest.builder()
+                        .tableName(tableName)
+                        .item(postMapper.toItem(userId, post))
+                        .build())
+                : dynamoDbAsyncClient.transactWriteItems(postMapper.saveRequest(tableName, userId, post, versionTagsEnabled));
+
+        return write
+                .thenApply(writeResponse -> new GenericResponse(true, HttpStatus.CREATED.value()))
+                .exceptionally(this::errorResponse);
+    }
+
+    public CompletableFuture<GenericResponse> delete(String tableName, String userId, Post post) {
+        var deleteItemRequest = DeleteItemRequest.builder()
+                .tableName(tableName)
+                .key(postMapper.toKey(userId, post.postTitle()))
+                .returnValues(ReturnValue.ALL_OLD)
+                .build();
+
+        // deleting a missing post changes nothing, so it leaves the version and the etags handed out alone
+        return dynamoDbAsyncClient.deleteItem(deleteItemRequest)
+                .thenCompose(InvocationContext.propagate(deleteItemResponse -> deleteItemResponse.hasAttributes()
+                        ? bumpVersion(tableName, userId).thenCompose(InvocationContext.propagate(bumped ->
+                                deleteTagIndex(tableName, userId, post.postTitle(), postMapper.toTags(deleteItemResponse.attributes().get(POST_TAGS)))))
+                        : CompletableFuture.<Void>completedFuture(null)))
+                .thenApply(ignored -> new GenericResponse(true, HttpStatus.NO_CONTENT.value()))
+                .exceptionally(this::errorResponse);
+    }
+
+    private CompletableFuture<?> bumpVersion(String tableName, String userId) {
+        return dynamoDbConfig.isVersionTagsEnabled()
+                ? dynamoDbAsyncClient.updateItem(postMapper.versionUpdateRequest(tableName, userId))
+                : CompletableFuture.completedFuture(null);
+    }
+
+    // the post is already gone, so index cleanup failures are only logged and left to the next tag read
+    private CompletableFuture<Void> deleteTagIndex(String tableName, String userId, String postTitle, List<String> postTags) {
+        var writeRequests = postMapper.tagIndexWrites(userId, postTitle, postTags, true);
+        var futures = new ArrayList<CompletableFuture<?>>();
+
+        for (int from = 0; from < writeRequests.size(); from += BatchWriter.MAX_BATCH_SIZE) {
+            var chunk = writeRequests.subList(from, Math.min(from + BatchWriter.MAX_BATCH_SIZE, writeRequests.size()));
+            futures.add(dynamoDbAsyncClient.batchWriteItem(BatchWriteItemRequest.builder().requestItems(Map.of(tableName, chunk)).build())
+                    .handle((batchWriteItemResponse, throwable) -> {
+                        if (throwable != null || batchWriteItemResponse.hasUnprocessedItems() && !batchWriteItemResponse.unprocessedItems().isEmpty()) {
+                            logger.warning("Could not remove every tag index entry of " + postTitle);
+                        }
+
+                        return null;
+                    }));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
+    }
+
+    private GenericResponse errorResponse(Throwable throwable) {
+        var exception = sdkException(throwable);
+        return new GenericResponse(false, SdkErrors.statusCode(exception), exception.getMessage());
+    }
+
+    private SdkException sdkException(Throwable throwable) {
+        var cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+
+        if (SdkErrors.isHandled(cause)) {
+            logger.warning(cause.getMessage());
+            return (SdkException) cause;
+        }
+
+        throw throwable instanceof CompletionException completionException ? completionException : new CompletionException(cause);
+    }
+
+}
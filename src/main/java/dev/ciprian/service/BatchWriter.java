@@ -0,0 +1,178 @@
+package dev.ciprian.service;
+
+import dev.ciprian.config.ConditionalOnFunctionGroup;
+import dev.ciprian.config.DynamoDbConfig;
+import dev.ciprian.models.response.GenericResponse;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.exception.ApiCallAttemptTimeoutException;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Logger;
+
+import static dev.ciprian.constants.FunctionGroupConstants.POSTS;
+
+@Component
+@Lazy
+@ConditionalOnFunctionGroup(POSTS)
+public class BatchWriter {
+
+    public static final int MAX_BATCH_SIZE = 25;
+    public static final int MAX_BATCH_GET_SIZE = 100;
+
+    private final Logger logger;
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbConfig dynamoDbConfig;
+    private final ExecutorService executor;
+
+    public BatchWriter(DynamoDbClient dynamoDbClient, DynamoDbConfig dynamoDbConfig) {
+        this.logger = Logger.getLogger(BatchWriter.class.getName());
+        this.dynamoDbClient = dynamoDbClient;
+        this.dynamoDbConfig = dynamoDbConfig;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    public Map<WriteRequest, GenericResponse> write(String tableName, List<WriteRequest> writeRequests) {
+        var futures = new ArrayList<CompletableFuture<Map<WriteRequest, GenericResponse>>>();
+
+        for (int from = 0; from < writeRequests.size(); from += MAX_BATCH_SIZE) {
+            var chunk = writeRequests.subList(from, Math.min(from + MAX_BATCH_SIZE, writeRequests.size()));
+            futures.add(CompletableFuture.supplyAsync(InvocationContext.propagate(() -> writeChunk(tableName, chunk)), executor));
+        }
+
+        var failures = new HashMap<WriteRequest, GenericResponse>();
+        futures.forEach(future -> failures.putAll(future.join()));
+        return failures;
+    }
+
+    private Map<WriteRequest, GenericResponse> writeChunk(String tableName, List<WriteRequest> chunk) {
+        var pending = chunk;
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                var batchWriteItemRequest = BatchWriteItemRequest.builder()
+                        .requestItems(Map.of(tableName, pending))
+                        .build();
+
+                var batchWriteItemResponse = dynamoDbClient.batchWriteItem(batchWriteItemRequest);
+                pending = batchWriteItemResponse.unprocessedItems().getOrDefault(tableName, List.of());
+            } catch (SdkServiceException | ApiCallTimeoutException | ApiCallAttemptTimeoutException exception) {
+                logger.warning(exception.getMessage());
+                return failures(pending, new GenericResponse(false, SdkErrors.statusCode(exception), exception.getMessage()));
+            }
+
+            if (pending.isEmpty()) {
+                return Map.of();
+            }
+
+            if (attempt >= dynamoDbConfig.getBatchMaxAttempts()) {
+                logger.warning(pending.size() + " items still unprocessed after " + attempt + " attempts");
+                return failures(pending, new GenericResponse(false, HttpStatus.SERVICE_UNAVAILABLE.value(), "Unprocessed after retries"));
+            }
+
+            try {
+                Thread.sleep(backoff(attempt));
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return failures(pending, new GenericResponse(false, HttpStatus.SERVICE_UNAVAILABLE.value(), "Interrupted"));
+            }
+        }
+    }
+
+    // best effort and off the caller's path: nothing is handed over from the invocation, and failures are only logged
+    public CompletableFuture<Void> writeInBackground(String tableName, List<WriteRequest> writeRequests) {
+        return CompletableFuture.runAsync(() -> {
+                    var failures = write(tableName, writeRequests);
+
+                    if (!failures.isEmpty()) {
+                        logger.warning("Could not write " + failures.size() + " of " + writeRequests.size() + " items in the background");
+                    }
+                }, executor)
+                .exceptionally(throwable -> {
+                    logger.warning("Background write failed: " + throwable.getMessage());
+                    return null;
+                });
+    }
+
+    public List<Map<String, AttributeValue>> read(String tableName, List<Map<String, AttributeValue>> keys, String projection) {
+        var futures = new ArrayList<CompletableFuture<List<Map<String, AttributeValue>>>>();
+
+        for (int from = 0; from < keys.size(); from += MAX_BATCH_GET_SIZE) {
+            var chunk = keys.subList(from, Math.min(from + MAX_BATCH_GET_SIZE, keys.size()));
+            futures.add(CompletableFuture.supplyAsync(InvocationContext.propagate(() -> readChunk(tableName, chunk, projection)), executor));
+        }
+
+        var items = new ArrayList<Map<String, AttributeValue>>();
+
+        try {
+            futures.forEach(future -> items.addAll(future.join()));
+        } catch (CompletionException exception) {
+            throw SdkErrors.isHandled(exception.getCause()) ? (SdkException) exception.getCause() : exception;
+        }
+
+        return items;
+    }
+
+    private List<Map<String, AttributeValue>> readChunk(String tableName, List<Map<String, AttributeValue>> chunk, String projection) {
+        var items = new ArrayList<Map<String, AttributeValue>>();
+        var pending = chunk;
+
+        for (int attempt = 1; ; attempt++) {
+            // strongly consistent, so a post saved a moment ago is never mistaken for a stale index entry
+            var keysAndAttributes = KeysAndAttributes.builder().keys(pending).projectionExpression(projection).consistentRead(true).build();
+            var batchGetItemResponse = dynamoDbClient.batchGetItem(BatchGetItemRequest.builder()
+                    .requestItems(Map.of(tableName, keysAndAttributes))
+                    .build());
+
+            items.addAll(batchGetItemResponse.responses().getOrDefault(tableName, List.of()));
+            var unprocessed = batchGetItemResponse.unprocessedKeys().get(tableName);
+            pending = unprocessed == null ? List.of() : unprocessed.keys();
+
+            if (pending.isEmpty()) {
+                return items;
+            }
+
+            if (attempt >= dynamoDbConfig.getBatchMaxAttempts()) {
+                logger.warning(pending.size() + " keys still unprocessed after " + attempt + " attempts");
+                throw SdkServiceException.builder().statusCode(HttpStatus.SERVICE_UNAVAILABLE.value()).message("Unprocessed after retries").build();
+            }
+
+            try {
+                Thread.sleep(backoff(attempt));
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw SdkServiceException.builder().statusCode(HttpStatus.SERVICE_UNAVAILABLE.value()).message("Interrupted").build();
+            }
+        }
+    }
+
+    private long backoff(int attempt) {
+        var ceiling = Math.min(dynamoDbConfig.getBatchMaxDelayMillis(), dynamoDbConfig.getBatchBaseDelayMillis() << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private Map<WriteRequest, GenericResponse> failures(List<WriteRequest> writeRequests, GenericResponse response) {
+        var failures = new HashMap<WriteRequest, GenericResponse>();
+        writeRequests.forEach(writeRequest -> failures.put(writeRequest, response));
+        return failures;
+    }
+
+}
@@ -0,0 +1,83 @@
+package dev.ciprian.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+public enum BodyCodec {
+
+    GZIP("gzip") {
+        @Override
+        OutputStream encoder(OutputStream output) throws IOException {
+            return new GZIPOutputStream(output);
+        }
+
+        @Override
+        InputStream decoder(InputStream input) throws IOException {
+            return new GZIPInputStream(input);
+        }
+    },
+    DEFLATE("deflate") {
+        @Override
+        OutputStream encoder(OutputStream output) {
+            return new DeflaterOutputStream(output);
+        }
+
+        @Override
+        InputStream decoder(InputStream input) {
+            return new InflaterInputStream(input);
+        }
+    };
+
+    private final String encoding;
+
+    BodyCodec(String encoding) {
+        this.encoding = encoding;
+    }
+
+    public String encoding() {
+        return encoding;
+    }
+
+    public static BodyCodec forEncoding(String encoding) {
+        for (var codec : values()) {
+            if (codec.encoding.equals(encoding)) {
+                return codec;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown body encoding: " + encoding);
+    }
+
+    public byte[] encode(byte[] body) {
+        var bytes = new ByteArrayOutputStream(body.length / 2);
+
+        try (var output = encoder(bytes)) {
+            output.write(body);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    public byte[] decode(byte[] encoded) {
+        try (var input = decoder(new ByteArrayInputStream(encoded))) {
+            return input.readAllBytes();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    abstract OutputStream encoder(OutputStream output) throws IOException;
+
+    abstract InputStream decoder(InputStream input) throws IOException;
+
+}
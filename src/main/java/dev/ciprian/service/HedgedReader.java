@@ -0,0 +1,197 @@
+package dev.ciprian.service;
+
+import dev.ciprian.config.ConditionalOnFunctionGroup;
+import dev.ciprian.config.DynamoDbConfig;
+import dev.ciprian.config.HedgingProperties;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static dev.ciprian.constants.FunctionGroupConstants.POSTS;
+
+// only for idempotent reads: a second attempt races the first once it runs past the recent latency percentile
+// cancelling the losing attempt of a sync read only completes its future, the call itself runs to the end on its virtual thread
+@Component
+@Lazy
+@ConditionalOnFunctionGroup(POSTS)
+public class HedgedReader {
+
+    private static final int WINDOW_SIZE = 256;
+    private static final double MAX_CREDITS = 10;
+    private static final long NANOS_PER_MILLI = 1_000_000;
+    // the percentile is re-sorted once per this many samples instead of on every read
+    static final int REFRESH_INTERVAL = 16;
+
+    private final HedgingProperties hedging;
+    private final ExecutorService executor;
+    private final long[] window;
+    private final long[] sorted;
+    private final LongAdder hedges;
+    private final LongAdder hedgeWins;
+    private int windowCount;
+    private int windowNext;
+    private double credits;
+    private int samplesSinceRefresh;
+    private long delayNanos;
+
+    public HedgedReader(DynamoDbConfig dynamoDbConfig) {
+        this.hedging = dynamoDbConfig.getHedging();
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.window = new long[WINDOW_SIZE];
+        this.sorted = new long[WINDOW_SIZE];
+        this.delayNanos = -1;
+        this.hedges = new LongAdder();
+        this.hedgeWins = new LongAdder();
+    }
+
+    public <T> T read(Supplier<T> call) {
+        if (!hedging.isEnabled()) {
+            return call.get();
+        }
+
+        var delayNanos = delayNanos();
+
+        // until the window has enough samples the call runs inline and only feeds the percentile
+        if (delayNanos < 0) {
+            var start = System.nanoTime();
+            var value = call.get();
+            primaryCompleted(System.nanoTime() - start);
+            return value;
+        }
+
+        try {
+            var propagated = InvocationContext.propagate(call);
+            return hedge(() -> CompletableFuture.supplyAsync(propagated, executor), delayNanos).join();
+        } catch (CompletionException exception) {
+            throw exception.getCause() instanceof RuntimeException cause ? cause : exception;
+        }
+    }
+
+    public <T> CompletableFuture<T> readAsync(Supplier<CompletableFuture<T>> call) {
+        if (!hedging.isEnabled()) {
+            return call.get();
+        }
+
+        var delayNanos = delayNanos();
+
+        if (delayNanos < 0) {
+            var start = System.nanoTime();
+            return call.get().whenComplete((value, throwable) -> {
+                if (throwable == null) {
+                    primaryCompleted(System.nanoTime() - start);
+                }
+            });
+        }
+
+        // the hedge is sent from the timer thread
+        return hedge(InvocationContext.propagate(call), delayNanos);
+    }
+
+    private <T> CompletableFuture<T> hedge(Supplier<CompletableFuture<T>> call, long delayNanos) {
+        var result = new CompletableFuture<T>();
+        var attempts = new AtomicInteger(1);
+        var failures = new AtomicInteger();
+        var start = System.nanoTime();
+        var primary = call.get();
+
+        primary.whenComplete((value, throwable) -> {
+            // a cancelled primary lost to the hedge, and the time until its cancellation says nothing about its latency
+            if (throwable == null) {
+                primaryCompleted(System.nanoTime() - start);
+            }
+
+            complete(result, value, throwable, attempts, failures);
+        });
+
+        var timer = Thread.ofVirtual().start(() -> {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delayNanos);
+            } catch (InterruptedException exception) {
+                return;
+            }
+
+            if (result.isDone() || !withdraw()) {
+                return;
+            }
+
+            attempts.incrementAndGet();
+            hedges.increment();
+
+            var hedge = call.get();
+            hedge.whenComplete((value, throwable) -> {
+                if (throwable == null && result.complete(value)) {
+                    hedgeWins.increment();
+                    primary.cancel(true);
+                } else if (throwable != null) {
+                    complete(result, null, throwable, attempts, failures);
+                }
+            });
+            result.whenComplete((value, throwable) -> hedge.cancel(true));
+        });
+
+        result.whenComplete((value, throwable) -> timer.interrupt());
+        return result;
+    }
+
+    // the result fails only once every attempt that was started has failed
+    private <T> void complete(CompletableFuture<T> result, T value, Throwable throwable, AtomicInteger attempts, AtomicInteger failures) {
+        if (throwable == null) {
+            result.complete(value);
+        } else if (failures.incrementAndGet() >= attempts.get()) {
+            result.completeExceptionally(throwable instanceof CompletionException ? throwable.getCause() : throwable);
+        }
+    }
+
+    // every primary earns a fraction of a hedge, which caps the extra load at the budget ratio
+    private synchronized void primaryCompleted(long nanos) {
+        window[windowNext] = nanos;
+        windowNext = (windowNext + 1) % WINDOW_SIZE;
+        windowCount = Math.min(windowCount + 1, WINDOW_SIZE);
+        credits = Math.min(MAX_CREDITS, credits + hedging.getBudgetRatio());
+
+        if (windowCount >= hedging.getMinSamples() && (delayNanos < 0 || ++samplesSinceRefresh >= REFRESH_INTERVAL)) {
+            delayNanos = percentileNanos();
+            samplesSinceRefresh = 0;
+        }
+    }
+
+    private synchronized boolean withdraw() {
+        if (credits < 1) {
+            return false;
+        }
+
+        credits -= 1;
+        return true;
+    }
+
+    // -1 until the window has enough samples
+    synchronized long delayNanos() {
+        return delayNanos;
+    }
+
+    private long percentileNanos() {
+        System.arraycopy(window, 0, sorted, 0, windowCount);
+        Arrays.sort(sorted, 0, windowCount);
+
+        var index = (int) Math.ceil(hedging.getPercentile() / 100 * windowCount) - 1;
+        return Math.max(hedging.getMinDelayMillis() * NANOS_PER_MILLI, sorted[Math.clamp(index, 0, windowCount - 1)]);
+    }
+
+    public long hedges() {
+        return hedges.sum();
+    }
+
+    public long hedgeWins() {
+        return hedgeWins.sum();
+    }
+
+}
@@ -0,0 +1,47 @@
+package dev.ciprian.service;
+
+import dev.ciprian.deadline.Deadline;
+import dev.ciprian.metrics.InvocationMetrics;
+import dev.ciprian.tracing.Span;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// carries the invocation's thread locals onto the threads doing work for it, and puts back what those threads had before
+public final class InvocationContext {
+
+    private final InvocationMetrics metrics;
+    private final Span span;
+    private final Long deadline;
+
+    private InvocationContext() {
+        this.metrics = InvocationMetrics.current();
+        this.span = Span.current();
+        this.deadline = Deadline.current();
+    }
+
+    public static <T> Supplier<T> propagate(Supplier<T> supplier) {
+        var context = new InvocationContext();
+        return () -> context.run(supplier);
+    }
+
+    public static <T, R> Function<T, R> propagate(Function<T, R> function) {
+        var context = new InvocationContext();
+        return value -> context.run(() -> function.apply(value));
+    }
+
+    private <T> T run(Supplier<T> supplier) {
+        var previousMetrics = InvocationMetrics.enter(metrics);
+        var previousSpan = Span.enter(span);
+        var previousDeadline = Deadline.enter(deadline);
+
+        try {
+            return supplier.get();
+        } finally {
+            Deadline.enter(previousDeadline);
+            Span.enter(previousSpan);
+            InvocationMetrics.enter(previousMetrics);
+        }
+    }
+
+}
@@ -1,9 +1,15 @@
 package dev.ciprian.service;
 
+import dev.ciprian.config.ConditionalOnFunctionGroup;
+import dev.ciprian.models.domain.RefreshToken;
 import dev.ciprian.models.domain.User;
 import dev.ciprian.models.response.AccessResponse;
+import dev.ciprian.tracing.Span;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.exception.ApiCallAttemptTimeoutException;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
 import software.amazon.awssdk.core.exception.SdkServiceException;
 import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminInitiateAuthRequest;
@@ -12,10 +18,12 @@ import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthFlowTyp
 import java.util.Map;
 import java.util.logging.Logger;
 
-import static dev.ciprian.constants.UserConstants.AUTH_PASSWORD;
-import static dev.ciprian.constants.UserConstants.AUTH_USERNAME;
+import static dev.ciprian.constants.FunctionGroupConstants.USERS;
+import static dev.ciprian.constants.UserConstants.*;
 
 @Service
+@Lazy
+@ConditionalOnFunctionGroup(USERS)
 public class LoginService {
 
     private final Logger logger;
@@ -27,18 +35,33 @@ public class LoginService {
     }
 
     public AccessResponse login(User user, String userPoolId, String clientId) {
+        var authParameters = Map.of(
+                AUTH_USERNAME, user.username(),
+                AUTH_PASSWORD, user.password()
+        );
+
+        return authenticate(AuthFlowType.ADMIN_USER_PASSWORD_AUTH, authParameters, userPoolId, clientId);
+    }
+
+    public AccessResponse refresh(RefreshToken refreshToken, String userPoolId, String clientId) {
+        var authParameters = Map.of(AUTH_REFRESH_TOKEN, refreshToken.refreshToken());
+        return authenticate(AuthFlowType.REFRESH_TOKEN_AUTH, authParameters, userPoolId, clientId);
+    }
+
+    private AccessResponse authenticate(AuthFlowType authFlow, Map<String, String> authParameters, String userPoolId, String clientId) {
+        try (var ignored = Span.open("LoginService.authenticate")) {
+            return initiateAuth(authFlow, authParameters, userPoolId, clientId);
+        }
+    }
+
+    private AccessResponse initiateAuth(AuthFlowType authFlow, Map<String, String> authParameters, String userPoolId, String clientId) {
         var response = new AccessResponse(true, HttpStatus.OK.value());
 
         try {
-            var authParameters = Map.of(
-                    AUTH_USERNAME, user.username(),
-                    AUTH_PASSWORD, user.password()
-            );
-
             var adminInitiateAuthRequest = AdminInitiateAuthRequest.builder()
                     .userPoolId(userPoolId)
                     .clientId(clientId)
-                    .authFlow(AuthFlowType.ADMIN_USER_PASSWORD_AUTH)
+                    .authFlow(authFlow)
                     .authParameters(authParameters)
                     .build();
 
@@ -50,10 +73,10 @@ public class LoginService {
             response.setAccessToken(authResult.accessToken());
             response.setRefreshToken(authResult.refreshToken());
             response.setIdToken(authResult.idToken());
-        } catch (SdkServiceException exception) {
+        } catch (SdkServiceException | ApiCallTimeoutException | ApiCallAttemptTimeoutException exception) {
             logger.warning(exception.getMessage());
             response.setValid(false);
-            response.setStatusCode(exception.statusCode());
+            response.setStatusCode(SdkErrors.statusCode(exception));
             response.setErrorMessage(exception.getMessage());
         }
 
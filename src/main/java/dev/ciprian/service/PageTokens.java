@@ -0,0 +1,76 @@
+package dev.ciprian.service;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.*;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+import static dev.ciprian.constants.PostConstants.USER_ID;
+
+public class PageTokens {
+
+    private static final int MAX_KEY_ATTRIBUTES = 4;
+
+    private PageTokens() {
+    }
+
+    public static String encode(Map<String, AttributeValue> lastEvaluatedKey) {
+        try (var bytes = new ByteArrayOutputStream(); var output = new DataOutputStream(bytes)) {
+            output.writeInt(lastEvaluatedKey.size());
+
+            for (var entry : lastEvaluatedKey.entrySet()) {
+                output.writeUTF(entry.getKey());
+                output.writeUTF(entry.getValue().s());
+            }
+
+            output.flush();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    public static Map<String, AttributeValue> decode(String token, String partitionKey) {
+        var key = decode(token);
+
+        if (key == null) {
+            return null;
+        }
+
+        var userId = key.get(USER_ID);
+
+        if (userId == null || !partitionKey.equals(userId.s())) {
+            throw new IllegalArgumentException("Token does not belong to the requested partition");
+        }
+
+        return key;
+    }
+
+    // scans span every partition, so their tokens are only checked for shape
+    public static Map<String, AttributeValue> decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        try (var input = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            var size = input.readInt();
+
+            if (size < 1 || size > MAX_KEY_ATTRIBUTES) {
+                throw new IllegalArgumentException("Invalid key size: " + size);
+            }
+
+            var key = new HashMap<String, AttributeValue>();
+
+            for (int i = 0; i < size; i++) {
+                key.put(input.readUTF(), AttributeValue.builder().s(input.readUTF()).build());
+            }
+
+            return key;
+        } catch (IOException exception) {
+            throw new IllegalArgumentException("Malformed token", exception);
+        }
+    }
+
+}
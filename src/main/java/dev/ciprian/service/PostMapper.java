@@ -0,0 +1,354 @@
+package dev.ciprian.service;
+
+import dev.ciprian.config.BodyCompressionConfig;
+import dev.ciprian.models.domain.Post;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DeleteRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static dev.ciprian.constants.PostConstants.*;
+
+@Component
+public class PostMapper {
+
+    // a transaction holds up to 100 items, one of them being the post itself
+    public static final int MAX_TAGS = 99;
+
+    // projections only trim what is returned, reads are still charged for the whole item
+    public static final String SUMMARY_PROJECTION = POST_TITLE + ", " + POST_TAGS;
+    public static final String PREVIEW_PROJECTION = SUMMARY_PROJECTION + ", " + POST_BODY + ", " + POST_BODY_ENCODING;
+
+    private static final String TAG_INDEX_SEPARATOR = "#TAG#";
+    private static final String VERSION_KEY = "#VERSION";
+
+    private final BodyCompressionConfig bodyCompressionConfig;
+
+    public PostMapper(BodyCompressionConfig bodyCompressionConfig) {
+        this.bodyCompressionConfig = bodyCompressionConfig;
+    }
+
+    public List<Post> toPosts(List<Map<String, AttributeValue>> items) {
+        return items.stream()
+                .map(this::toPost)
+                .toList();
+    }
+
+    public Post toPost(Map<String, AttributeValue> attributeMap) {
+        var postTitle = attributeMap.get(POST_TITLE).s();
+        return new Post(postTitle, toBody(attributeMap), toTags(attributeMap.get(POST_TAGS)));
+    }
+
+    private String toBody(Map<String, AttributeValue> attributeMap) {
+        var postBody = attributeMap.get(POST_BODY);
+
+        if (postBody == null) {
+            return null;
+        }
+
+        if (postBody.b() == null) {
+            return postBody.s();
+        }
+
+        var encoding = attributeMap.get(POST_BODY_ENCODING);
+
+        // binary bodies are only ever written with their marker, guessing a codec would hide a corrupt item
+        if (encoding == null || encoding.s() == null) {
+            throw new IllegalArgumentException("Binary body without an encoding for post: " + attributeMap.get(POST_TITLE).s());
+        }
+
+        var codec = BodyCodec.forEncoding(encoding.s());
+        return new String(codec.decode(postBody.b().asByteArrayUnsafe()), StandardCharsets.UTF_8);
+    }
+
+    private void putBody(Map<String, AttributeValue> values, String postBody) {
+        // a char takes at most three UTF-8 bytes, so short bodies are never encoded just to be measured
+        if (bodyCompressionConfig.isEnabled() && postBody.length() > bodyCompressionConfig.getThresholdBytes() / 3) {
+            var bytes = postBody.getBytes(StandardCharsets.UTF_8);
+
+            if (bytes.length > bodyCompressionConfig.getThresholdBytes()) {
+                var codec = bodyCompressionConfig.getCodec();
+                var encoded = codec.encode(bytes);
+
+                // bodies that do not shrink are kept readable
+                if (encoded.length < bytes.length) {
+                    values.put(POST_BODY, AttributeValue.builder().b(SdkBytes.fromByteArrayUnsafe(encoded)).build());
+                    values.put(POST_BODY_ENCODING, AttributeValue.builder().s(codec.encoding()).build());
+                    return;
+                }
+            }
+        }
+
+        values.put(POST_BODY, AttributeValue.builder().s(postBody).build());
+    }
+
+    public List<String> toTags(AttributeValue postTags) {
+        if (postTags == null) {
+            return List.of();
+        }
+
+        if (postTags.hasL()) {
+            var tags = new ArrayList<String>(postTags.l().size());
+
+            for (var tag : postTags.l()) {
+                tags.add(tag.s());
+            }
+
+            return tags;
+        }
+
+        if (postTags.hasSs()) {
+            return postTags.ss();
+        }
+
+        return splitLegacyTags(postTags.s());
+    }
+
+    // legacy items store tags as a single comma separated string
+    private List<String> splitLegacyTags(String allTags) {
+        if (allTags == null || allTags.isBlank()) {
+            return List.of();
+        }
+
+        var tags = new ArrayList<String>();
+        var start = 0;
+        int comma;
+
+        while ((comma = allTags.indexOf(',', start)) >= 0) {
+            if (comma > start) {
+                tags.add(allTags.substring(start, comma));
+            }
+
+            start = comma + 1;
+        }
+
+        if (start < allTags.length()) {
+            tags.add(allTags.substring(start));
+        }
+
+        return tags;
+    }
+
+    public AttributeValue toTagsAttribute(List<String> postTags) {
+        var tags = new ArrayList<AttributeValue>(postTags == null ? 0 : postTags.size());
+
+        if (postTags != null) {
+            for (var tag : postTags) {
+                tags.add(AttributeValue.builder().s(tag).build());
+            }
+        }
+
+        return AttributeValue.builder().l(tags).build();
+    }
+
+    public Map<String, AttributeValue> toItem(String userId, Post post) {
+        var values = new HashMap<String, AttributeValue>();
+        values.put(USER_ID, AttributeValue.builder().s(userId).build());
+        values.put(POST_TITLE, AttributeValue.builder().s(post.postTitle()).build());
+
+        putBody(values, post.postBody() == null ? "" : post.postBody());
+
+        values.put(POST_TAGS, toTagsAttribute(post.postTags()));
+
+        return values;
+    }
+
+    public QueryRequest queryRequest(String tableName, String sub, Integer pageSize, Map<String, AttributeValue> startKey) {
+        return queryRequest(tableName, sub, pageSize, startKey, null);
+    }
+
+    public QueryRequest keysQueryRequest(String tableName, String sub, Map<String, AttributeValue> startKey) {
+        return queryRequest(tableName, sub, null, startKey, USER_ID + ", " + POST_TITLE + ", " + POST_TAGS);
+    }
+
+    public QueryRequest tagIndexQueryRequest(String tableName, String sub, String tag, Integer pageSize, Map<String, AttributeValue> startKey) {
+        return queryRequest(tableName, tagIndexKey(sub, tag), pageSize, startKey, USER_ID + ", " + POST_TITLE);
+    }
+
+    public QueryRequest queryRequest(String tableName, String sub, Integer pageSize, Map<String, AttributeValue> startKey, String projection) {
+        return QueryRequest.builder()
+                .tableName(tableName)
+                .keyConditionExpression("UserId = :sub")
+                .expressionAttributeValues(Map.of(":sub", AttributeValue.builder().s(sub).build()))
+                .projectionExpression(projection)
+                .limit(pageSize)
+                .exclusiveStartKey(startKey)
+                .build();
+    }
+
+    public GetItemRequest getItemRequest(String tableName, String userId, String postTitle, boolean consistentRead) {
+        return GetItemRequest.builder()
+                .tableName(tableName)
+                .key(toKey(userId, postTitle))
+                .consistentRead(consistentRead)
+                .build();
+    }
+
+    public Post toSummary(Post post, Integer previewLength) {
+        if (previewLength == null || post.postBody() == null) {
+            return new Post(post.postTitle(), null, post.postTags());
+        }
+
+        var postBody = post.postBody();
+
+        if (postBody.length() > previewLength) {
+            var end = Character.isHighSurrogate(postBody.charAt(previewLength - 1)) ? previewLength - 1 : previewLength;
+            postBody = postBody.substring(0, end);
+        }
+
+        return new Post(post.postTitle(), postBody, post.postTags());
+    }
+
+    public ScanRequest legacyTagsScanRequest(String tableName, Integer pageSize, Map<String, AttributeValue> startKey) {
+        return ScanRequest.builder()
+                .tableName(tableName)
+                .filterExpression("attribute_type(#tags, :string)")
+                .expressionAttributeNames(Map.of("#tags", POST_TAGS))
+                .expressionAttributeValues(Map.of(":string", AttributeValue.builder().s("S").build()))
+                .projectionExpression(USER_ID + ", " + POST_TITLE + ", #tags")
+                .limit(pageSize)
+                .exclusiveStartKey(startKey)
+                .build();
+    }
+
+    public TransactWriteItemsRequest migrateTagsRequest(String tableName, Map<String, AttributeValue> item) {
+        var userId = item.get(USER_ID).s();
+        var postTitle = item.get(POST_TITLE).s();
+        var legacyTags = item.get(POST_TAGS);
+        var postTags = toTags(legacyTags);
+
+        var update = Update.builder()
+                .tableName(tableName)
+                .key(toKey(userId, postTitle))
+                .updateExpression("SET #tags = :tags")
+                .conditionExpression("#tags = :legacy")
+                .expressionAttributeNames(Map.of("#tags", POST_TAGS))
+                .expressionAttributeValues(Map.of(":tags", toTagsAttribute(postTags), ":legacy", legacyTags))
+                .build();
+
+        var transactItems = new ArrayList<TransactWriteItem>();
+        transactItems.add(TransactWriteItem.builder().update(update).build());
+        transactItems.addAll(tagIndexPuts(tableName, userId, postTitle, postTags));
+
+        return TransactWriteItemsRequest.builder().transactItems(transactItems).build();
+    }
+
+    // the version item takes one more slot of the save transaction
+    public static int maxTags(boolean versionTagsEnabled) {
+        return versionTagsEnabled ? MAX_TAGS - 1 : MAX_TAGS;
+    }
+
+    public TransactWriteItemsRequest saveRequest(String tableName, String userId, Post post, boolean bumpVersion) {
+        var transactItems = new ArrayList<TransactWriteItem>();
+        transactItems.add(TransactWriteItem.builder()
+                .put(Put.builder().tableName(tableName).item(toItem(userId, post)).build())
+                .build());
+        transactItems.addAll(tagIndexPuts(tableName, userId, post.postTitle(), post.postTags()));
+
+        if (bumpVersion) {
+            transactItems.add(TransactWriteItem.builder().update(versionUpdate(tableName, userId)).build());
+        }
+
+        return TransactWriteItemsRequest.builder().transactItems(transactItems).build();
+    }
+
+    // the version item lives in its own partition, so it never shows up in the posts query
+    public Map<String, AttributeValue> toVersionKey(String userId) {
+        return toKey(userId + VERSION_KEY, VERSION_KEY);
+    }
+
+    public GetItemRequest versionRequest(String tableName, String userId) {
+        return GetItemRequest.builder()
+                .tableName(tableName)
+                .key(toVersionKey(userId))
+                .projectionExpression(POSTS_VERSION)
+                .consistentRead(true)
+                .build();
+    }
+
+    public long toVersion(Map<String, AttributeValue> item) {
+        var version = item == null ? null : item.get(POSTS_VERSION);
+        return version == null ? 0 : Long.parseLong(version.n());
+    }
+
+    public Update versionUpdate(String tableName, String userId) {
+        return Update.builder()
+                .tableName(tableName)
+                .key(toVersionKey(userId))
+                .updateExpression("ADD #version :one")
+                .expressionAttributeNames(Map.of("#version", POSTS_VERSION))
+                .expressionAttributeValues(Map.of(":one", AttributeValue.builder().n("1").build()))
+                .build();
+    }
+
+    public UpdateItemRequest versionUpdateRequest(String tableName, String userId) {
+        var update = versionUpdate(tableName, userId);
+        return UpdateItemRequest.builder()
+                .tableName(tableName)
+                .key(update.key())
+                .updateExpression(update.updateExpression())
+                .expressionAttributeNames(update.expressionAttributeNames())
+                .expressionAttributeValues(update.expressionAttributeValues())
+                .build();
+    }
+
+    private List<TransactWriteItem> tagIndexPuts(String tableName, String userId, String postTitle, List<String> postTags) {
+        return indexedTags(postTags).stream()
+                .map(tag -> TransactWriteItem.builder()
+                        .put(Put.builder().tableName(tableName).item(toTagIndexKey(userId, tag, postTitle)).build())
+                        .build())
+                .toList();
+    }
+
+    public List<WriteRequest> tagIndexWrites(String userId, String postTitle, List<String> postTags, boolean delete) {
+        return indexedTags(postTags).stream()
+                .map(tag -> delete
+                        ? WriteRequest.builder().deleteRequest(DeleteRequest.builder().key(toTagIndexKey(userId, tag, postTitle)).build()).build()
+                        : WriteRequest.builder().putRequest(PutRequest.builder().item(toTagIndexKey(userId, tag, postTitle)).build()).build())
+                .toList();
+    }
+
+    // index items live in their own partition next to the posts and only carry the key
+    public String tagIndexKey(String userId, String tag) {
+        return userId + TAG_INDEX_SEPARATOR + tag;
+    }
+
+    public Map<String, AttributeValue> toTagIndexKey(String userId, String tag, String postTitle) {
+        return toKey(tagIndexKey(userId, tag), postTitle);
+    }
+
+    public Set<String> indexedTags(List<String> postTags) {
+        var tags = new LinkedHashSet<String>();
+
+        if (postTags != null) {
+            for (var tag : postTags) {
+                if (tag != null && !tag.isEmpty()) {
+                    tags.add(tag);
+                }
+            }
+        }
+
+        return tags;
+    }
+
+    public Map<String, AttributeValue> toKey(String userId, String postTitle) {
+        return Map.of(
+                USER_ID, AttributeValue.builder().s(userId).build(),
+                POST_TITLE, AttributeValue.builder().s(postTitle).build()
+        );
+    }
+
+}
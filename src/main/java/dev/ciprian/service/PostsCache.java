@@ -0,0 +1,164 @@
+package dev.ciprian.service;
+
+import dev.ciprian.config.CacheConfig;
+import dev.ciprian.metrics.InvocationMetrics;
+import dev.ciprian.models.domain.Post;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+@Component
+public class PostsCache {
+
+    private static final long ENTRY_OVERHEAD_BYTES = 128;
+    private static final long POST_OVERHEAD_BYTES = 96;
+    private static final long TAG_OVERHEAD_BYTES = 48;
+
+    private final CacheConfig cacheConfig;
+    private final LinkedHashMap<String, Entry> entries;
+    private final LinkedHashMap<String, Long> generations;
+    private long bytes;
+    private long invalidations;
+    private long forgottenGeneration;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public PostsCache(CacheConfig cacheConfig) {
+        this.cacheConfig = cacheConfig;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.generations = new LinkedHashMap<>();
+    }
+
+    public boolean isEnabled() {
+        return cacheConfig.isEnabled();
+    }
+
+    // users whose generation was forgotten share the newest forgotten one, which can only drop a fill, never keep a stale one
+    public synchronized long generation(String sub) {
+        return generations.getOrDefault(sub, forgottenGeneration);
+    }
+
+    public synchronized List<Post> get(String sub) {
+        var entry = entries.get(sub);
+
+        if (entry == null || entry.expiresAt() - System.nanoTime() <= 0) {
+            remove(sub);
+            misses++;
+            record(InvocationMetrics::cacheMiss);
+            return null;
+        }
+
+        hits++;
+        record(InvocationMetrics::cacheHit);
+        return entry.posts();
+    }
+
+    // entries filled at another version were written to by a different instance since
+    public synchronized List<Post> get(String sub, Long version) {
+        var entry = entries.get(sub);
+
+        if (version != null && entry != null && !version.equals(entry.version())) {
+            remove(sub);
+        }
+
+        return get(sub);
+    }
+
+    public synchronized void put(String sub, List<Post> posts, long readGeneration) {
+        put(sub, posts, readGeneration, null);
+    }
+
+    public synchronized void put(String sub, List<Post> posts, long readGeneration, Long version) {
+        if (readGeneration != generation(sub)) {
+            return;
+        }
+
+        var weight = weigh(sub, posts);
+
+        if (weight > cacheConfig.getMaxBytes()) {
+            return;
+        }
+
+        remove(sub);
+
+        var expiresAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(cacheConfig.getTtlSeconds());
+        entries.put(sub, new Entry(List.copyOf(posts), weight, expiresAt, version));
+        bytes += weight;
+
+        var iterator = entries.entrySet().iterator();
+
+        while ((entries.size() > cacheConfig.getMaxEntries() || bytes > cacheConfig.getMaxBytes()) && iterator.hasNext()) {
+            var eldest = iterator.next();
+            bytes -= eldest.getValue().weight();
+            iterator.remove();
+            evictions++;
+            record(InvocationMetrics::cacheEviction);
+        }
+    }
+
+    // only fills for this user that started before the write are dropped
+    public synchronized void invalidate(String sub) {
+        generations.remove(sub);
+        generations.put(sub, ++invalidations);
+
+        // generations are kept in invalidation order, so the eldest is also the smallest
+        if (generations.size() > cacheConfig.getMaxEntries()) {
+            var eldest = generations.entrySet().iterator();
+            forgottenGeneration = eldest.next().getValue();
+            eldest.remove();
+        }
+
+        remove(sub);
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size(), bytes);
+    }
+
+    private void record(Consumer<InvocationMetrics> counter) {
+        var metrics = InvocationMetrics.current();
+
+        if (metrics != null) {
+            counter.accept(metrics);
+        }
+    }
+
+    private void remove(String sub) {
+        var entry = entries.remove(sub);
+
+        if (entry != null) {
+            bytes -= entry.weight();
+        }
+    }
+
+    private long weigh(String sub, List<Post> posts) {
+        var weight = ENTRY_OVERHEAD_BYTES + 2L * sub.length();
+
+        for (var post : posts) {
+            weight += POST_OVERHEAD_BYTES + 2L * length(post.postTitle()) + 2L * length(post.postBody());
+
+            if (post.postTags() != null) {
+                for (var tag : post.postTags()) {
+                    weight += TAG_OVERHEAD_BYTES + 2L * length(tag);
+                }
+            }
+        }
+
+        return weight;
+    }
+
+    private int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size, long bytes) {
+    }
+
+    private record Entry(List<Post> posts, long weight, long expiresAt, Long version) {
+    }
+
+}
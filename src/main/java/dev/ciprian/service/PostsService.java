@@ -1,111 +1,501 @@
 package dev.ciprian.service;
 
+import dev.ciprian.config.ConditionalOnFunctionGroup;
+import dev.ciprian.config.DynamoDbConfig;
 import dev.ciprian.models.domain.Post;
+import dev.ciprian.models.response.BatchResponse;
 import dev.ciprian.models.response.GenericResponse;
+import dev.ciprian.models.response.ItemStatus;
+import dev.ciprian.models.response.PostResponse;
 import dev.ciprian.models.response.PostsResponse;
+import dev.ciprian.models.response.ProgressResponse;
+import dev.ciprian.tracing.Span;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.exception.ApiCallAttemptTimeoutException;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
 import software.amazon.awssdk.core.exception.SdkServiceException;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteRequest;
 import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
-import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
-import static dev.ciprian.constants.PostConstants.*;
+import static dev.ciprian.constants.FunctionGroupConstants.POSTS;
+import static dev.ciprian.constants.PostConstants.POST_TAGS;
+import static dev.ciprian.constants.PostConstants.POST_TITLE;
+import static org.springframework.util.StringUtils.hasLength;
 
 @Service
+@Lazy
+@ConditionalOnFunctionGroup(POSTS)
 public class PostsService {
 
     private final Logger logger;
     private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbConfig dynamoDbConfig;
+    private final PostMapper postMapper;
+    private final BatchWriter batchWriter;
+    private final HedgedReader hedgedReader;
 
-    public PostsService(DynamoDbClient dynamoDbClient) {
+    public PostsService(DynamoDbClient dynamoDbClient, DynamoDbConfig dynamoDbConfig, PostMapper postMapper, BatchWriter batchWriter, HedgedReader hedgedReader) {
         this.logger = Logger.getLogger(PostsService.class.getName());
         this.dynamoDbClient = dynamoDbClient;
+        this.dynamoDbConfig = dynamoDbConfig;
+        this.postMapper = postMapper;
+        this.batchWriter = batchWriter;
+        this.hedgedReader = hedgedReader;
     }
 
     public PostsResponse getPosts(String tableName, String sub) {
-        var queryRequest = QueryRequest.builder()
-                .tableName(tableName)
-                .keyConditionExpression("UserId = :sub")
-                .expressionAttributeValues(Map.of(":sub", AttributeValue.builder().s(sub).build()))
-                .build();
+        return getPosts(tableName, sub, null, null);
+    }
+
+    public PostsResponse getPosts(String tableName, String sub, Integer pageSize, String nextToken) {
+        return getPosts(tableName, sub, pageSize, nextToken, null);
+    }
+
+    public PostsResponse getPosts(String tableName, String sub, Integer pageSize, String nextToken, String projection) {
+        try (var ignored = Span.open("PostsService.getPosts")) {
+            return queryPosts(tableName, sub, pageSize, nextToken, projection);
+        }
+    }
+
+    private PostsResponse queryPosts(String tableName, String sub, Integer pageSize, String nextToken, String projection) {
+        Map<String, AttributeValue> startKey;
+
+        try {
+            startKey = PageTokens.decode(nextToken, sub);
+        } catch (IllegalArgumentException exception) {
+            logger.warning("Invalid next token: " + exception.getMessage());
+            return new PostsResponse(false, HttpStatus.BAD_REQUEST.value(), "Invalid next token");
+        }
 
         var response = new PostsResponse(true, HttpStatus.OK.value());
 
         try {
-            var queryResponse = dynamoDbClient.query(queryRequest);
-            var posts = mapPosts(queryResponse.items());
+            var posts = new ArrayList<Post>();
+
+            do {
+                var queryRequest = postMapper.queryRequest(tableName, sub, pageSize, startKey, projection);
+                var queryResponse = hedgedReader.read(() -> dynamoDbClient.query(queryRequest));
+                posts.addAll(postMapper.toPosts(queryResponse.items()));
+                startKey = queryResponse.hasLastEvaluatedKey() ? queryResponse.lastEvaluatedKey() : null;
+            } while (pageSize == null && startKey != null);
+
             response.setPosts(posts);
-        } catch (SdkServiceException exception) {
+
+            if (startKey != null) {
+                response.setNextToken(PageTokens.encode(startKey));
+            }
+        } catch (SdkServiceException | ApiCallTimeoutException | ApiCallAttemptTimeoutException exception) {
             logger.warning(exception.getMessage());
             response.setValid(false);
-            response.setStatusCode(exception.statusCode());
+            response.setStatusCode(SdkErrors.statusCode(exception));
             response.setErrorMessage(exception.getMessage());
         }
 
         return response;
     }
 
-    private List<Post> mapPosts(List<Map<String, AttributeValue>> items) {
-        return items.stream()
-                .map(attributeMap -> {
-                    var postTitle = attributeMap.get(POST_TITLE).s();
-                    var postBody = attributeMap.get(POST_BODY).s();
-                    var allTags = attributeMap.get(POST_TAGS).s();
-                    var postTags = (allTags == null || allTags.isBlank()) ? Collections.<String>emptyList() : Arrays.stream(allTags.split(",")).toList();
-                    return new Post(postTitle, postBody, postTags);
-                })
-                .toList();
+    public PostResponse getPost(String tableName, String sub, String postTitle, boolean consistentRead) {
+        try (var ignored = Span.open("PostsService.getPost")) {
+            return readPost(tableName, sub, postTitle, consistentRead);
+        }
     }
 
-    public GenericResponse save(String tableName, String userId, Post post) {
-        var values = new HashMap<String, AttributeValue>();
-        values.put(USER_ID, AttributeValue.builder().s(userId).build());
-        values.put(POST_TITLE, AttributeValue.builder().s(post.postTitle()).build());
+    private PostResponse readPost(String tableName, String sub, String postTitle, boolean consistentRead) {
+        try {
+            var getItemRequest = postMapper.getItemRequest(tableName, sub, postTitle, consistentRead);
+            var getItemResponse = hedgedReader.read(() -> dynamoDbClient.getItem(getItemRequest));
 
-        var postBody = post.postBody() == null ? "" : post.postBody();
-        values.put(POST_BODY, AttributeValue.builder().s(postBody).build());
+            if (!getItemResponse.hasItem() || getItemResponse.item().isEmpty()) {
+                return new PostResponse(false, HttpStatus.NOT_FOUND.value(), "Post not found");
+            }
 
-        var tags = post.postTags() == null ? new ArrayList<String>() : post.postTags();
-        var postTags = String.join(",", tags);
-        values.put(POST_TAGS, AttributeValue.builder().s(postTags).build());
+            var response = new PostResponse(true, HttpStatus.OK.value());
+            response.setPost(postMapper.toPost(getItemResponse.item()));
+            return response;
+        } catch (SdkServiceException | ApiCallTimeoutException | ApiCallAttemptTimeoutException exception) {
+            logger.warning(exception.getMessage());
+            return new PostResponse(false, SdkErrors.statusCode(exception), exception.getMessage());
+        }
+    }
 
-        var putItemRequest = PutItemRequest.builder()
-                .tableName(tableName)
-                .item(values)
-                .build();
+    // a missing version item reads as 0, which the first write after it replaces
+    public Long getVersion(String tableName, String sub) {
+        try {
+            var getItemRequest = postMapper.versionRequest(tableName, sub);
+            var getItemResponse = hedgedReader.read(() -> dynamoDbClient.getItem(getItemRequest));
+            return postMapper.toVersion(getItemResponse.hasItem() ? getItemResponse.item() : null);
+        } catch (SdkServiceException | ApiCallTimeoutException | ApiCallAttemptTimeoutException exception) {
+            logger.warning("Could not read posts version: " + exception.getMessage());
+            return null;
+        }
+    }
+
+    public PostsResponse getPostsByTag(String tableName, String sub, String tag, Integer pageSize, String nextToken) {
+        try (var ignored = Span.open("PostsService.getPostsByTag")) {
+            return queryTag(tableName, sub, tag, pageSize, nextToken);
+        }
+    }
+
+    private PostsResponse queryTag(String tableName, String sub, String tag, Integer pageSize, String nextToken) {
+        Map<String, AttributeValue> startKey;
+
+        try {
+            startKey = PageTokens.decode(nextToken, postMapper.tagIndexKey(sub, tag));
+        } catch (IllegalArgumentException exception) {
+            logger.warning("Invalid next token: " + exception.getMessage());
+            return new PostsResponse(false, HttpStatus.BAD_REQUEST.value(), "Invalid next token");
+        }
+
+        var response = new PostsResponse(true, HttpStatus.OK.value());
 
         try {
-            dynamoDbClient.putItem(putItemRequest);
+            var postTitles = new ArrayList<String>();
+
+            do {
+                var queryResponse = dynamoDbClient.query(postMapper.tagIndexQueryRequest(tableName, sub, tag, pageSize, startKey));
+                queryResponse.items().forEach(item -> postTitles.add(item.get(POST_TITLE).s()));
+                startKey = queryResponse.hasLastEvaluatedKey() ? queryResponse.lastEvaluatedKey() : null;
+            } while (pageSize == null && startKey != null);
+
+            response.setPosts(taggedPosts(tableName, sub, tag, postTitles));
+
+            if (startKey != null) {
+                response.setNextToken(PageTokens.encode(startKey));
+            }
+        } catch (SdkServiceException | ApiCallTimeoutException | ApiCallAttemptTimeoutException exception) {
+            logger.warning(exception.getMessage());
+            response.setValid(false);
+            response.setStatusCode(SdkErrors.statusCode(exception));
+            response.setErrorMessage(exception.getMessage());
+        }
+
+        return response;
+    }
+
+    private List<Post> taggedPosts(String tableName, String sub, String tag, List<String> postTitles) {
+        var keys = postTitles.stream().map(postTitle -> postMapper.toKey(sub, postTitle)).toList();
+        var found = new HashMap<String, Post>();
+
+        for (var item : batchWriter.read(tableName, keys, POST_TITLE + ", " + POST_TAGS)) {
+            var post = postMapper.toPost(item);
+            found.put(post.postTitle(), post);
+        }
+
+        var posts = new ArrayList<Post>();
+        var stale = new ArrayList<WriteRequest>();
+
+        for (var postTitle : postTitles) {
+            var post = found.get(postTitle);
+
+            if (post != null && post.postTags().contains(tag)) {
+                posts.add(post);
+            } else {
+                stale.addAll(postMapper.tagIndexWrites(sub, postTitle, List.of(tag), true));
+            }
+        }
+
+        // index entries left behind by a removed tag or a failed cleanup are dropped once a read notices them, in the background
+        // so the repair adds no latency to the read and cannot fail it, entries it misses are noticed by the next read
+        if (!stale.isEmpty()) {
+            logger.info("Removing " + stale.size() + " stale tag index entries");
+            batchWriter.writeInBackground(tableName, stale);
+        }
+
+        return posts;
+    }
+
+    public GenericResponse forEachPage(String tableName, String sub, Consumer<List<Post>> pageConsumer) {
+        try {
+            Map<String, AttributeValue> startKey = null;
+
+            do {
+                var queryResponse = dynamoDbClient.query(postMapper.queryRequest(tableName, sub, null, startKey));
+                pageConsumer.accept(postMapper.toPosts(queryResponse.items()));
+                startKey = queryResponse.hasLastEvaluatedKey() ? queryResponse.lastEvaluatedKey() : null;
+            } while (startKey != null);
+
+            return new GenericResponse(true, HttpStatus.OK.value());
+        } catch (SdkServiceException | ApiCallTimeoutException | ApiCallAttemptTimeoutException exception) {
+            logger.warning(exception.getMessage());
+            return new GenericResponse(false, SdkErrors.statusCode(exception), exception.getMessage());
+        }
+    }
+
+    public GenericResponse save(String tableName, String userId, Post post) {
+        try (var ignored = Span.open("PostsService.save")) {
+            return savePost(tableName, userId, post);
+        }
+    }
+
+    private GenericResponse savePost(String tableName, String userId, Post post) {
+        var indexedTags = postMapper.indexedTags(post.postTags());
+
+        if (indexedTags.size() > PostMapper.maxTags(dynamoDbConfig.isVersionTagsEnabled())) {
+            return new GenericResponse(false, HttpStatus.BAD_REQUEST.value(), "Too many tags");
+        }
+
+        try {
+            // a post without tags or version item is a single write, no transaction needed
+            if (indexedTags.isEmpty() && !dynamoDbConfig.isVersionTagsEnabled()) {
+                dynamoDbClient.putItem(PutItemRequest.builder()
+                        .tableName(tableName)
+                        .item(postMapper.toItem(userId, post))
+                        .build());
+            } else {
+                dynamoDbClient.transactWriteItems(postMapper.saveRequest(tableName, userId, post, dynamoDbConfig.isVersionTagsEnabled()));
+            }
+
             return new GenericResponse(true, HttpStatus.CREATED.value());
-        } catch (SdkServiceException exception) {
+        } catch (SdkServiceException | ApiCallTimeoutException | ApiCallAttemptTimeoutException exception) {
             logger.warning(exception.getMessage());
-            return new GenericResponse(false, exception.statusCode(), exception.getMessage());
+            return new GenericResponse(false, SdkErrors.statusCode(exception), exception.getMessage());
+        }
+    }
+
+    public BatchResponse saveAll(String tableName, String userId, List<Post> posts) {
+        try (var ignored = Span.open("PostsService.saveAll")) {
+            return savePosts(tableName, userId, posts);
+        }
+    }
+
+    private BatchResponse savePosts(String tableName, String userId, List<Post> posts) {
+        var statuses = new LinkedHashMap<String, ItemStatus>();
+        var postPuts = new HashMap<WriteRequest, String>();
+        var writeRequests = new ArrayList<WriteRequest>();
+        var invalid = new ArrayList<ItemStatus>();
+
+        for (var post : posts) {
+            if (post == null || !hasLength(post.postTitle())) {
+                invalid.add(new ItemStatus(post == null ? null : post.postTitle(), HttpStatus.BAD_REQUEST.value(), "Invalid data"));
+            } else if (statuses.containsKey(post.postTitle())) {
+                invalid.add(new ItemStatus(post.postTitle(), HttpStatus.BAD_REQUEST.value(), "Duplicate post title"));
+            } else if (postMapper.indexedTags(post.postTags()).size() > PostMapper.maxTags(dynamoDbConfig.isVersionTagsEnabled())) {
+                invalid.add(new ItemStatus(post.postTitle(), HttpStatus.BAD_REQUEST.value(), "Too many tags"));
+            } else {
+                statuses.put(post.postTitle(), new ItemStatus(post.postTitle(), HttpStatus.CREATED.value(), null));
+                var postPut = WriteRequest.builder()
+                        .putRequest(PutRequest.builder().item(postMapper.toItem(userId, post)).build())
+                        .build();
+                postPuts.put(postPut, post.postTitle());
+                writeRequests.add(postPut);
+                writeRequests.addAll(postMapper.tagIndexWrites(userId, post.postTitle(), post.postTags(), false));
+            }
         }
+
+        // a failed tag index put leaves the post saved but missing from that tag, so only the post puts are reported
+        batchWriter.write(tableName, writeRequests).forEach((writeRequest, failure) -> {
+            var postTitle = postPuts.get(writeRequest);
+
+            if (postTitle != null) {
+                statuses.put(postTitle, new ItemStatus(postTitle, failure.getStatusCode(), failure.getErrorMessage()));
+            }
+        });
+
+        var items = new ArrayList<>(statuses.values());
+        items.addAll(invalid);
+        String versionError = null;
+
+        // the posts are written either way, so a failed bump is reported next to their statuses instead of replacing them
+        if (items.stream().anyMatch(item -> item.statusCode() == HttpStatus.CREATED.value())) {
+            try {
+                bumpVersion(tableName, userId);
+            } catch (SdkServiceException | ApiCallTimeoutException | ApiCallAttemptTimeoutException exception) {
+                logger.warning("Could not bump posts version: " + exception.getMessage());
+                versionError = "Could not bump posts version: " + exception.getMessage();
+            }
+        }
+
+        var allCreated = versionError == null && items.stream().allMatch(item -> item.statusCode() == HttpStatus.CREATED.value());
+        var response = new BatchResponse(true, allCreated ? HttpStatus.CREATED.value() : HttpStatus.MULTI_STATUS.value(), versionError);
+        response.setItems(items);
+        return response;
+    }
+
+    public ProgressResponse deleteAll(String tableName, String userId, String nextToken, long budgetMillis) {
+        try (var ignored = Span.open("PostsService.deleteAll")) {
+            return deletePosts(tableName, userId, nextToken, budgetMillis);
+        }
+    }
+
+    private ProgressResponse deletePosts(String tableName, String userId, String nextToken, long budgetMillis) {
+        Map<String, AttributeValue> startKey;
+
+        try {
+            startKey = PageTokens.decode(nextToken, userId);
+        } catch (IllegalArgumentException exception) {
+            logger.warning("Invalid next token: " + exception.getMessage());
+            return new ProgressResponse(false, HttpStatus.BAD_REQUEST.value(), "Invalid next token");
+        }
+
+        var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        var deleted = 0;
+        var failed = 0;
+
+        try {
+            do {
+                var queryResponse = dynamoDbClient.query(postMapper.keysQueryRequest(tableName, userId, startKey));
+
+                var postDeletes = new ArrayList<WriteRequest>();
+                var writeRequests = new ArrayList<WriteRequest>();
+
+                for (var item : queryResponse.items()) {
+                    var postTitle = item.get(POST_TITLE).s();
+                    var postDelete = WriteRequest.builder()
+                            .deleteRequest(DeleteRequest.builder().key(postMapper.toKey(userId, postTitle)).build())
+                            .build();
+                    postDeletes.add(postDelete);
+                    writeRequests.add(postDelete);
+                    writeRequests.addAll(postMapper.tagIndexWrites(userId, postTitle, postMapper.toTags(item.get(POST_TAGS)), true));
+                }
+
+                // index entries that fail to go are cleaned up by the next tag read, so only the posts are counted
+                var failures = batchWriter.write(tableName, writeRequests);
+                var failedPosts = (int) postDeletes.stream().filter(failures::containsKey).count();
+                deleted += postDeletes.size() - failedPosts;
+                failed += failedPosts;
+                startKey = queryResponse.hasLastEvaluatedKey() ? queryResponse.lastEvaluatedKey() : null;
+
+                logger.info("Deleted " + deleted + " posts so far, " + failed + " failed");
+            } while (startKey != null && System.nanoTime() < deadline);
+
+            // an empty run, like the one priming makes, leaves the version and the etags handed out alone
+            if (deleted > 0) {
+                bumpVersion(tableName, userId);
+            }
+        } catch (SdkServiceException | ApiCallTimeoutException | ApiCallAttemptTimeoutException exception) {
+            logger.warning(exception.getMessage());
+            return new ProgressResponse(false, SdkErrors.statusCode(exception), exception.getMessage());
+        }
+
+        var complete = startKey == null && failed == 0;
+        var response = new ProgressResponse(true, complete ? HttpStatus.OK.value() : HttpStatus.PARTIAL_CONTENT.value());
+        response.setProcessedCount(deleted);
+        response.setFailedCount(failed);
+        response.setComplete(complete);
+
+        // failed deletes sit before the last evaluated key, so only hand out a token when nothing would be skipped
+        if (startKey != null && failed == 0) {
+            response.setNextToken(PageTokens.encode(startKey));
+        }
+
+        return response;
+    }
+
+    public ProgressResponse migrateTags(String tableName, Integer pageSize, String nextToken, long budgetMillis) {
+        Map<String, AttributeValue> startKey;
+
+        try {
+            startKey = PageTokens.decode(nextToken);
+        } catch (IllegalArgumentException exception) {
+            logger.warning("Invalid next token: " + exception.getMessage());
+            return new ProgressResponse(false, HttpStatus.BAD_REQUEST.value(), "Invalid next token");
+        }
+
+        var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        var migrated = 0;
+        var failed = 0;
+
+        try {
+            do {
+                var scanResponse = dynamoDbClient.scan(postMapper.legacyTagsScanRequest(tableName, pageSize, startKey));
+
+                for (var item : scanResponse.items()) {
+                    try {
+                        dynamoDbClient.transactWriteItems(postMapper.migrateTagsRequest(tableName, item));
+                        migrated++;
+                    } catch (TransactionCanceledException exception) {
+                        // a failed condition means the post was rewritten or deleted since the scan, so there is nothing left to migrate
+                        if (!conditionFailed(exception)) {
+                            logger.warning(exception.getMessage());
+                            failed++;
+                        }
+                    } catch (SdkServiceException exception) {
+                        logger.warning(exception.getMessage());
+                        failed++;
+                    }
+                }
+
+                startKey = scanResponse.hasLastEvaluatedKey() ? scanResponse.lastEvaluatedKey() : null;
+
+                logger.info("Migrated tags of " + migrated + " posts so far, " + failed + " failed");
+            } while (startKey != null && System.nanoTime() < deadline);
+        } catch (SdkServiceException | ApiCallTimeoutException | ApiCallAttemptTimeoutException exception) {
+            logger.warning(exception.getMessage());
+            return new ProgressResponse(false, SdkErrors.statusCode(exception), exception.getMessage());
+        }
+
+        var complete = startKey == null && failed == 0;
+        var response = new ProgressResponse(true, complete ? HttpStatus.OK.value() : HttpStatus.PARTIAL_CONTENT.value());
+        response.setProcessedCount(migrated);
+        response.setFailedCount(failed);
+        response.setComplete(complete);
+
+        // failed items keep their legacy tags and are picked up again by a scan from the start
+        if (startKey != null) {
+            response.setNextToken(PageTokens.encode(startKey));
+        }
+
+        return response;
+    }
+
+    // bumped after the write, so a reader that saw the old version at most fetches the new posts once more
+    private void bumpVersion(String tableName, String userId) {
+        if (dynamoDbConfig.isVersionTagsEnabled()) {
+            dynamoDbClient.updateItem(postMapper.versionUpdateRequest(tableName, userId));
+        }
+    }
+
+    private boolean conditionFailed(TransactionCanceledException exception) {
+        return exception.hasCancellationReasons() && exception.cancellationReasons().stream()
+                .anyMatch(reason -> "ConditionalCheckFailed".equals(reason.code()));
     }
 
     public GenericResponse delete(String tableName, String userId, Post post) {
-        var key = Map.of(
-                USER_ID, AttributeValue.builder().s(userId).build(),
-                POST_TITLE, AttributeValue.builder().s(post.postTitle()).build()
-        );
+        try (var ignored = Span.open("PostsService.delete")) {
+            return deletePost(tableName, userId, post);
+        }
+    }
 
+    private GenericResponse deletePost(String tableName, String userId, Post post) {
         var deleteItemRequest = DeleteItemRequest.builder()
                 .tableName(tableName)
-                .key(key)
+                .key(postMapper.toKey(userId, post.postTitle()))
+                .returnValues(ReturnValue.ALL_OLD)
                 .build();
 
         try {
-            dynamoDbClient.deleteItem(deleteItemRequest);
+            var deleteItemResponse = dynamoDbClient.deleteItem(deleteItemRequest);
+
+            // deleting a missing post changes nothing, so it leaves the version and the etags handed out alone
+            if (deleteItemResponse.hasAttributes()) {
+                bumpVersion(tableName, userId);
+
+                var postTags = postMapper.toTags(deleteItemResponse.attributes().get(POST_TAGS));
+                var failures = batchWriter.write(tableName, postMapper.tagIndexWrites(userId, post.postTitle(), postTags, true));
+
+                if (!failures.isEmpty()) {
+                    logger.warning("Could not remove " + failures.size() + " tag index entries, they are dropped on the next tag read");
+                }
+            }
+
             return new GenericResponse(true, HttpStatus.NO_CONTENT.value());
-        } catch (SdkServiceException exception) {
+        } catch (SdkServiceException | ApiCallTimeoutException | ApiCallAttemptTimeoutException exception) {
             logger.warning(exception.getMessage());
-            return new GenericResponse(false, exception.statusCode(), exception.getMessage());
+            return new GenericResponse(false, SdkErrors.statusCode(exception), exception.getMessage());
         }
     }
 
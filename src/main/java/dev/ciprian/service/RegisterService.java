@@ -1,9 +1,14 @@
 package dev.ciprian.service;
 
+import dev.ciprian.config.ConditionalOnFunctionGroup;
 import dev.ciprian.models.domain.User;
 import dev.ciprian.models.response.GenericResponse;
+import dev.ciprian.tracing.Span;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.exception.ApiCallAttemptTimeoutException;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
 import software.amazon.awssdk.core.exception.SdkServiceException;
 import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminCreateUserRequest;
@@ -13,9 +18,12 @@ import software.amazon.awssdk.services.cognitoidentityprovider.model.MessageActi
 
 import java.util.logging.Logger;
 
+import static dev.ciprian.constants.FunctionGroupConstants.USERS;
 import static dev.ciprian.constants.UserConstants.EMAIL;
 
 @Service
+@Lazy
+@ConditionalOnFunctionGroup(USERS)
 public class RegisterService {
 
     private final Logger logger;
@@ -27,19 +35,21 @@ public class RegisterService {
     }
 
     public GenericResponse register(User user, String userPoolId) {
-        var response = createUser(user, userPoolId);
+        try (var ignored = Span.open("RegisterService.register")) {
+            var response = createUser(user, userPoolId);
 
-        if (!response.isValid()) {
-            return response;
-        }
+            if (!response.isValid()) {
+                return response;
+            }
 
-        var setUserPasswordResponse = setUserPassword(user, userPoolId);
+            var setUserPasswordResponse = setUserPassword(user, userPoolId);
 
-        if (!setUserPasswordResponse.isValid()) {
-            return setUserPasswordResponse;
-        }
+            if (!setUserPasswordResponse.isValid()) {
+                return setUserPasswordResponse;
+            }
 
-        return response;
+            return response;
+        }
     }
 
     private GenericResponse createUser(User user, String userPoolId) {
@@ -58,9 +68,9 @@ public class RegisterService {
 
             identityProviderClient.adminCreateUser(adminCreateUserRequest);
             return new GenericResponse(true, HttpStatus.CREATED.value());
-        } catch (SdkServiceException exception) {
+        } catch (SdkServiceException | ApiCallTimeoutException | ApiCallAttemptTimeoutException exception) {
             logger.warning(exception.getMessage());
-            return new GenericResponse(false, exception.statusCode(), exception.getMessage());
+            return new GenericResponse(false, SdkErrors.statusCode(exception), exception.getMessage());
         }
     }
 
@@ -75,9 +85,9 @@ public class RegisterService {
 
             identityProviderClient.adminSetUserPassword(adminSetUserPasswordResponse);
             return new GenericResponse(true, HttpStatus.OK.value());
-        } catch (SdkServiceException exception) {
+        } catch (SdkServiceException | ApiCallTimeoutException | ApiCallAttemptTimeoutException exception) {
             logger.warning(exception.getMessage());
-            return new GenericResponse(false, exception.statusCode(), exception.getMessage());
+            return new GenericResponse(false, SdkErrors.statusCode(exception), exception.getMessage());
         }
     }
 
@@ -0,0 +1,30 @@
+package dev.ciprian.service;
+
+import org.springframework.http.HttpStatus;
+import software.amazon.awssdk.core.exception.ApiCallAttemptTimeoutException;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+
+final class SdkErrors {
+
+    private SdkErrors() {
+    }
+
+    // errors the services answer with an error response, anything else still escapes as a 500
+    static boolean isHandled(Throwable throwable) {
+        return throwable instanceof SdkServiceException || isTimeout(throwable);
+    }
+
+    static boolean isTimeout(Throwable throwable) {
+        return throwable instanceof ApiCallTimeoutException || throwable instanceof ApiCallAttemptTimeoutException;
+    }
+
+    // client timeouts carry no status code, they are answered like a gateway that gave up waiting
+    static int statusCode(SdkException exception) {
+        return exception instanceof SdkServiceException serviceException
+                ? serviceException.statusCode()
+                : HttpStatus.GATEWAY_TIMEOUT.value();
+    }
+
+}
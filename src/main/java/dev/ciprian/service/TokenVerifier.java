@@ -0,0 +1,181 @@
+package dev.ciprian.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.config.JwtConfig;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static dev.ciprian.constants.HeaderConstants.AUTHORIZATION_HEADER;
+import static dev.ciprian.constants.HeaderConstants.USER_ID_HEADER;
+import static org.springframework.util.StringUtils.hasLength;
+
+@Component
+public class TokenVerifier {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final long JWKS_REFRESH_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Logger logger;
+    private final JwtConfig jwtConfig;
+    private final ObjectMapper objectMapper;
+    private final ResourceLoader resourceLoader;
+    private final Map<String, PublicKey> keys;
+    private volatile long nextJwksLoad;
+
+    public TokenVerifier(JwtConfig jwtConfig, ObjectMapper objectMapper, ResourceLoader resourceLoader) {
+        this.logger = Logger.getLogger(TokenVerifier.class.getName());
+        this.jwtConfig = jwtConfig;
+        this.objectMapper = objectMapper;
+        this.resourceLoader = resourceLoader;
+        this.keys = new ConcurrentHashMap<>();
+        this.nextJwksLoad = System.nanoTime();
+    }
+
+    public String subject(Map<String, String> headers) {
+        if (headers == null) {
+            return null;
+        }
+
+        if (!jwtConfig.isEnabled()) {
+            return headers.get(USER_ID_HEADER);
+        }
+
+        var authorization = header(headers, AUTHORIZATION_HEADER);
+
+        if (!hasLength(authorization)) {
+            return null;
+        }
+
+        var token = authorization.startsWith(BEARER_PREFIX) ? authorization.substring(BEARER_PREFIX.length()) : authorization;
+        return verify(token);
+    }
+
+    public String verify(String token) {
+        var parts = token.split("\\.");
+
+        if (parts.length != 3) {
+            logger.warning("Rejected token: malformed");
+            return null;
+        }
+
+        try {
+            var header = objectMapper.readTree(decode(parts[0]));
+            var claims = objectMapper.readTree(decode(parts[1]));
+
+            if (!"RS256".equals(header.path("alg").asText())) {
+                logger.warning("Rejected token: unsupported algorithm");
+                return null;
+            }
+
+            var key = key(header.path("kid").asText());
+
+            if (key == null) {
+                logger.warning("Rejected token: unknown key");
+                return null;
+            }
+
+            var signature = Signature.getInstance("SHA256withRSA");
+            signature.initVerify(key);
+            signature.update((parts[0] + "." + parts[1]).getBytes(StandardCharsets.US_ASCII));
+
+            if (!signature.verify(decode(parts[2]))) {
+                logger.warning("Rejected token: invalid signature");
+                return null;
+            }
+
+            return validClaims(claims) ? claims.path("sub").asText() : null;
+        } catch (IOException | GeneralSecurityException | IllegalArgumentException exception) {
+            logger.warning("Rejected token: " + exception.getMessage());
+            return null;
+        }
+    }
+
+    private boolean validClaims(JsonNode claims) {
+        var now = Instant.now().getEpochSecond();
+
+        if (claims.path("exp").asLong() + jwtConfig.getClockSkewSeconds() < now) {
+            logger.warning("Rejected token: expired");
+            return false;
+        }
+
+        if (!jwtConfig.getIssuer().equals(claims.path("iss").asText())) {
+            logger.warning("Rejected token: invalid issuer");
+            return false;
+        }
+
+        var clientId = switch (claims.path("token_use").asText()) {
+            case "access" -> claims.path("client_id").asText();
+            case "id" -> claims.path("aud").asText();
+            default -> null;
+        };
+
+        if (!jwtConfig.getClientId().equals(clientId)) {
+            logger.warning("Rejected token: invalid client");
+            return false;
+        }
+
+        return hasLength(claims.path("sub").asText());
+    }
+
+    private PublicKey key(String kid) throws IOException, GeneralSecurityException {
+        var key = keys.get(kid);
+
+        if (key == null && System.nanoTime() - nextJwksLoad >= 0) {
+            loadJwks();
+            key = keys.get(kid);
+        }
+
+        return key;
+    }
+
+    private synchronized void loadJwks() throws IOException, GeneralSecurityException {
+        nextJwksLoad = System.nanoTime() + JWKS_REFRESH_INTERVAL_NANOS;
+
+        try (var input = resourceLoader.getResource(jwtConfig.getJwksLocation()).getInputStream()) {
+            var keyFactory = KeyFactory.getInstance("RSA");
+
+            for (var jwk : objectMapper.readTree(input).path("keys")) {
+                if (!"RSA".equals(jwk.path("kty").asText())) {
+                    continue;
+                }
+
+                var modulus = new BigInteger(1, decode(jwk.path("n").asText()));
+                var exponent = new BigInteger(1, decode(jwk.path("e").asText()));
+                keys.put(jwk.path("kid").asText(), keyFactory.generatePublic(new RSAPublicKeySpec(modulus, exponent)));
+            }
+        }
+
+        logger.info("Loaded " + keys.size() + " signing keys from " + jwtConfig.getJwksLocation());
+    }
+
+    private String header(Map<String, String> headers, String name) {
+        for (var entry : headers.entrySet()) {
+            if (name.equalsIgnoreCase(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+
+        return null;
+    }
+
+    private byte[] decode(String value) {
+        return Base64.getUrlDecoder().decode(value);
+    }
+
+}
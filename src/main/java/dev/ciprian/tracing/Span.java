@@ -0,0 +1,228 @@
+package dev.ciprian.tracing;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class Span implements AutoCloseable {
+
+    // not inherited, pooled SDK threads would keep spans of finished traces, InvocationContext carries it instead
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+    private static final Span NOOP = new Span(null, null, null, 0);
+
+    private final Trace trace;
+    private final Span parent;
+    private final String id;
+    private final String name;
+    private final long startNanos;
+    private final List<Span> children;
+    private final Map<String, Object> aws;
+    private volatile long endNanos;
+    private String namespace;
+    private Integer status;
+    private boolean error;
+    private boolean throttle;
+    private boolean fault;
+
+    Span(Trace trace, Span parent, String name, long startNanos) {
+        this.trace = trace;
+        this.parent = parent;
+        this.id = trace == null ? null : newId();
+        this.name = name;
+        this.startNanos = startNanos;
+        this.children = new ArrayList<>();
+        this.aws = new LinkedHashMap<>();
+    }
+
+    public static Span current() {
+        return CURRENT.get();
+    }
+
+    // outside a traced invocation this hands out a shared span that records nothing
+    public static Span open(String name) {
+        var parent = CURRENT.get();
+
+        if (parent == null) {
+            return NOOP;
+        }
+
+        var span = parent.child(name, System.nanoTime());
+        CURRENT.set(span);
+        return span;
+    }
+
+    // puts the given span on the current thread and returns the one it replaced
+    public static Span enter(Span span) {
+        var previous = CURRENT.get();
+
+        if (span == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(span);
+        }
+
+        return previous;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    static String newId() {
+        return String.format("%016x", ThreadLocalRandom.current().nextLong());
+    }
+
+    Span child(String name, long startNanos) {
+        var span = new Span(trace, this, name, startNanos);
+
+        synchronized (children) {
+            children.add(span);
+        }
+
+        return span;
+    }
+
+    // moves the children started since the given time under a new span covering that interval
+    Span adopt(String name, long startNanos, long endNanos) {
+        var span = new Span(trace, this, name, startNanos);
+
+        synchronized (children) {
+            var iterator = children.iterator();
+
+            while (iterator.hasNext()) {
+                var child = iterator.next();
+
+                if (child.startNanos >= startNanos) {
+                    span.children.add(child);
+                    iterator.remove();
+                }
+            }
+
+            children.add(span);
+        }
+
+        span.end(endNanos);
+        return span;
+    }
+
+    void end(long endNanos) {
+        if (this.endNanos == 0) {
+            this.endNanos = endNanos;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (this == NOOP) {
+            return;
+        }
+
+        end(System.nanoTime());
+
+        if (CURRENT.get() == this) {
+            CURRENT.set(parent);
+        }
+    }
+
+    public Span status(int status) {
+        if (this != NOOP) {
+            this.status = status;
+            this.error = status >= 400 && status < 500;
+            this.throttle = status == 429;
+            this.fault = status >= 500;
+        }
+
+        return this;
+    }
+
+    Span throttle() {
+        this.throttle = true;
+        return this;
+    }
+
+    public Span fault() {
+        if (this != NOOP) {
+            this.fault = true;
+        }
+
+        return this;
+    }
+
+    public Span aws(String key, Object value) {
+        if (this != NOOP) {
+            aws.put(key, value);
+        }
+
+        return this;
+    }
+
+    Span namespace(String namespace) {
+        this.namespace = namespace;
+        return this;
+    }
+
+    public boolean isRecording() {
+        return this != NOOP;
+    }
+
+    Trace trace() {
+        return trace;
+    }
+
+    Span parent() {
+        return parent;
+    }
+
+    String id() {
+        return id;
+    }
+
+    String name() {
+        return name;
+    }
+
+    long startNanos() {
+        return startNanos;
+    }
+
+    long endNanos() {
+        return endNanos;
+    }
+
+    boolean isOpen() {
+        return endNanos == 0;
+    }
+
+    List<Span> children() {
+        synchronized (children) {
+            return List.copyOf(children);
+        }
+    }
+
+    Map<String, Object> aws() {
+        return aws;
+    }
+
+    String namespace() {
+        return namespace;
+    }
+
+    Integer status() {
+        return status;
+    }
+
+    boolean isError() {
+        return error;
+    }
+
+    boolean isThrottle() {
+        return throttle;
+    }
+
+    boolean isFault() {
+        return fault;
+    }
+
+}
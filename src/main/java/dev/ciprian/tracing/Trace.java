@@ -0,0 +1,130 @@
+package dev.ciprian.tracing;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+public class Trace {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final String traceId;
+    private final String parentId;
+    private final long startEpochMillis;
+    private final Span root;
+    private String functionName;
+    private Span functionSpan;
+    private long lapNanos;
+
+    private Trace(String name, String traceId, String parentId) {
+        this.traceId = traceId;
+        this.parentId = parentId;
+        this.startEpochMillis = System.currentTimeMillis();
+        this.root = new Span(this, null, name, System.nanoTime());
+        this.functionSpan = root;
+        this.lapNanos = root.startNanos();
+    }
+
+    // joins the Lambda trace when the runtime sampled it, otherwise starts a trace of its own
+    static Trace start(String name, String traceHeader) {
+        String root = null;
+        String parent = null;
+        var sampled = false;
+
+        if (traceHeader != null) {
+            for (var part : traceHeader.split(";")) {
+                var separator = part.indexOf('=');
+
+                if (separator > 0) {
+                    var key = part.substring(0, separator).strip();
+                    var value = part.substring(separator + 1).strip();
+
+                    switch (key) {
+                        case "Root" -> root = value;
+                        case "Parent" -> parent = value;
+                        case "Sampled" -> sampled = "1".equals(value);
+                        default -> {
+                        }
+                    }
+                }
+            }
+        }
+
+        var trace = sampled && root != null && parent != null
+                ? new Trace(name, root, parent)
+                : new Trace(name, newTraceId(), null);
+
+        Span.enter(trace.root);
+        return trace;
+    }
+
+    static String newTraceId() {
+        var random = ThreadLocalRandom.current();
+        return String.format("1-%08x-%08x%016x", System.currentTimeMillis() / 1000, random.nextInt(), random.nextLong());
+    }
+
+    // a function invoked under the handler's span is preceded by the time routing took to reach it
+    Span enterFunction(String functionName, Span parent) {
+        var now = System.nanoTime();
+        this.functionName = functionName;
+
+        if (parent == root) {
+            root.child("routing", root.startNanos()).end(now);
+        }
+
+        functionSpan = parent.child(functionName, now);
+        lapNanos = now;
+        Span.enter(functionSpan);
+        return functionSpan;
+    }
+
+    // laps split the function span into consecutive phases, each taking the spans opened while it ran
+    void lap(String name) {
+        var now = System.nanoTime();
+        functionSpan.adopt(name, lapNanos, now);
+        lapNanos = now;
+    }
+
+    // the adapter serializes the response after the function span has closed
+    public void serialized() {
+        if (functionSpan != root && !functionSpan.isOpen()) {
+            root.child("serialization", functionSpan.endNanos()).end(System.nanoTime());
+        }
+    }
+
+    void finish() {
+        root.end(System.nanoTime());
+        Span.clear();
+    }
+
+    double epochSeconds(long nanos) {
+        return startEpochMillis / 1000.0 + (nanos - root.startNanos()) / NANOS_PER_SECOND;
+    }
+
+    long durationNanos() {
+        return root.endNanos() - root.startNanos();
+    }
+
+    public String traceId() {
+        return traceId;
+    }
+
+    String parentId() {
+        return parentId;
+    }
+
+    String functionName() {
+        return functionName;
+    }
+
+    void functionName(String functionName) {
+        this.functionName = functionName;
+    }
+
+    public Span root() {
+        return root;
+    }
+
+    Span functionSpan() {
+        return functionSpan;
+    }
+
+}
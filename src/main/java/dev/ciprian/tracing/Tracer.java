@@ -0,0 +1,204 @@
+package dev.ciprian.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.config.TracingConfig;
+import dev.ciprian.exceptions.CustomException;
+import dev.ciprian.models.response.GenericResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+import static org.springframework.util.StringUtils.hasLength;
+
+@Component
+public class Tracer {
+
+    public static final String TRACE_HEADER_PROPERTY = "com.amazonaws.xray.traceHeader";
+    public static final String TRACE_HEADER_VARIABLE = "_X_AMZN_TRACE_ID";
+
+    private static final String DAEMON_HEADER = "{\"format\":\"json\",\"version\":1}\n";
+    private static final long NANOS_PER_MILLI = 1_000_000;
+
+    private final Logger logger;
+    private final TracingConfig tracingConfig;
+    private final ObjectMapper objectMapper;
+
+    public Tracer(TracingConfig tracingConfig, ObjectMapper objectMapper) {
+        this.logger = Logger.getLogger(Tracer.class.getName());
+        this.tracingConfig = tracingConfig;
+        this.objectMapper = objectMapper;
+    }
+
+    public boolean isEnabled() {
+        return tracingConfig.isEnabled();
+    }
+
+    // functions are returned as they are when tracing is off, so the disabled path costs nothing
+    public <R> Function<byte[], R> wrap(String functionName, Function<byte[], R> function) {
+        if (!tracingConfig.isEnabled()) {
+            return function;
+        }
+
+        return request -> {
+            var parent = Span.current();
+            var trace = parent == null ? start() : parent.trace();
+            var span = parent == null ? trace.root() : trace.enterFunction(functionName, parent);
+
+            if (parent == null) {
+                trace.functionName(functionName);
+            }
+
+            try {
+                var response = function.apply(request);
+                span.status(response instanceof GenericResponse genericResponse ? genericResponse.getStatusCode() : HttpStatus.OK.value());
+                return response;
+            } catch (CustomException exception) {
+                span.status(exception.statusCode());
+                throw exception;
+            } catch (RuntimeException exception) {
+                span.fault();
+                throw exception;
+            } finally {
+                if (parent == null) {
+                    finish(trace);
+                } else {
+                    span.close();
+                }
+            }
+        };
+    }
+
+    public Trace start() {
+        var traceHeader = System.getProperty(TRACE_HEADER_PROPERTY, System.getenv(TRACE_HEADER_VARIABLE));
+        return Trace.start(tracingConfig.getServiceName(), traceHeader);
+    }
+
+    public void lap(String name) {
+        var span = Span.current();
+
+        if (span != null && span == span.trace().functionSpan()) {
+            span.trace().lap(name);
+        }
+    }
+
+    // spans are always recorded, but only slow or sampled traces pay for serialization and output
+    public void finish(Trace trace) {
+        trace.finish();
+
+        var slow = trace.durationNanos() >= tracingConfig.getSlowThresholdMillis() * NANOS_PER_MILLI;
+
+        if (slow || ThreadLocalRandom.current().nextDouble() < tracingConfig.getSampleRate()) {
+            emit(trace);
+        }
+    }
+
+    void emit(Trace trace) {
+        try {
+            var document = objectMapper.writeValueAsString(document(trace));
+
+            if (hasLength(tracingConfig.getDaemonAddress())) {
+                send(DAEMON_HEADER + document);
+            } else {
+                System.out.println(document);
+            }
+        } catch (IOException exception) {
+            logger.warning("Could not write trace: " + exception.getMessage());
+        }
+    }
+
+    // a segment of its own, or a subsegment of the function segment when Lambda sampled the request
+    Map<String, Object> document(Trace trace) {
+        var document = segment(trace, trace.root());
+        document.put("trace_id", trace.traceId());
+
+        if (trace.parentId() != null) {
+            document.put("type", "subsegment");
+            document.put("parent_id", trace.parentId());
+        }
+
+        if (trace.functionName() != null) {
+            document.put("annotations", Map.of("function", trace.functionName()));
+        }
+
+        return document;
+    }
+
+    private Map<String, Object> segment(Trace trace, Span span) {
+        var segment = new LinkedHashMap<String, Object>();
+        segment.put("name", span.name());
+        segment.put("id", span.id());
+        segment.put("start_time", trace.epochSeconds(span.startNanos()));
+
+        if (span.isOpen()) {
+            segment.put("in_progress", true);
+        } else {
+            segment.put("end_time", trace.epochSeconds(span.endNanos()));
+        }
+
+        if (span.namespace() != null) {
+            segment.put("namespace", span.namespace());
+        }
+
+        if (span.status() != null) {
+            segment.put("http", Map.of("response", Map.of("status", span.status())));
+        }
+
+        if (span.isError()) {
+            segment.put("error", true);
+        }
+
+        if (span.isThrottle()) {
+            segment.put("throttle", true);
+        }
+
+        if (span.isFault()) {
+            segment.put("fault", true);
+        }
+
+        if (!span.aws().isEmpty()) {
+            segment.put("aws", span.aws());
+        }
+
+        var children = span.children();
+
+        if (!children.isEmpty()) {
+            var subsegments = new ArrayList<Map<String, Object>>(children.size());
+
+            for (var child : children) {
+                subsegments.add(segment(trace, child));
+            }
+
+            segment.put("subsegments", subsegments);
+        }
+
+        return segment;
+    }
+
+    private void send(String document) throws IOException {
+        var address = tracingConfig.getDaemonAddress();
+        var separator = address.lastIndexOf(':');
+
+        if (separator < 0) {
+            throw new IOException("Invalid daemon address " + address);
+        }
+
+        var bytes = document.getBytes(StandardCharsets.UTF_8);
+
+        try (var socket = new DatagramSocket()) {
+            var target = new InetSocketAddress(address.substring(0, separator), Integer.parseInt(address.substring(separator + 1)));
+            socket.send(new DatagramPacket(bytes, bytes.length, target));
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package dev.ciprian.tracing;
+
+import software.amazon.awssdk.awscore.AwsResponse;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+
+// registered on every SDK client, it only records spans while a traced invocation is running
+public class TracingInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<Span> CALL = new ExecutionAttribute<>("TracingCall");
+    private static final ExecutionAttribute<Span> ATTEMPT = new ExecutionAttribute<>("TracingAttempt");
+
+    // runs on the calling thread for async clients too, which InvocationContext gives the invocation's span,
+    // later callbacks on SDK threads only read the attributes
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        var parent = Span.current();
+
+        if (parent == null) {
+            return;
+        }
+
+        var call = parent.child(executionAttributes.getAttribute(SdkExecutionAttribute.SERVICE_NAME), System.nanoTime())
+                .namespace("aws")
+                .aws("operation", executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME));
+        executionAttributes.putAttribute(CALL, call);
+    }
+
+    // each attempt, including the ones the retry policy makes, becomes its own subsegment
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+        var call = executionAttributes.getAttribute(CALL);
+
+        if (call == null) {
+            return;
+        }
+
+        var now = System.nanoTime();
+        endFailedAttempt(executionAttributes, now);
+        executionAttributes.putAttribute(ATTEMPT, call.child("Attempt " + (call.children().size() + 1), now));
+    }
+
+    @Override
+    public void afterTransmission(Context.AfterTransmission context, ExecutionAttributes executionAttributes) {
+        var attempt = executionAttributes.getAttribute(ATTEMPT);
+
+        if (attempt != null) {
+            attempt.status(context.httpResponse().statusCode());
+            attempt.end(System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        var call = executionAttributes.getAttribute(CALL);
+
+        if (call == null) {
+            return;
+        }
+
+        if (context.response() instanceof AwsResponse awsResponse) {
+            call.aws("request_id", awsResponse.responseMetadata().requestId());
+        }
+
+        call.status(context.httpResponse().statusCode());
+        end(call, System.nanoTime());
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        var call = executionAttributes.getAttribute(CALL);
+
+        if (call == null) {
+            return;
+        }
+
+        var now = System.nanoTime();
+        endFailedAttempt(executionAttributes, now);
+
+        if (context.exception() instanceof SdkServiceException exception) {
+            call.status(exception.statusCode());
+
+            if (exception.isThrottlingException()) {
+                call.throttle();
+            }
+        } else {
+            call.fault();
+        }
+
+        end(call, now);
+    }
+
+    // an attempt still open when the next one starts never got a response
+    private void endFailedAttempt(ExecutionAttributes executionAttributes, long now) {
+        var attempt = executionAttributes.getAttribute(ATTEMPT);
+
+        if (attempt != null && attempt.isOpen()) {
+            attempt.fault().end(now);
+        }
+    }
+
+    private void end(Span call, long now) {
+        call.aws("retries", Math.max(0, call.children().size() - 1));
+        call.end(now);
+    }
+
+}
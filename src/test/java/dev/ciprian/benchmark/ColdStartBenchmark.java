@@ -0,0 +1,230 @@
+package dev.ciprian.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.ciprian.config.StartupTiming;
+import dev.ciprian.stub.StubAwsServer;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// run through ./gradlew coldStartBenchmark, -PupdateBaseline stores the measured p50 values as the new baseline
+public class ColdStartBenchmark {
+
+    private static final long TIMEOUT_SECONDS = 120;
+    private static final double TOLERANCE = 0.2;
+    private static final int TOP_BEANS = 10;
+    private static final TypeReference<Map<String, Long>> BEAN_TIMINGS = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    public static void main(String[] args) throws Exception {
+        var runs = Integer.parseInt(args[0]);
+        var baseline = Path.of(args[1]);
+        var updateBaseline = Boolean.parseBoolean(args[2]);
+        var artifacts = List.of(args).subList(3, args.length);
+
+        var regressions = new ColdStartBenchmark().run(runs, baseline, updateBaseline, artifacts);
+
+        if (!regressions.isEmpty()) {
+            regressions.forEach(System.err::println);
+            System.exit(1);
+        }
+    }
+
+    private List<String> run(int runs, Path baselineFile, boolean updateBaseline, List<String> artifacts) throws Exception {
+        var baseline = Files.exists(baselineFile) ? (ObjectNode) objectMapper.readTree(baselineFile.toFile()) : objectMapper.createObjectNode();
+        var regressions = new ArrayList<String>();
+        var recorded = false;
+
+        try (var server = new StubAwsServer()) {
+            server.respond("DynamoDB_20120810.Query", "{\"Count\":0,\"Items\":[],\"ScannedCount\":0}");
+            server.respond("AWSCognitoIdentityProviderService.AdminInitiateAuth",
+                    "{\"AuthenticationResult\":{\"AccessToken\":\"access\",\"ExpiresIn\":3600,\"IdToken\":\"id\",\"RefreshToken\":\"refresh\",\"TokenType\":\"Bearer\"}}");
+
+            for (var artifact : artifacts) {
+                var name = Path.of(artifact).getFileName().toString();
+
+                // the first launch resolves thin jar dependencies and warms the page cache
+                launch(artifact, server);
+
+                var samples = new ArrayList<Sample>();
+
+                for (var i = 0; i < runs; i++) {
+                    samples.add(launch(artifact, server));
+                }
+
+                var summary = summarize(name, samples);
+                var expected = baseline.path(name).path("p50TotalMillis");
+
+                if (updateBaseline || expected.isMissingNode()) {
+                    // the first run on a machine records the baseline that later runs are held to
+                    if (!updateBaseline) {
+                        System.err.printf("%s has no baseline, recording p50 total %d ms as its baseline%n", name, summary.get("p50TotalMillis"));
+                    }
+
+                    baseline.set(name, objectMapper.createObjectNode()
+                            .put("p50ReadyMillis", summary.get("p50ReadyMillis"))
+                            .put("p50TotalMillis", summary.get("p50TotalMillis")));
+                    recorded = true;
+                } else if (summary.get("p50TotalMillis") > expected.asLong() * (1 + TOLERANCE)) {
+                    regressions.add("%s regressed: p50 total %d ms against a baseline of %d ms".formatted(name, summary.get("p50TotalMillis"), expected.asLong()));
+                }
+            }
+        }
+
+        // existing entries are only rewritten by an explicit update
+        if (recorded) {
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(baselineFile.toFile(), baseline);
+        }
+
+        return regressions;
+    }
+
+    private Sample launch(String artifact, StubAwsServer server) throws Exception {
+        var port = freePort();
+        var command = List.of(
+                ProcessHandle.current().info().command().orElse("java"),
+                "-D" + StartupTiming.PROPERTY + "=true",
+                "-jar", artifact,
+                "--server.port=" + port,
+                "--REGION=eu-central-1",
+                "--TABLE_NAME=posts",
+                "--USER_POOL_ID=eu-central-1_benchmark",
+                "--CLIENT_ID=benchmark",
+                "--dynamodb.client.endpoint-override=" + server.endpoint(),
+                "--cognito.client.endpoint-override=" + server.endpoint()
+        );
+
+        var processBuilder = new ProcessBuilder(command).redirectErrorStream(true);
+        processBuilder.environment().put("AWS_ACCESS_KEY_ID", "key");
+        processBuilder.environment().put("AWS_SECRET_ACCESS_KEY", "secret");
+
+        var start = System.nanoTime();
+        var process = processBuilder.start();
+        var ready = new CompletableFuture<JsonNode>();
+        var closed = new CompletableFuture<JsonNode>();
+        var readyAt = new long[1];
+
+        Thread.ofVirtual().start(() -> {
+            try (var reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith(StartupTiming.READY_PREFIX)) {
+                        readyAt[0] = System.nanoTime();
+                        ready.complete(objectMapper.readTree(line.substring(StartupTiming.READY_PREFIX.length())));
+                    } else if (line.startsWith(StartupTiming.CLOSED_PREFIX)) {
+                        closed.complete(objectMapper.readTree(line.substring(StartupTiming.CLOSED_PREFIX.length())));
+                    }
+                }
+
+                ready.completeExceptionally(new IllegalStateException(artifact + " exited before the context was ready"));
+                closed.completeExceptionally(new IllegalStateException(artifact + " exited without reporting bean timings"));
+            } catch (IOException exception) {
+                ready.completeExceptionally(exception);
+                closed.completeExceptionally(exception);
+            }
+        });
+
+        try {
+            var readyTiming = ready.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            var readyMillis = TimeUnit.NANOSECONDS.toMillis(readyAt[0] - start);
+
+            invoke(port, "getPosts", "get-posts.json");
+            var getPostsMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            invoke(port, "loginUser", "login-user.json");
+            var loginUserMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            process.destroy();
+            var closedTiming = closed.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            return new Sample(readyTiming.path("jvmUptimeMillis").asLong(), readyMillis, getPostsMillis, loginUserMillis,
+                    closedTiming.path("classesLoaded").asLong(), objectMapper.convertValue(closedTiming.path("beanInitMillis"), BEAN_TIMINGS));
+        } finally {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    private void invoke(int port, String functionName, String fixture) throws IOException, InterruptedException {
+        var body = new ClassPathResource("/requests/" + fixture).getInputStream().readAllBytes();
+        var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/functionRouter"))
+                .header("Content-Type", "application/json")
+                .header("x-function-name", functionName)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        var response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(functionName + " returned " + response.statusCode() + ": " + response.body());
+        }
+    }
+
+    private Map<String, Long> summarize(String name, List<Sample> samples) {
+        var summary = new HashMap<String, Long>();
+        summary.put("p50ReadyMillis", percentile(samples.stream().mapToLong(Sample::readyMillis).toArray(), 50));
+        summary.put("p50TotalMillis", percentile(samples.stream().mapToLong(Sample::loginUserMillis).toArray(), 50));
+
+        System.out.println();
+        System.out.println(name + " (" + samples.size() + " runs)");
+        print("JVM start -> context ready (in JVM)", samples.stream().mapToLong(Sample::jvmUptimeMillis).toArray());
+        print("launch -> context ready", samples.stream().mapToLong(Sample::readyMillis).toArray());
+        print("launch -> first getPosts", samples.stream().mapToLong(Sample::getPostsMillis).toArray());
+        print("launch -> first loginUser", samples.stream().mapToLong(Sample::loginUserMillis).toArray());
+        System.out.printf("  %-38s %d%n", "classes loaded", samples.getLast().classesLoaded());
+
+        var beanInit = new HashMap<String, Long>();
+        samples.forEach(sample -> sample.beanInitMillis().forEach((owner, millis) -> beanInit.merge(owner, millis, Long::sum)));
+        System.out.println("  bean init by configuration class, mean ms");
+        beanInit.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(TOP_BEANS)
+                .forEach(entry -> System.out.printf("    %6d  %s%n", entry.getValue() / samples.size(), entry.getKey()));
+
+        return summary;
+    }
+
+    private void print(String label, long[] values) {
+        System.out.printf("  %-38s p50 %6d  p90 %6d  p99 %6d  max %6d ms%n",
+                label, percentile(values, 50), percentile(values, 90), percentile(values, 99), percentile(values, 100));
+    }
+
+    private long percentile(long[] values, int percentile) {
+        var sorted = values.clone();
+        Arrays.sort(sorted);
+        var index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private int freePort() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private record Sample(long jvmUptimeMillis, long readyMillis, long getPostsMillis, long loginUserMillis,
+                          long classesLoaded, Map<String, Long> beanInitMillis) {
+    }
+
+}
@@ -0,0 +1,73 @@
+package dev.ciprian.benchmark;
+
+import dev.ciprian.config.HttpClientType;
+import dev.ciprian.config.SdkClientProperties;
+import dev.ciprian.config.SdkClients;
+import dev.ciprian.stub.StubAwsServer;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// run through ./gradlew httpClientBenchmark, every client type gets a fresh JVM so init times are cold
+public class HttpClientBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 500;
+    private static final int MEASURED_ITERATIONS = 2000;
+
+    public static void main(String[] args) throws Exception {
+        var type = HttpClientType.valueOf(args[0].toUpperCase().replace('-', '_'));
+
+        try (var server = new StubAwsServer()) {
+            server.respond("DynamoDB_20120810.Query", "{\"Count\":0,\"Items\":[],\"ScannedCount\":0}");
+
+            var properties = new SdkClientProperties();
+            properties.setType(type);
+            properties.setEndpointOverride(server.endpoint());
+
+            var request = QueryRequest.builder()
+                    .tableName("posts")
+                    .keyConditionExpression("UserId = :sub")
+                    .expressionAttributeValues(Map.of(":sub", AttributeValue.builder().s("benchmark").build()))
+                    .build();
+
+            var start = System.nanoTime();
+            var builder = DynamoDbClient.builder()
+                    .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("key", "secret")));
+
+            try (var client = SdkClients.build(builder, "eu-central-1", properties)) {
+                var built = System.nanoTime();
+                client.query(request);
+                var firstCall = System.nanoTime();
+
+                for (var i = 0; i < WARMUP_ITERATIONS; i++) {
+                    client.query(request);
+                }
+
+                var latencies = new long[MEASURED_ITERATIONS];
+
+                for (var i = 0; i < MEASURED_ITERATIONS; i++) {
+                    var callStart = System.nanoTime();
+                    client.query(request);
+                    latencies[i] = System.nanoTime() - callStart;
+                }
+
+                Arrays.sort(latencies);
+
+                System.out.printf("%-15s init %6.1f ms  first call %6.1f ms  p50 %6d us  p90 %6d us  p99 %6d us%n",
+                        args[0],
+                        (built - start) / 1e6,
+                        (firstCall - built) / 1e6,
+                        TimeUnit.NANOSECONDS.toMicros(latencies[MEASURED_ITERATIONS / 2]),
+                        TimeUnit.NANOSECONDS.toMicros(latencies[MEASURED_ITERATIONS * 9 / 10]),
+                        TimeUnit.NANOSECONDS.toMicros(latencies[MEASURED_ITERATIONS * 99 / 100]));
+            }
+        }
+    }
+
+}
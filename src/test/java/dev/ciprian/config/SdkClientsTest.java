@@ -0,0 +1,54 @@
+package dev.ciprian.config;
+
+import dev.ciprian.stub.StubAwsServer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SdkClientsTest {
+
+    @ParameterizedTest
+    @EnumSource(HttpClientType.class)
+    @DisplayName("Should call the endpoint with every HTTP client type")
+    void test_1(HttpClientType type) throws IOException {
+        try (var server = new StubAwsServer()) {
+            // given
+            server.respond("DynamoDB_20120810.Query", "{\"Count\":0,\"Items\":[]}");
+            var properties = new SdkClientProperties();
+            properties.setType(type);
+            properties.setMaxConnections(10);
+            properties.setConnectionTtlMillis(60000L);
+            properties.setTcpKeepAlive(true);
+            properties.setConnectionTimeoutMillis(1000L);
+            properties.setApiCallTimeoutMillis(5000L);
+            properties.setApiCallAttemptTimeoutMillis(1000L);
+            properties.setEndpointOverride(server.endpoint());
+            var builder = DynamoDbClient.builder()
+                    .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("key", "secret")));
+
+            try (var client = SdkClients.build(builder, "eu-central-1", properties)) {
+                // when
+                var response = client.query(QueryRequest.builder()
+                        .tableName("posts")
+                        .keyConditionExpression("UserId = :sub")
+                        .expressionAttributeValues(Map.of(":sub", AttributeValue.builder().s("sub").build()))
+                        .build());
+
+                // then
+                assertThat(response.count()).isZero();
+                assertThat(server.requestCount()).isEqualTo(1);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+package dev.ciprian.deadline;
+
+import dev.ciprian.config.SdkClientProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeadlineInterceptorTest {
+
+    @AfterEach
+    void tearDown() {
+        Deadline.clear();
+    }
+
+    @Test
+    @DisplayName("Requests outside a Lambda invocation keep the configured timeouts")
+    void test_1() {
+        // given
+        var request = QueryRequest.builder().tableName("posts").build();
+
+        // when
+        var modified = modify(properties(5000L, 1000L), request);
+
+        // then
+        assertThat(modified).isSameAs(request);
+    }
+
+    @Test
+    @DisplayName("The call timeout shrinks to the remaining invocation time minus the margin")
+    void test_2() {
+        // given
+        Deadline.start(1000);
+
+        // when
+        var modified = modify(properties(5000L, 1000L), QueryRequest.builder().tableName("posts").build());
+
+        // then
+        var overrideConfiguration = modified.overrideConfiguration().orElseThrow();
+        var callTimeout = overrideConfiguration.apiCallTimeout().orElseThrow().toMillis();
+        assertThat(callTimeout).isBetween(1L, 800L);
+        assertThat(overrideConfiguration.apiCallAttemptTimeout().orElseThrow().toMillis()).isEqualTo(callTimeout);
+    }
+
+    @Test
+    @DisplayName("A configured call timeout below the remaining time is kept")
+    void test_3() {
+        // given
+        Deadline.start(60_000);
+
+        // when
+        var modified = modify(properties(5000L, 1000L), QueryRequest.builder().tableName("posts").build());
+
+        // then
+        var overrideConfiguration = modified.overrideConfiguration().orElseThrow();
+        assertThat(overrideConfiguration.apiCallTimeout().orElseThrow().toMillis()).isEqualTo(5000);
+        assertThat(overrideConfiguration.apiCallAttemptTimeout().orElseThrow().toMillis()).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("An exhausted deadline still leaves a positive timeout so the call fails fast")
+    void test_4() {
+        // given
+        Deadline.start(50);
+
+        // when
+        var modified = modify(properties(null, null), QueryRequest.builder().tableName("posts").build());
+
+        // then
+        var overrideConfiguration = modified.overrideConfiguration().orElseThrow();
+        assertThat(overrideConfiguration.apiCallTimeout().orElseThrow().toMillis()).isEqualTo(1);
+        assertThat(overrideConfiguration.apiCallAttemptTimeout()).isEmpty();
+    }
+
+    private static AwsRequest modify(SdkClientProperties properties, QueryRequest request) {
+        Context.ModifyRequest context = () -> request;
+        return (AwsRequest) new DeadlineInterceptor(properties).modifyRequest(context, new ExecutionAttributes());
+    }
+
+    private static SdkClientProperties properties(Long apiCallTimeoutMillis, Long apiCallAttemptTimeoutMillis) {
+        var properties = new SdkClientProperties();
+        properties.setApiCallTimeoutMillis(apiCallTimeoutMillis);
+        properties.setApiCallAttemptTimeoutMillis(apiCallAttemptTimeoutMillis);
+        return properties;
+    }
+
+}
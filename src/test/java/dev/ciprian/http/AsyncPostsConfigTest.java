@@ -0,0 +1,165 @@
+package dev.ciprian.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.config.BodyCompressionConfig;
+import dev.ciprian.config.CacheConfig;
+import dev.ciprian.config.DynamoDbConfig;
+import dev.ciprian.config.JwtConfig;
+import dev.ciprian.config.MetricsConfig;
+import dev.ciprian.config.TracingConfig;
+import dev.ciprian.exceptions.CustomException;
+import dev.ciprian.metrics.MetricsRecorder;
+import dev.ciprian.models.response.GenericResponse;
+import dev.ciprian.models.response.PostsResponse;
+import dev.ciprian.service.AsyncPostsService;
+import dev.ciprian.service.BatchWriter;
+import dev.ciprian.service.HedgedReader;
+import dev.ciprian.service.PostMapper;
+import dev.ciprian.service.PostsCache;
+import dev.ciprian.service.PostsService;
+import dev.ciprian.service.TokenVerifier;
+import dev.ciprian.tracing.Tracer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.ClassPathResource;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static dev.ciprian.constants.PostConstants.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(
+        classes = {PostsConfig.class, DynamoDbConfig.class, ObjectMapper.class, PostsService.class, PostMapper.class, BodyCompressionConfig.class, BatchWriter.class, HedgedReader.class, PostsCache.class, CacheConfig.class, TokenVerifier.class, JwtConfig.class, MetricsRecorder.class, MetricsConfig.class, Tracer.class, TracingConfig.class, AsyncPostsService.class},
+        properties = "dynamodb.async=true"
+)
+class AsyncPostsConfigTest {
+
+    @MockBean
+    DynamoDbClient dynamoDbClient;
+
+    @MockBean
+    DynamoDbAsyncClient dynamoDbAsyncClient;
+
+    @Autowired
+    @Qualifier("getPosts")
+    Function<byte[], PostsResponse> getPosts;
+
+    @Autowired
+    @Qualifier("savePost")
+    Function<byte[], GenericResponse> savePost;
+
+    @Autowired
+    @Qualifier("deletePost")
+    Function<byte[], GenericResponse> deletePost;
+
+    @Test
+    @DisplayName("Should get posts from every page through the async client")
+    void test_1() throws IOException {
+        // given
+        var firstPage = QueryResponse.builder()
+                .items(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests are important").build(),
+                        POST_BODY, AttributeValue.builder().s("Lorem ipsum").build(),
+                        POST_TAGS, AttributeValue.builder().s("testing,junit").build()
+                ))
+                .lastEvaluatedKey(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests are important").build()
+                ))
+                .build();
+        var secondPage = QueryResponse.builder()
+                .items(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests are useful").build(),
+                        POST_BODY, AttributeValue.builder().s("Dolor sit amet").build(),
+                        POST_TAGS, AttributeValue.builder().s("").build()
+                ))
+                .build();
+        when(dynamoDbAsyncClient.query(any(QueryRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(firstPage), CompletableFuture.completedFuture(secondPage));
+        var request = new ClassPathResource("/requests/get-posts.json").getInputStream().readAllBytes();
+
+        // when
+        var response = getPosts.apply(request);
+
+        // then
+        verify(dynamoDbAsyncClient, times(2)).query(any(QueryRequest.class));
+        verifyNoInteractions(dynamoDbClient);
+        assertThat(response.getPosts().size()).isEqualTo(2);
+        assertThat(response.getNextToken()).isNull();
+    }
+
+    @Test
+    @DisplayName("Exception is thrown if the async call fails for the get posts function")
+    void test_2() throws IOException {
+        // given
+        var exception = SdkServiceException.builder().statusCode(500).message("Call failed").build();
+        when(dynamoDbAsyncClient.query(any(QueryRequest.class))).thenReturn(CompletableFuture.failedFuture(exception));
+        var request = new ClassPathResource("/requests/get-posts.json").getInputStream().readAllBytes();
+
+        // when
+        // then
+        assertThatThrownBy(() -> getPosts.apply(request)).isInstanceOf(CustomException.class);
+        assertThatThrownBy(() -> getPosts.apply(request)).hasMessage("500 Call failed");
+    }
+
+    @Test
+    @DisplayName("Should save new post through the async client")
+    void test_3() throws IOException {
+        // given
+        when(dynamoDbAsyncClient.transactWriteItems(any(TransactWriteItemsRequest.class))).thenReturn(CompletableFuture.completedFuture(TransactWriteItemsResponse.builder().build()));
+        var request = new ClassPathResource("/requests/save-post.json").getInputStream().readAllBytes();
+
+        // when
+        var response = savePost.apply(request);
+
+        // then
+        verifyNoInteractions(dynamoDbClient);
+        assertThat(response.getStatusCode()).isEqualTo(201);
+    }
+
+    @Test
+    @DisplayName("Should delete existing post through the async client")
+    void test_4() throws IOException {
+        // given
+        when(dynamoDbAsyncClient.deleteItem(any(DeleteItemRequest.class))).thenReturn(CompletableFuture.completedFuture(DeleteItemResponse.builder().build()));
+        when(dynamoDbAsyncClient.updateItem(any(UpdateItemRequest.class))).thenReturn(CompletableFuture.completedFuture(UpdateItemResponse.builder().build()));
+        var request = new ClassPathResource("/requests/delete-post.json").getInputStream().readAllBytes();
+
+        // when
+        var response = deletePost.apply(request);
+
+        // then
+        verifyNoInteractions(dynamoDbClient);
+        assertThat(response.getStatusCode()).isEqualTo(204);
+    }
+
+    @Test
+    @DisplayName("Exception is thrown if the async call fails for the delete post function")
+    void test_5() throws IOException {
+        // given
+        var exception = SdkServiceException.builder().statusCode(500).message("Call failed").build();
+        when(dynamoDbAsyncClient.deleteItem(any(DeleteItemRequest.class))).thenReturn(CompletableFuture.failedFuture(exception));
+        var request = new ClassPathResource("/requests/delete-post.json").getInputStream().readAllBytes();
+
+        // when
+        // then
+        assertThatThrownBy(() -> deletePost.apply(request)).isInstanceOf(CustomException.class);
+        assertThatThrownBy(() -> deletePost.apply(request)).hasMessage("500 Call failed");
+    }
+
+}
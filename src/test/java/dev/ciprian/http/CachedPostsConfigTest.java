@@ -0,0 +1,191 @@
+package dev.ciprian.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.config.BodyCompressionConfig;
+import dev.ciprian.config.CacheConfig;
+import dev.ciprian.config.DynamoDbConfig;
+import dev.ciprian.config.JwtConfig;
+import dev.ciprian.config.MetricsConfig;
+import dev.ciprian.config.TracingConfig;
+import dev.ciprian.metrics.MetricsRecorder;
+import dev.ciprian.models.domain.Post;
+import dev.ciprian.models.response.GenericResponse;
+import dev.ciprian.models.response.PostResponse;
+import dev.ciprian.models.response.PostsResponse;
+import dev.ciprian.service.BatchWriter;
+import dev.ciprian.service.HedgedReader;
+import dev.ciprian.service.PostMapper;
+import dev.ciprian.service.PostsCache;
+import dev.ciprian.service.PostsService;
+import dev.ciprian.service.TokenVerifier;
+import dev.ciprian.tracing.Tracer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.ClassPathResource;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static dev.ciprian.constants.PostConstants.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(
+        classes = {PostsConfig.class, DynamoDbConfig.class, ObjectMapper.class, PostsService.class, PostMapper.class, BodyCompressionConfig.class, BatchWriter.class, HedgedReader.class, PostsCache.class, CacheConfig.class, TokenVerifier.class, JwtConfig.class, MetricsRecorder.class, MetricsConfig.class, Tracer.class, TracingConfig.class},
+        properties = {"cache.enabled=true", "cache.max-entries=2"}
+)
+class CachedPostsConfigTest {
+
+    @MockBean
+    DynamoDbClient dynamoDbClient;
+
+    @Autowired
+    @Qualifier("getPosts")
+    Function<byte[], PostsResponse> getPosts;
+
+    @Autowired
+    @Qualifier("savePost")
+    Function<byte[], GenericResponse> savePost;
+
+    @Autowired
+    @Qualifier("getPost")
+    Function<byte[], PostResponse> getPost;
+
+    @Autowired
+    PostsCache postsCache;
+
+    @BeforeEach
+    void setUp() {
+        postsCache.invalidate("e654ebca-38e0-487a-b609-0284923be582");
+
+        var queryResponse = QueryResponse.builder()
+                .items(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests are important").build(),
+                        POST_BODY, AttributeValue.builder().s("Lorem ipsum").build(),
+                        POST_TAGS, AttributeValue.builder().s("testing,junit").build()
+                ))
+                .build();
+        when(dynamoDbClient.query(any(QueryRequest.class))).thenReturn(queryResponse);
+    }
+
+    @Test
+    @DisplayName("Repeated get posts calls are served from the cache")
+    void test_1() throws IOException {
+        // given
+        var request = new ClassPathResource("/requests/get-posts.json").getInputStream().readAllBytes();
+        var hits = postsCache.stats().hits();
+
+        // when
+        var first = getPosts.apply(request);
+        var second = getPosts.apply(request);
+
+        // then
+        verify(dynamoDbClient, times(1)).query(any(QueryRequest.class));
+        assertThat(second.getPosts()).isEqualTo(first.getPosts());
+        assertThat(postsCache.stats().hits()).isEqualTo(hits + 1);
+    }
+
+    @Test
+    @DisplayName("Saving a post invalidates the cached posts of the user")
+    void test_2() throws IOException {
+        // given
+        when(dynamoDbClient.transactWriteItems(any(TransactWriteItemsRequest.class))).thenReturn(TransactWriteItemsResponse.builder().build());
+        var getRequest = new ClassPathResource("/requests/get-posts.json").getInputStream().readAllBytes();
+        var saveRequest = new ClassPathResource("/requests/save-post.json").getInputStream().readAllBytes();
+
+        // when
+        getPosts.apply(getRequest);
+        savePost.apply(saveRequest);
+        getPosts.apply(getRequest);
+
+        // then
+        verify(dynamoDbClient, times(2)).query(any(QueryRequest.class));
+    }
+
+    @Test
+    @DisplayName("Paginated get posts calls bypass the cache")
+    void test_3() throws IOException {
+        // given
+        var request = new ClassPathResource("/requests/get-posts-page.json").getInputStream().readAllBytes();
+
+        // when
+        getPosts.apply(request);
+        getPosts.apply(request);
+
+        // then
+        verify(dynamoDbClient, times(2)).query(any(QueryRequest.class));
+    }
+
+    @Test
+    @DisplayName("Least recently used entries are evicted once the cache is full")
+    void test_4() {
+        // given
+        var posts = List.of(new Post("Title", "Body", List.of("tag")));
+        var evictions = postsCache.stats().evictions();
+
+        // when
+        postsCache.put("first", posts, postsCache.generation("first"));
+        postsCache.put("second", posts, postsCache.generation("second"));
+        postsCache.get("first");
+        postsCache.put("third", posts, postsCache.generation("third"));
+
+        // then
+        assertThat(postsCache.stats().evictions()).isEqualTo(evictions + 1);
+        assertThat(postsCache.get("first")).isNotNull();
+        assertThat(postsCache.get("second")).isNull();
+    }
+
+    @Test
+    @DisplayName("Eventually consistent single post reads are served from the cached posts")
+    void test_5() throws IOException {
+        // given
+        var getPostsRequest = new ClassPathResource("/requests/get-posts.json").getInputStream().readAllBytes();
+        var getPostRequest = new ClassPathResource("/requests/get-post.json").getInputStream().readAllBytes();
+        var consistentRequest = new ClassPathResource("/requests/get-post-consistent.json").getInputStream().readAllBytes();
+        var item = Map.of(
+                POST_TITLE, AttributeValue.builder().s("Remember to test").build(),
+                POST_BODY, AttributeValue.builder().s("Lorem ipsum").build(),
+                POST_TAGS, AttributeValue.builder().l(AttributeValue.builder().s("junit").build()).build()
+        );
+        when(dynamoDbClient.query(any(QueryRequest.class))).thenReturn(QueryResponse.builder().items(item).build());
+        when(dynamoDbClient.getItem(any(GetItemRequest.class))).thenReturn(GetItemResponse.builder().item(item).build());
+
+        // when
+        getPosts.apply(getPostsRequest);
+        var cached = getPost.apply(getPostRequest);
+        getPost.apply(consistentRequest);
+
+        // then
+        verify(dynamoDbClient, times(1)).getItem(any(GetItemRequest.class));
+        assertThat(cached.getPost().postBody()).isEqualTo("Lorem ipsum");
+    }
+
+    @Test
+    @DisplayName("A write only drops the in-flight fills of the user it wrote for")
+    void test_6() {
+        // given
+        var posts = List.of(new Post("Title", "Body", List.of("tag")));
+        var firstGeneration = postsCache.generation("first");
+        var secondGeneration = postsCache.generation("second");
+
+        // when
+        postsCache.invalidate("second");
+        postsCache.put("first", posts, firstGeneration);
+        postsCache.put("second", posts, secondGeneration);
+
+        // then
+        assertThat(postsCache.get("first")).isNotNull();
+        assertThat(postsCache.get("second")).isNull();
+    }
+
+}
@@ -0,0 +1,66 @@
+package dev.ciprian.http;
+
+import dev.ciprian.Application;
+import dev.ciprian.stub.StubClientsConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.function.context.FunctionCatalog;
+import org.springframework.cloud.function.context.config.RoutingFunction;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.io.IOException;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("aot")
+@SpringBootTest(
+        classes = {Application.class, StubClientsConfig.class},
+        properties = {"REGION=eu-central-1", "USER_POOL_ID=eu-central-1_test", "CLIENT_ID=client", "TABLE_NAME=posts", "functions.groups=posts"}
+)
+class FunctionGroupsTest {
+
+    @Autowired
+    ConfigurableApplicationContext context;
+
+    @Autowired
+    FunctionCatalog functionCatalog;
+
+    @Test
+    @DisplayName("Users beans are not defined when only the posts group is deployed")
+    void test_1() {
+        // then
+        assertThat(context.containsBeanDefinition("usersConfig")).isFalse();
+        assertThat(context.containsBeanDefinition("cognitoConfig")).isFalse();
+        assertThat(context.containsBeanDefinition("cognitoIdentityProviderClient")).isFalse();
+        assertThat(context.containsBeanDefinition("loginService")).isFalse();
+        assertThat(context.containsBeanDefinition("registerService")).isFalse();
+        assertThat(context.containsBeanDefinition("postsConfig")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Posts beans are created on first use")
+    void test_2() throws IOException {
+        // given
+        var beanFactory = context.getBeanFactory();
+        var request = new ClassPathResource("/requests/get-posts.json").getInputStream().readAllBytes();
+        Function<Message<byte[]>, Object> router = functionCatalog.lookup(RoutingFunction.FUNCTION_NAME);
+        assertThat(beanFactory.getBeanDefinition("dynamoDbClient").isLazyInit()).isTrue();
+        assertThat(beanFactory.containsSingleton("postsService")).isFalse();
+        assertThat(beanFactory.containsSingleton("inMemoryDynamoDbClient")).isFalse();
+
+        // when
+        router.apply(MessageBuilder.withPayload(request).setHeader("x-function-name", "getPosts").build());
+
+        // then
+        assertThat(beanFactory.containsSingleton("postsService")).isTrue();
+        assertThat(beanFactory.containsSingleton("inMemoryDynamoDbClient")).isTrue();
+    }
+
+}
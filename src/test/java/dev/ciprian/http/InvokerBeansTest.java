@@ -0,0 +1,38 @@
+package dev.ciprian.http;
+
+import dev.ciprian.Application;
+import dev.ciprian.config.ResponseCompressionConfig;
+import dev.ciprian.stub.StubClientsConfig;
+import dev.ciprian.tracing.Tracer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("aot")
+@SpringBootTest(
+        classes = {Application.class, StubClientsConfig.class},
+        properties = {"REGION=eu-central-1", "USER_POOL_ID=eu-central-1_test", "CLIENT_ID=client", "TABLE_NAME=posts", "response-compression.threshold-bytes=2048"}
+)
+class InvokerBeansTest {
+
+    @Autowired
+    ConfigurableApplicationContext context;
+
+    @Test
+    @DisplayName("The handler gets the context's tracer and a compressor bound to the application properties")
+    void test_1() {
+        // when
+        var invokerBeans = InvokerBeans.current();
+
+        // then
+        assertThat(invokerBeans.tracer()).isSameAs(context.getBean(Tracer.class));
+        assertThat(invokerBeans.responseCompressor()).isSameAs(context.getBean(ResponseCompressor.class));
+        assertThat(context.getBean(ResponseCompressionConfig.class).getThresholdBytes()).isEqualTo(2048);
+    }
+
+}
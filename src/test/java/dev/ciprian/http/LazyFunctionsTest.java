@@ -0,0 +1,73 @@
+package dev.ciprian.http;
+
+import dev.ciprian.Application;
+import dev.ciprian.stub.StubClientsConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.function.context.FunctionCatalog;
+import org.springframework.cloud.function.context.config.RoutingFunction;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.IOException;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("aot")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+@SpringBootTest(
+        classes = {Application.class, StubClientsConfig.class},
+        properties = {"REGION=eu-central-1", "USER_POOL_ID=eu-central-1_test", "CLIENT_ID=client", "TABLE_NAME=posts"}
+)
+class LazyFunctionsTest {
+
+    @Autowired
+    ConfigurableApplicationContext context;
+
+    @Autowired
+    FunctionCatalog functionCatalog;
+
+    @Test
+    @DisplayName("Serving a posts request builds no users beans until a users function is routed")
+    void test_1() throws IOException {
+        // given
+        var beanFactory = context.getBeanFactory();
+        assertThat(beanFactory.getBeanDefinition("dynamoDbClient").isLazyInit()).isTrue();
+        assertThat(beanFactory.getBeanDefinition("cognitoIdentityProviderClient").isLazyInit()).isTrue();
+        assertThat(beanFactory.containsSingleton("inMemoryDynamoDbClient")).isFalse();
+        assertThat(beanFactory.containsSingleton("stubCognitoClient")).isFalse();
+
+        // when
+        route("getPosts", "get-posts.json");
+
+        // then
+        assertThat(beanFactory.containsSingleton("postsService")).isTrue();
+        assertThat(beanFactory.containsSingleton("inMemoryDynamoDbClient")).isTrue();
+        assertThat(beanFactory.containsSingleton("usersConfig")).isFalse();
+        assertThat(beanFactory.containsSingleton("loginService")).isFalse();
+        assertThat(beanFactory.containsSingleton("registerService")).isFalse();
+        assertThat(beanFactory.containsSingleton("stubCognitoClient")).isFalse();
+
+        // when
+        route("loginUser", "login-user.json");
+
+        // then
+        assertThat(beanFactory.containsSingleton("usersConfig")).isTrue();
+        assertThat(beanFactory.containsSingleton("loginService")).isTrue();
+        assertThat(beanFactory.containsSingleton("stubCognitoClient")).isTrue();
+    }
+
+    private void route(String functionName, String fixture) throws IOException {
+        Function<Message<byte[]>, Object> router = functionCatalog.lookup(RoutingFunction.FUNCTION_NAME);
+        var payload = new ClassPathResource("/requests/" + fixture).getInputStream().readAllBytes();
+        router.apply(MessageBuilder.withPayload(payload).setHeader("x-function-name", functionName).build());
+    }
+
+}
@@ -1,33 +1,53 @@
 package dev.ciprian.http;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.config.BodyCompressionConfig;
+import dev.ciprian.config.CacheConfig;
 import dev.ciprian.config.DynamoDbConfig;
+import dev.ciprian.config.JwtConfig;
+import dev.ciprian.config.MetricsConfig;
+import dev.ciprian.config.TracingConfig;
 import dev.ciprian.exceptions.CustomException;
+import dev.ciprian.metrics.MetricsRecorder;
+import dev.ciprian.models.response.BatchResponse;
 import dev.ciprian.models.response.GenericResponse;
+import dev.ciprian.models.response.PostResponse;
 import dev.ciprian.models.response.PostsResponse;
+import dev.ciprian.models.response.ProgressResponse;
+import dev.ciprian.service.BatchWriter;
+import dev.ciprian.service.HedgedReader;
+import dev.ciprian.service.PageTokens;
+import dev.ciprian.service.PostMapper;
+import dev.ciprian.service.PostsCache;
 import dev.ciprian.service.PostsService;
+import dev.ciprian.service.TokenVerifier;
+import dev.ciprian.tracing.Tracer;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.core.io.ClassPathResource;
+import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.core.exception.SdkServiceException;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import static dev.ciprian.constants.PostConstants.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
-import static org.mockito.Mockito.any;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
-@SpringBootTest(classes = {PostsConfig.class, DynamoDbConfig.class, ObjectMapper.class, PostsService.class})
+@SpringBootTest(classes = {PostsConfig.class, DynamoDbConfig.class, ObjectMapper.class, PostsService.class, PostMapper.class, BodyCompressionConfig.class, BatchWriter.class, HedgedReader.class, PostsCache.class, CacheConfig.class, TokenVerifier.class, JwtConfig.class, MetricsRecorder.class, MetricsConfig.class, Tracer.class, TracingConfig.class, PostsStreamer.class})
 @SuppressWarnings({"unchecked"})
 class PostsConfigTest {
 
@@ -35,15 +55,41 @@ class PostsConfigTest {
     DynamoDbClient dynamoDbClient;
 
     @Autowired
-    Function<String, PostsResponse> getPosts;
+    @Qualifier("getPosts")
+    Function<byte[], PostsResponse> getPosts;
+
+    @Autowired
+    @Qualifier("getPost")
+    Function<byte[], PostResponse> getPost;
+
+    @Autowired
+    @Qualifier("getPostsByTag")
+    Function<byte[], PostsResponse> getPostsByTag;
 
     @Autowired
     @Qualifier("savePost")
-    Function<String, GenericResponse> savePost;
+    Function<byte[], GenericResponse> savePost;
 
     @Autowired
     @Qualifier("deletePost")
-    Function<String, GenericResponse> deletePost;
+    Function<byte[], GenericResponse> deletePost;
+
+    @Autowired
+    @Qualifier("savePosts")
+    Function<byte[], BatchResponse> savePosts;
+
+    @Autowired
+    @Qualifier("deleteAllPosts")
+    Function<byte[], ProgressResponse> deleteAllPosts;
+
+    @Autowired
+    PostsStreamer postsStreamer;
+
+    @Autowired
+    DynamoDbConfig dynamoDbConfig;
+
+    @Autowired
+    ObjectMapper objectMapper;
 
     @Test
     @DisplayName("Context loads fine")
@@ -63,8 +109,7 @@ class PostsConfigTest {
                 ))
                 .build();
         when(dynamoDbClient.query(any(QueryRequest.class))).thenReturn(queryResponse);
-        var fileContent = new ClassPathResource("/requests/get-posts.json").getInputStream().readAllBytes();
-        var request = new String(fileContent);
+        var request = new ClassPathResource("/requests/get-posts.json").getInputStream().readAllBytes();
 
         // when
         var response = getPosts.apply(request);
@@ -83,8 +128,7 @@ class PostsConfigTest {
     @DisplayName("Exception is thrown if sub is missing for the get posts function")
     void test_2() throws IOException {
         // given
-        var fileContent = new ClassPathResource("/requests/get-posts-no-sub.json").getInputStream().readAllBytes();
-        var request = new String(fileContent);
+        var request = new ClassPathResource("/requests/get-posts-no-sub.json").getInputStream().readAllBytes();
 
         // when
         // then
@@ -98,8 +142,7 @@ class PostsConfigTest {
         // given
         var exception = SdkServiceException.builder().statusCode(500).message("Call failed").build();
         when(dynamoDbClient.query(any(QueryRequest.class))).thenThrow(exception);
-        var fileContent = new ClassPathResource("/requests/get-posts.json").getInputStream().readAllBytes();
-        var request = new String(fileContent);
+        var request = new ClassPathResource("/requests/get-posts.json").getInputStream().readAllBytes();
 
         // when
         // then
@@ -111,9 +154,8 @@ class PostsConfigTest {
     @DisplayName("Should save new post")
     void test_4() throws IOException {
         // given
-        when(dynamoDbClient.putItem(any(PutItemRequest.class))).thenReturn(PutItemResponse.builder().build());
-        var fileContent = new ClassPathResource("/requests/save-post.json").getInputStream().readAllBytes();
-        var request = new String(fileContent);
+        when(dynamoDbClient.transactWriteItems(any(TransactWriteItemsRequest.class))).thenReturn(TransactWriteItemsResponse.builder().build());
+        var request = new ClassPathResource("/requests/save-post.json").getInputStream().readAllBytes();
 
         // when
         var response = savePost.apply(request);
@@ -128,8 +170,7 @@ class PostsConfigTest {
     @DisplayName("Exception is thrown if sub is missing for the save post function")
     void test_5() throws IOException {
         // given
-        var fileContent = new ClassPathResource("/requests/save-post-no-sub.json").getInputStream().readAllBytes();
-        var request = new String(fileContent);
+        var request = new ClassPathResource("/requests/save-post-no-sub.json").getInputStream().readAllBytes();
 
         // when
         // then
@@ -141,8 +182,7 @@ class PostsConfigTest {
     @DisplayName("Exception is thrown if body is empty for the save post function")
     void test_6() throws IOException {
         // given
-        var fileContent = new ClassPathResource("/requests/save-post-empty-body.json").getInputStream().readAllBytes();
-        var request = new String(fileContent);
+        var request = new ClassPathResource("/requests/save-post-empty-body.json").getInputStream().readAllBytes();
 
         // when
         // then
@@ -154,8 +194,7 @@ class PostsConfigTest {
     @DisplayName("Exception is thrown if post title is empty for the save post function")
     void test_7() throws IOException {
         // given
-        var fileContent = new ClassPathResource("/requests/save-post-no-title.json").getInputStream().readAllBytes();
-        var request = new String(fileContent);
+        var request = new ClassPathResource("/requests/save-post-no-title.json").getInputStream().readAllBytes();
 
         // when
         // then
@@ -168,9 +207,8 @@ class PostsConfigTest {
     void test_8() throws IOException {
         // given
         var exception = SdkServiceException.builder().statusCode(500).message("Call failed").build();
-        when(dynamoDbClient.putItem(any(PutItemRequest.class))).thenThrow(exception);
-        var fileContent = new ClassPathResource("/requests/save-post.json").getInputStream().readAllBytes();
-        var request = new String(fileContent);
+        when(dynamoDbClient.transactWriteItems(any(TransactWriteItemsRequest.class))).thenThrow(exception);
+        var request = new ClassPathResource("/requests/save-post.json").getInputStream().readAllBytes();
 
         // when
         // then
@@ -183,8 +221,7 @@ class PostsConfigTest {
     void test_9() throws IOException {
         // given
         when(dynamoDbClient.deleteItem(any(DeleteItemRequest.class))).thenReturn(DeleteItemResponse.builder().build());
-        var fileContent = new ClassPathResource("/requests/delete-post.json").getInputStream().readAllBytes();
-        var request = new String(fileContent);
+        var request = new ClassPathResource("/requests/delete-post.json").getInputStream().readAllBytes();
 
         // when
         var response = deletePost.apply(request);
@@ -199,8 +236,7 @@ class PostsConfigTest {
     @DisplayName("Exception is thrown if sub is missing for the delete post function")
     void test_10() throws IOException {
         // given
-        var fileContent = new ClassPathResource("/requests/delete-post-no-sub.json").getInputStream().readAllBytes();
-        var request = new String(fileContent);
+        var request = new ClassPathResource("/requests/delete-post-no-sub.json").getInputStream().readAllBytes();
 
         // when
         // then
@@ -212,8 +248,7 @@ class PostsConfigTest {
     @DisplayName("Exception is thrown if body is empty for the delete post function")
     void test_11() throws IOException {
         // given
-        var fileContent = new ClassPathResource("/requests/delete-post-empty-body.json").getInputStream().readAllBytes();
-        var request = new String(fileContent);
+        var request = new ClassPathResource("/requests/delete-post-empty-body.json").getInputStream().readAllBytes();
 
         // when
         // then
@@ -227,8 +262,7 @@ class PostsConfigTest {
         // given
         var exception = SdkServiceException.builder().statusCode(500).message("Call failed").build();
         when(dynamoDbClient.deleteItem(any(DeleteItemRequest.class))).thenThrow(exception);
-        var fileContent = new ClassPathResource("/requests/delete-post.json").getInputStream().readAllBytes();
-        var request = new String(fileContent);
+        var request = new ClassPathResource("/requests/delete-post.json").getInputStream().readAllBytes();
 
         // when
         // then
@@ -236,4 +270,651 @@ class PostsConfigTest {
         assertThatThrownBy(() -> deletePost.apply(request)).hasMessage("500 Call failed");
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Should return a single page and a next token if the page size is set")
+    void test_13() throws IOException {
+        // given
+        var queryResponse = QueryResponse.builder()
+                .items(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests are important").build(),
+                        POST_BODY, AttributeValue.builder().s("Lorem ipsum").build(),
+                        POST_TAGS, AttributeValue.builder().s("testing,junit").build()
+                ))
+                .lastEvaluatedKey(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests are important").build()
+                ))
+                .build();
+        when(dynamoDbClient.query(any(QueryRequest.class))).thenReturn(queryResponse);
+        var request = new ClassPathResource("/requests/get-posts-page.json").getInputStream().readAllBytes();
+
+        // when
+        var response = getPosts.apply(request);
+
+        // then
+        var captor = ArgumentCaptor.forClass(QueryRequest.class);
+        verify(dynamoDbClient, times(1)).query(captor.capture());
+        assertThat(captor.getValue().limit()).isEqualTo(1);
+        assertThat(response.getPosts().size()).isEqualTo(1);
+        assertThat(response.getNextToken()).isNotBlank();
+        assertThat(PageTokens.decode(response.getNextToken(), "e654ebca-38e0-487a-b609-0284923be582")).isEqualTo(queryResponse.lastEvaluatedKey());
+    }
+
+    @Test
+    @DisplayName("Should drain every page if the page size is not set")
+    void test_14() throws IOException {
+        // given
+        var firstPage = QueryResponse.builder()
+                .items(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests are important").build(),
+                        POST_BODY, AttributeValue.builder().s("Lorem ipsum").build(),
+                        POST_TAGS, AttributeValue.builder().s("testing,junit").build()
+                ))
+                .lastEvaluatedKey(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests are important").build()
+                ))
+                .build();
+        var secondPage = QueryResponse.builder()
+                .items(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests are useful").build(),
+                        POST_BODY, AttributeValue.builder().s("Dolor sit amet").build(),
+                        POST_TAGS, AttributeValue.builder().s("").build()
+                ))
+                .build();
+        when(dynamoDbClient.query(any(QueryRequest.class))).thenReturn(firstPage, secondPage);
+        var request = new ClassPathResource("/requests/get-posts.json").getInputStream().readAllBytes();
+
+        // when
+        var response = getPosts.apply(request);
+
+        // then
+        verify(dynamoDbClient, times(2)).query(any(QueryRequest.class));
+        assertThat(response.getPosts().size()).isEqualTo(2);
+        assertThat(response.getPosts().get(1).postTitle()).isEqualTo("Tests are useful");
+        assertThat(response.getNextToken()).isNull();
+    }
+
+    @Test
+    @DisplayName("Exception is thrown if the page size is invalid for the get posts function")
+    void test_15() throws IOException {
+        // given
+        var request = new ClassPathResource("/requests/get-posts-invalid-page-size.json").getInputStream().readAllBytes();
+
+        // when
+        // then
+        assertThatThrownBy(() -> getPosts.apply(request)).isInstanceOf(CustomException.class);
+        assertThatThrownBy(() -> getPosts.apply(request)).hasMessage("400 Invalid page size");
+    }
+
+    @Test
+    @DisplayName("Exception is thrown if the next token is invalid for the get posts function")
+    void test_16() throws IOException {
+        // given
+        var request = new ClassPathResource("/requests/get-posts-invalid-token.json").getInputStream().readAllBytes();
+
+        // when
+        // then
+        assertThatThrownBy(() -> getPosts.apply(request)).isInstanceOf(CustomException.class);
+        assertThatThrownBy(() -> getPosts.apply(request)).hasMessage("400 Invalid next token");
+    }
+
+    @Test
+    @DisplayName("Should stream posts from every page")
+    void test_17() throws IOException {
+        // given
+        var firstPage = QueryResponse.builder()
+                .items(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests are important").build(),
+                        POST_BODY, AttributeValue.builder().s("Lorem ipsum").build(),
+                        POST_TAGS, AttributeValue.builder().s("testing,junit").build()
+                ))
+                .lastEvaluatedKey(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests are important").build()
+                ))
+                .build();
+        var secondPage = QueryResponse.builder()
+                .items(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests are useful").build(),
+                        POST_BODY, AttributeValue.builder().s("Dolor sit amet").build(),
+                        POST_TAGS, AttributeValue.builder().s("").build()
+                ))
+                .build();
+        when(dynamoDbClient.query(any(QueryRequest.class))).thenReturn(firstPage, secondPage);
+        var request = new ClassPathResource("/requests/get-posts.json").getInputStream();
+        var output = new ByteArrayOutputStream();
+
+        // when
+        postsStreamer.stream(request, output);
+
+        // then
+        var response = objectMapper.readTree(output.toByteArray());
+        assertThat(response.get("statusCode").asInt()).isEqualTo(200);
+        assertThat(response.get("posts").size()).isEqualTo(2);
+        assertThat(response.get("posts").get(0).get("postTitle").asText()).isEqualTo("Tests are important");
+        assertThat(response.get("posts").get(1).get("postTitle").asText()).isEqualTo("Tests are useful");
+        assertThat(response.has("errorMessage")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Streamed response reports an error if a later page fails")
+    void test_18() throws IOException {
+        // given
+        var firstPage = QueryResponse.builder()
+                .items(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests are important").build(),
+                        POST_BODY, AttributeValue.builder().s("Lorem ipsum").build(),
+                        POST_TAGS, AttributeValue.builder().s("testing,junit").build()
+                ))
+                .lastEvaluatedKey(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests are important").build()
+                ))
+                .build();
+        var exception = SdkServiceException.builder().statusCode(500).message("Call failed").build();
+        when(dynamoDbClient.query(any(QueryRequest.class))).thenReturn(firstPage).thenThrow(exception);
+        var request = new ClassPathResource("/requests/get-posts.json").getInputStream();
+        var output = new ByteArrayOutputStream();
+
+        // when
+        postsStreamer.stream(request, output);
+
+        // then
+        var response = objectMapper.readTree(output.toByteArray());
+        assertThat(response.get("statusCode").asInt()).isEqualTo(500);
+        assertThat(response.get("errorMessage").asText()).isEqualTo("Call failed");
+        assertThat(response.get("posts").size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Exception is thrown if the first page fails for the streamed posts")
+    void test_19() {
+        // given
+        var exception = SdkServiceException.builder().statusCode(500).message("Call failed").build();
+        when(dynamoDbClient.query(any(QueryRequest.class))).thenThrow(exception);
+        var output = new ByteArrayOutputStream();
+
+        // when
+        // then
+        assertThatThrownBy(() -> postsStreamer.stream(new ClassPathResource("/requests/get-posts.json").getInputStream(), output)).hasMessage("500 Call failed");
+        assertThat(output.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should save a batch of posts and report invalid ones")
+    void test_20() throws IOException {
+        // given
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class))).thenReturn(BatchWriteItemResponse.builder().build());
+        var request = new ClassPathResource("/requests/save-posts.json").getInputStream().readAllBytes();
+
+        // when
+        var response = savePosts.apply(request);
+
+        // then
+        verify(dynamoDbClient, times(1)).batchWriteItem(any(BatchWriteItemRequest.class));
+        assertThat(response.getStatusCode()).isEqualTo(207);
+        assertThat(response.getItems().size()).isEqualTo(3);
+        assertThat(response.getItems().get(0).statusCode()).isEqualTo(201);
+        assertThat(response.getItems().get(1).statusCode()).isEqualTo(201);
+        assertThat(response.getItems().get(2).statusCode()).isEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("Should retry unprocessed items and split large batches into chunks")
+    void test_21() throws IOException {
+        // given
+        var posts = IntStream.range(0, 30)
+                .mapToObj(i -> Map.of("postTitle", "Post " + i, "postBody", "Body " + i))
+                .toList();
+        var request = objectMapper.writeValueAsString(Map.of(
+                "headers", Map.of("x-user-id", "e654ebca-38e0-487a-b609-0284923be582"),
+                "body", posts
+        ));
+        var unprocessed = WriteRequest.builder()
+                .putRequest(PutRequest.builder().item(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582").build(),
+                        POST_TITLE, AttributeValue.builder().s("Post 0").build()
+                )).build())
+                .build();
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenAnswer(invocation -> {
+                    BatchWriteItemRequest batchWriteItemRequest = invocation.getArgument(0);
+                    var tableName = batchWriteItemRequest.requestItems().keySet().iterator().next();
+                    return BatchWriteItemResponse.builder().unprocessedItems(Map.of(tableName, List.of(unprocessed))).build();
+                })
+                .thenReturn(BatchWriteItemResponse.builder().build());
+
+        // when
+        var response = savePosts.apply(request);
+
+        // then
+        verify(dynamoDbClient, times(3)).batchWriteItem(any(BatchWriteItemRequest.class));
+        assertThat(response.getStatusCode()).isEqualTo(201);
+        assertThat(response.getItems().size()).isEqualTo(30);
+    }
+
+    @Test
+    @DisplayName("Exception is thrown if body is empty for the save posts function")
+    void test_22() throws IOException {
+        // given
+        var request = new ClassPathResource("/requests/save-posts-empty-body.json").getInputStream().readAllBytes();
+
+        // when
+        // then
+        assertThatThrownBy(() -> savePosts.apply(request)).isInstanceOf(CustomException.class);
+        assertThatThrownBy(() -> savePosts.apply(request)).hasMessage("400 Invalid data");
+    }
+
+    @Test
+    @DisplayName("Failed chunks are reported per item for the save posts function")
+    void test_23() throws IOException {
+        // given
+        var exception = SdkServiceException.builder().statusCode(500).message("Call failed").build();
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class))).thenThrow(exception);
+        var request = new ClassPathResource("/requests/save-posts.json").getInputStream().readAllBytes();
+
+        // when
+        var response = savePosts.apply(request);
+
+        // then
+        assertThat(response.getStatusCode()).isEqualTo(207);
+        assertThat(response.getItems().get(0).statusCode()).isEqualTo(500);
+        assertThat(response.getItems().get(0).errorMessage()).isEqualTo("Call failed");
+    }
+
+    @Test
+    @DisplayName("Should delete every post with keys-only queries and batch deletes")
+    void test_24() throws IOException {
+        // given
+        var firstPage = QueryResponse.builder()
+                .items(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests are important").build()
+                ))
+                .lastEvaluatedKey(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests are important").build()
+                ))
+                .build();
+        var secondPage = QueryResponse.builder()
+                .items(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests are useful").build()
+                ))
+                .build();
+        when(dynamoDbClient.query(any(QueryRequest.class))).thenReturn(firstPage, secondPage);
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class))).thenReturn(BatchWriteItemResponse.builder().build());
+        var request = new ClassPathResource("/requests/delete-all-posts.json").getInputStream().readAllBytes();
+
+        // when
+        var response = deleteAllPosts.apply(request);
+
+        // then
+        var captor = ArgumentCaptor.forClass(QueryRequest.class);
+        verify(dynamoDbClient, times(2)).query(captor.capture());
+        verify(dynamoDbClient, times(2)).batchWriteItem(any(BatchWriteItemRequest.class));
+        assertThat(captor.getValue().projectionExpression()).isEqualTo("UserId, PostTitle, PostTags");
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThat(response.getProcessedCount()).isEqualTo(2);
+        assertThat(response.isComplete()).isTrue();
+        assertThat(response.getNextToken()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should stop with a resumable token once the time budget is spent")
+    void test_25() throws IOException {
+        // given
+        var firstPage = QueryResponse.builder()
+                .items(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests are important").build()
+                ))
+                .lastEvaluatedKey(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests are important").build()
+                ))
+                .build();
+        when(dynamoDbClient.query(any(QueryRequest.class))).thenReturn(firstPage);
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class))).thenReturn(BatchWriteItemResponse.builder().build());
+        var request = new ClassPathResource("/requests/delete-all-posts.json").getInputStream().readAllBytes();
+        var budget = dynamoDbConfig.getDeleteAllBudgetMillis();
+        dynamoDbConfig.setDeleteAllBudgetMillis(0);
+
+        try {
+            // when
+            var response = deleteAllPosts.apply(request);
+
+            // then
+            verify(dynamoDbClient, times(1)).query(any(QueryRequest.class));
+            assertThat(response.getStatusCode()).isEqualTo(206);
+            assertThat(response.getProcessedCount()).isEqualTo(1);
+            assertThat(response.isComplete()).isFalse();
+            assertThat(response.getNextToken()).isNotBlank();
+        } finally {
+            dynamoDbConfig.setDeleteAllBudgetMillis(budget);
+        }
+    }
+
+    @Test
+    @DisplayName("Failed deletes are reported without a token so the next call starts over")
+    void test_26() throws IOException {
+        // given
+        var page = QueryResponse.builder()
+                .items(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests are important").build()
+                ))
+                .build();
+        var exception = SdkServiceException.builder().statusCode(500).message("Call failed").build();
+        when(dynamoDbClient.query(any(QueryRequest.class))).thenReturn(page);
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class))).thenThrow(exception);
+        var request = new ClassPathResource("/requests/delete-all-posts.json").getInputStream().readAllBytes();
+
+        // when
+        var response = deleteAllPosts.apply(request);
+
+        // then
+        assertThat(response.getStatusCode()).isEqualTo(206);
+        assertThat(response.getFailedCount()).isEqualTo(1);
+        assertThat(response.isComplete()).isFalse();
+        assertThat(response.getNextToken()).isNull();
+    }
+
+    @Test
+    @DisplayName("Gateway fields are skipped when decoding the save post request")
+    void test_27() throws IOException {
+        // given
+        when(dynamoDbClient.transactWriteItems(any(TransactWriteItemsRequest.class))).thenReturn(TransactWriteItemsResponse.builder().build());
+        var request = new ClassPathResource("/requests/save-post-gateway.json").getInputStream().readAllBytes();
+
+        // when
+        var response = savePost.apply(request);
+
+        // then
+        verify(dynamoDbClient, times(1)).transactWriteItems(any(TransactWriteItemsRequest.class));
+        assertThat(response.getStatusCode()).isEqualTo(201);
+    }
+
+    @Test
+    @DisplayName("Tags are saved as a native list attribute")
+    void test_28() throws IOException {
+        // given
+        var captor = ArgumentCaptor.forClass(TransactWriteItemsRequest.class);
+        when(dynamoDbClient.transactWriteItems(captor.capture())).thenReturn(TransactWriteItemsResponse.builder().build());
+        var request = new ClassPathResource("/requests/save-post.json").getInputStream().readAllBytes();
+
+        // when
+        savePost.apply(request);
+
+        // then
+        var postTags = captor.getValue().transactItems().getFirst().put().item().get(POST_TAGS);
+        assertThat(postTags.s()).isNull();
+        assertThat(postTags.l()).extracting(AttributeValue::s).containsExactly("junit", "assertj");
+    }
+
+    @Test
+    @DisplayName("List and string set tags are read as stored, commas included")
+    void test_29() throws IOException {
+        // given
+        var queryResponse = QueryResponse.builder()
+                .items(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests are important").build(),
+                        POST_BODY, AttributeValue.builder().s("Lorem ipsum").build(),
+                        POST_TAGS, AttributeValue.builder().l(
+                                AttributeValue.builder().s("testing, at scale").build(),
+                                AttributeValue.builder().s("junit").build()
+                        ).build()
+                ), Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests are still important").build(),
+                        POST_BODY, AttributeValue.builder().s("Lorem ipsum").build(),
+                        POST_TAGS, AttributeValue.builder().ss("assertj").build()
+                ))
+                .build();
+        when(dynamoDbClient.query(any(QueryRequest.class))).thenReturn(queryResponse);
+        var request = new ClassPathResource("/requests/get-posts.json").getInputStream().readAllBytes();
+
+        // when
+        var response = getPosts.apply(request);
+
+        // then
+        assertThat(response.getPosts().get(0).postTags()).containsExactly("testing, at scale", "junit");
+        assertThat(response.getPosts().get(1).postTags()).containsExactly("assertj");
+    }
+
+    @Test
+    @DisplayName("Should get tagged posts from the tag index and drop stale index entries")
+    void test_30() throws IOException {
+        // given
+        var indexPage = QueryResponse.builder()
+                .items(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582#TAG#junit").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests are important").build()
+                ), Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582#TAG#junit").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests were important").build()
+                ))
+                .build();
+        var items = List.of(Map.of(
+                POST_TITLE, AttributeValue.builder().s("Tests are important").build(),
+                POST_TAGS, AttributeValue.builder().l(AttributeValue.builder().s("junit").build()).build()
+        ), Map.of(
+                POST_TITLE, AttributeValue.builder().s("Tests were important").build(),
+                POST_TAGS, AttributeValue.builder().l(AttributeValue.builder().s("assertj").build()).build()
+        ));
+        var queryCaptor = ArgumentCaptor.forClass(QueryRequest.class);
+        var batchWriteCaptor = ArgumentCaptor.forClass(BatchWriteItemRequest.class);
+        when(dynamoDbClient.query(queryCaptor.capture())).thenReturn(indexPage);
+        when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenAnswer(invocation -> {
+                    BatchGetItemRequest batchGetItemRequest = invocation.getArgument(0);
+                    var tableName = batchGetItemRequest.requestItems().keySet().iterator().next();
+                    return BatchGetItemResponse.builder().responses(Map.of(tableName, items)).build();
+                });
+        when(dynamoDbClient.batchWriteItem(batchWriteCaptor.capture())).thenReturn(BatchWriteItemResponse.builder().build());
+        var request = new ClassPathResource("/requests/get-posts-by-tag.json").getInputStream().readAllBytes();
+
+        // when
+        var response = getPostsByTag.apply(request);
+
+        // then
+        assertThat(queryCaptor.getValue().expressionAttributeValues().get(":sub").s()).isEqualTo("e654ebca-38e0-487a-b609-0284923be582#TAG#junit");
+        assertThat(response.getPosts()).hasSize(1);
+        assertThat(response.getPosts().getFirst().postTitle()).isEqualTo("Tests are important");
+        assertThat(response.getPosts().getFirst().postBody()).isNull();
+        verify(dynamoDbClient, timeout(1000)).batchWriteItem(any(BatchWriteItemRequest.class));
+        var staleDelete = batchWriteCaptor.getValue().requestItems().values().iterator().next().getFirst().deleteRequest();
+        assertThat(staleDelete.key().get(POST_TITLE).s()).isEqualTo("Tests were important");
+        var batchGetCaptor = ArgumentCaptor.forClass(BatchGetItemRequest.class);
+        verify(dynamoDbClient).batchGetItem(batchGetCaptor.capture());
+        assertThat(batchGetCaptor.getValue().requestItems().values().iterator().next().consistentRead()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Exception is thrown if the tag is missing for the get posts by tag function")
+    void test_31() throws IOException {
+        // given
+        var request = new ClassPathResource("/requests/get-posts.json").getInputStream().readAllBytes();
+
+        // when
+        // then
+        assertThatThrownBy(() -> getPostsByTag.apply(request)).isInstanceOf(CustomException.class);
+        assertThatThrownBy(() -> getPostsByTag.apply(request)).hasMessage("400 Invalid tag");
+    }
+
+    @Test
+    @DisplayName("Summary listing projects titles and tags and cuts body previews")
+    void test_32() throws IOException {
+        // given
+        var queryResponse = QueryResponse.builder()
+                .items(Map.of(
+                        POST_TITLE, AttributeValue.builder().s("Tests are important").build(),
+                        POST_BODY, AttributeValue.builder().s("Lorem ipsum").build(),
+                        POST_TAGS, AttributeValue.builder().l(AttributeValue.builder().s("junit").build()).build()
+                ))
+                .build();
+        var captor = ArgumentCaptor.forClass(QueryRequest.class);
+        when(dynamoDbClient.query(captor.capture())).thenReturn(queryResponse);
+        var summaryRequest = new ClassPathResource("/requests/get-posts-summary.json").getInputStream().readAllBytes();
+        var previewRequest = new ClassPathResource("/requests/get-posts-preview.json").getInputStream().readAllBytes();
+
+        // when
+        var summary = getPosts.apply(summaryRequest);
+        var preview = getPosts.apply(previewRequest);
+
+        // then
+        assertThat(captor.getAllValues().get(0).projectionExpression()).isEqualTo("PostTitle, PostTags");
+        assertThat(captor.getAllValues().get(1).projectionExpression()).isEqualTo("PostTitle, PostTags, PostBody");
+        assertThat(summary.getPosts().getFirst().postBody()).isNull();
+        assertThat(summary.getPosts().getFirst().postTags()).containsExactly("junit");
+        assertThat(preview.getPosts().getFirst().postBody()).isEqualTo("Lorem");
+    }
+
+    @Test
+    @DisplayName("Should get a single post with a consistent read")
+    void test_33() throws IOException {
+        // given
+        var getItemResponse = GetItemResponse.builder()
+                .item(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582").build(),
+                        POST_TITLE, AttributeValue.builder().s("Remember to test").build(),
+                        POST_BODY, AttributeValue.builder().s("Lorem ipsum").build(),
+                        POST_TAGS, AttributeValue.builder().l(AttributeValue.builder().s("junit").build()).build()
+                ))
+                .build();
+        var captor = ArgumentCaptor.forClass(GetItemRequest.class);
+        when(dynamoDbClient.getItem(captor.capture())).thenReturn(getItemResponse);
+        var request = new ClassPathResource("/requests/get-post-consistent.json").getInputStream().readAllBytes();
+
+        // when
+        var response = getPost.apply(request);
+
+        // then
+        verify(dynamoDbClient, never()).query(any(QueryRequest.class));
+        assertThat(captor.getValue().consistentRead()).isTrue();
+        assertThat(captor.getValue().key().get(POST_TITLE).s()).isEqualTo("Remember to test");
+        assertThat(response.getPost().postBody()).isEqualTo("Lorem ipsum");
+    }
+
+    @Test
+    @DisplayName("Exception is thrown if the post does not exist for the get post function")
+    void test_34() throws IOException {
+        // given
+        when(dynamoDbClient.getItem(any(GetItemRequest.class))).thenReturn(GetItemResponse.builder().build());
+        var request = new ClassPathResource("/requests/get-post.json").getInputStream().readAllBytes();
+
+        // when
+        // then
+        assertThatThrownBy(() -> getPost.apply(request)).isInstanceOf(CustomException.class);
+        assertThatThrownBy(() -> getPost.apply(request)).hasMessage("404 Post not found");
+    }
+
+    @Test
+    @DisplayName("Without version tags untagged saves are a single put and deletes skip the version counter")
+    void test_35() throws IOException {
+        // given
+        when(dynamoDbClient.putItem(any(PutItemRequest.class))).thenReturn(PutItemResponse.builder().build());
+        when(dynamoDbClient.deleteItem(any(DeleteItemRequest.class))).thenReturn(DeleteItemResponse.builder().build());
+        var saveRequest = new ClassPathResource("/requests/save-post-no-tags.json").getInputStream().readAllBytes();
+        var deleteRequest = new ClassPathResource("/requests/delete-post.json").getInputStream().readAllBytes();
+
+        // when
+        var saved = savePost.apply(saveRequest);
+        var deleted = deletePost.apply(deleteRequest);
+
+        // then
+        assertThat(saved.getStatusCode()).isEqualTo(201);
+        assertThat(deleted.getStatusCode()).isEqualTo(204);
+        verify(dynamoDbClient, times(1)).putItem(any(PutItemRequest.class));
+        verify(dynamoDbClient, never()).transactWriteItems(any(TransactWriteItemsRequest.class));
+        verify(dynamoDbClient, never()).updateItem(any(UpdateItemRequest.class));
+    }
+
+    @Test
+    @DisplayName("Tag index entries that fail to save do not overwrite the status of their post")
+    void test_36() throws IOException {
+        // given
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class))).thenAnswer(invocation -> {
+            BatchWriteItemRequest batchWriteItemRequest = invocation.getArgument(0);
+            var tableName = batchWriteItemRequest.requestItems().keySet().iterator().next();
+            var indexWrites = batchWriteItemRequest.requestItems().get(tableName).stream()
+                    .filter(writeRequest -> !writeRequest.putRequest().item().containsKey(POST_BODY))
+                    .toList();
+            return BatchWriteItemResponse.builder().unprocessedItems(Map.of(tableName, indexWrites)).build();
+        });
+        var request = new ClassPathResource("/requests/save-posts.json").getInputStream().readAllBytes();
+        var maxAttempts = dynamoDbConfig.getBatchMaxAttempts();
+        dynamoDbConfig.setBatchMaxAttempts(1);
+
+        try {
+            // when
+            var response = savePosts.apply(request);
+
+            // then
+            assertThat(response.getItems().size()).isEqualTo(3);
+            assertThat(response.getItems().get(0).statusCode()).isEqualTo(201);
+            assertThat(response.getItems().get(1).statusCode()).isEqualTo(201);
+            assertThat(response.getItems().get(2).statusCode()).isEqualTo(400);
+        } finally {
+            dynamoDbConfig.setBatchMaxAttempts(maxAttempts);
+        }
+    }
+
+    @Test
+    @DisplayName("A failed version bump is reported next to the item statuses of the saved posts")
+    void test_37() throws IOException {
+        // given
+        var exception = SdkServiceException.builder().statusCode(500).message("Call failed").build();
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class))).thenReturn(BatchWriteItemResponse.builder().build());
+        when(dynamoDbClient.updateItem(any(UpdateItemRequest.class))).thenThrow(exception);
+        var request = new ClassPathResource("/requests/save-posts.json").getInputStream().readAllBytes();
+        dynamoDbConfig.setVersionTagsEnabled(true);
+
+        try {
+            // when
+            var response = savePosts.apply(request);
+
+            // then
+            assertThat(response.getStatusCode()).isEqualTo(207);
+            assertThat(response.getErrorMessage()).isEqualTo("Could not bump posts version: Call failed");
+            assertThat(response.getItems().size()).isEqualTo(3);
+            assertThat(response.getItems().get(0).statusCode()).isEqualTo(201);
+            assertThat(response.getItems().get(1).statusCode()).isEqualTo(201);
+        } finally {
+            dynamoDbConfig.setVersionTagsEnabled(false);
+        }
+    }
+
+    @Test
+    @DisplayName("A failed stale index repair does not fail the tagged posts read")
+    void test_38() throws IOException {
+        // given
+        var indexPage = QueryResponse.builder()
+                .items(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582#TAG#junit").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests were important").build()
+                ))
+                .build();
+        when(dynamoDbClient.query(any(QueryRequest.class))).thenReturn(indexPage);
+        when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class))).thenReturn(BatchGetItemResponse.builder().build());
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class))).thenThrow(SdkClientException.builder().message("Connection reset").build());
+        var request = new ClassPathResource("/requests/get-posts-by-tag.json").getInputStream().readAllBytes();
+
+        // when
+        var response = getPostsByTag.apply(request);
+
+        // then
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThat(response.getPosts()).isEmpty();
+        verify(dynamoDbClient, timeout(1000)).batchWriteItem(any(BatchWriteItemRequest.class));
+    }
+
+}
@@ -0,0 +1,139 @@
+package dev.ciprian.http;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.config.BodyCompressionConfig;
+import dev.ciprian.config.CacheConfig;
+import dev.ciprian.config.DynamoDbConfig;
+import dev.ciprian.config.JwtConfig;
+import dev.ciprian.config.MetricsConfig;
+import dev.ciprian.config.TracingConfig;
+import dev.ciprian.metrics.MetricsRecorder;
+import dev.ciprian.service.BatchWriter;
+import dev.ciprian.service.HedgedReader;
+import dev.ciprian.service.PostMapper;
+import dev.ciprian.service.PostsCache;
+import dev.ciprian.service.PostsService;
+import dev.ciprian.service.TokenVerifier;
+import dev.ciprian.tracing.Tracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.ClassPathResource;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static dev.ciprian.constants.PostConstants.POST_BODY;
+import static dev.ciprian.constants.PostConstants.POST_TAGS;
+import static dev.ciprian.constants.PostConstants.POST_TITLE;
+import static dev.ciprian.constants.PostConstants.USER_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(
+        classes = {DynamoDbConfig.class, ObjectMapper.class, PostsService.class, PostMapper.class, BodyCompressionConfig.class, BatchWriter.class, HedgedReader.class, PostsCache.class, CacheConfig.class, TokenVerifier.class, JwtConfig.class, MetricsRecorder.class, MetricsConfig.class, Tracer.class, TracingConfig.class, PostsStreamer.class},
+        properties = "metrics.enabled=true"
+)
+class PostsStreamerTest {
+
+    @MockBean
+    DynamoDbClient dynamoDbClient;
+
+    @Autowired
+    PostsStreamer postsStreamer;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+    private PrintStream originalOut;
+
+    @BeforeEach
+    void setUp() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(stdout, true, StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Test
+    @DisplayName("Streamed posts are metered like the functions")
+    void test_1() throws IOException {
+        // given
+        var queryResponse = QueryResponse.builder()
+                .items(Map.of(
+                        USER_ID, AttributeValue.builder().s("e654ebca-38e0-487a-b609-0284923be582").build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests are important").build(),
+                        POST_BODY, AttributeValue.builder().s("Lorem ipsum").build(),
+                        POST_TAGS, AttributeValue.builder().s("testing,junit").build()
+                ))
+                .build();
+        when(dynamoDbClient.query(any(QueryRequest.class))).thenReturn(queryResponse);
+        var request = new ClassPathResource("/requests/get-posts.json").getInputStream().readAllBytes();
+        var output = new ByteArrayOutputStream();
+
+        // when
+        postsStreamer.stream(request, output);
+
+        // then
+        assertThat(objectMapper.readTree(output.toByteArray()).get("posts").size()).isEqualTo(1);
+        var documents = documents();
+        assertThat(documents).hasSize(1);
+        assertThat(documents.get(0).get("Function").textValue()).isEqualTo("streamPosts");
+        assertThat(documents.get(0).get("StatusCode").intValue()).isEqualTo(200);
+        assertThat(documents.get(0).get("UserId").textValue()).isEqualTo("e654ebca-38e0-487a-b609-0284923be582");
+        assertThat(documents.get(0).get("RequestBytes").intValue()).isEqualTo(request.length);
+        assertThat(documents.get(0).has("BackendTime")).isTrue();
+    }
+
+    @Test
+    @DisplayName("A stream failing before its first page is metered with the error status")
+    void test_2() throws IOException {
+        // given
+        var exception = SdkServiceException.builder().statusCode(500).message("Call failed").build();
+        when(dynamoDbClient.query(any(QueryRequest.class))).thenThrow(exception);
+        var request = new ClassPathResource("/requests/get-posts.json").getInputStream().readAllBytes();
+
+        // when
+        // then
+        assertThatThrownBy(() -> postsStreamer.stream(request, new ByteArrayOutputStream())).hasMessage("500 Call failed");
+        var documents = documents();
+        assertThat(documents).hasSize(1);
+        assertThat(documents.get(0).get("StatusCode").intValue()).isEqualTo(500);
+        assertThat(documents.get(0).get("Fault").intValue()).isEqualTo(1);
+    }
+
+    // log lines share stdout with the metrics, only the EMF documents are kept
+    private List<JsonNode> documents() throws IOException {
+        var documents = new ArrayList<JsonNode>();
+
+        for (var line : stdout.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (line.startsWith("{\"_aws\"")) {
+                documents.add(objectMapper.readTree(line));
+            }
+        }
+
+        return documents;
+    }
+
+}
@@ -0,0 +1,182 @@
+package dev.ciprian.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.config.BodyCompressionConfig;
+import dev.ciprian.config.CacheConfig;
+import dev.ciprian.config.DynamoDbConfig;
+import dev.ciprian.config.JwtConfig;
+import dev.ciprian.config.MetricsConfig;
+import dev.ciprian.config.TracingConfig;
+import dev.ciprian.exceptions.CustomException;
+import dev.ciprian.metrics.MetricsRecorder;
+import dev.ciprian.models.response.PostsResponse;
+import dev.ciprian.service.BatchWriter;
+import dev.ciprian.service.HedgedReader;
+import dev.ciprian.service.PostMapper;
+import dev.ciprian.service.PostsCache;
+import dev.ciprian.service.PostsService;
+import dev.ciprian.service.TokenVerifier;
+import dev.ciprian.tracing.Tracer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(
+        classes = {PostsConfig.class, DynamoDbConfig.class, ObjectMapper.class, PostsService.class, PostMapper.class, BodyCompressionConfig.class, BatchWriter.class, HedgedReader.class, PostsCache.class, CacheConfig.class, TokenVerifier.class, JwtConfig.class, MetricsRecorder.class, MetricsConfig.class, Tracer.class, TracingConfig.class},
+        properties = {"jwt.enabled=true", "jwt.region=eu-central-1", "jwt.user-pool-id=eu-central-1_test", "jwt.client-id=client"}
+)
+class PostsTokenConfigTest {
+
+    private static final String ISSUER = "https://cognito-idp.eu-central-1.amazonaws.com/eu-central-1_test";
+    private static final String SUB = "e654ebca-38e0-487a-b609-0284923be582";
+    private static final KeyPair KEY_PAIR = keyPair();
+
+    @MockBean
+    DynamoDbClient dynamoDbClient;
+
+    @Autowired
+    Function<byte[], PostsResponse> getPosts;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void jwks(DynamicPropertyRegistry registry) throws IOException {
+        var publicKey = (RSAPublicKey) KEY_PAIR.getPublic();
+        var jwks = """
+                {"keys":[{"kty":"RSA","alg":"RS256","use":"sig","kid":"test","n":"%s","e":"%s"}]}
+                """.formatted(encode(publicKey.getModulus().toByteArray()), encode(publicKey.getPublicExponent().toByteArray()));
+        var file = Files.createTempFile("jwks", ".json");
+        Files.writeString(file, jwks);
+        file.toFile().deleteOnExit();
+        registry.add("jwt.jwks-location", () -> "file:" + file.toAbsolutePath());
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(dynamoDbClient.query(any(QueryRequest.class))).thenReturn(QueryResponse.builder().build());
+    }
+
+    @Test
+    @DisplayName("Should take the user id from a valid access token")
+    void test_1() throws Exception {
+        // given
+        var token = token(Map.of("sub", SUB, "iss", ISSUER, "token_use", "access", "client_id", "client", "exp", Instant.now().plusSeconds(300).getEpochSecond()));
+        var captor = ArgumentCaptor.forClass(QueryRequest.class);
+
+        // when
+        var response = getPosts.apply(request(token));
+
+        // then
+        verify(dynamoDbClient).query(captor.capture());
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThat(captor.getValue().expressionAttributeValues().get(":sub").s()).isEqualTo(SUB);
+    }
+
+    @Test
+    @DisplayName("Exception is thrown if the token is expired")
+    void test_2() throws Exception {
+        // given
+        var token = token(Map.of("sub", SUB, "iss", ISSUER, "token_use", "access", "client_id", "client", "exp", Instant.now().minusSeconds(300).getEpochSecond()));
+
+        // when
+        // then
+        assertThatThrownBy(() -> getPosts.apply(request(token))).isInstanceOf(CustomException.class).hasMessage("403 Invalid user id");
+        verifyNoInteractions(dynamoDbClient);
+    }
+
+    @Test
+    @DisplayName("Exception is thrown if the token was issued for another client")
+    void test_3() throws Exception {
+        // given
+        var token = token(Map.of("sub", SUB, "iss", ISSUER, "token_use", "access", "client_id", "other", "exp", Instant.now().plusSeconds(300).getEpochSecond()));
+
+        // when
+        // then
+        assertThatThrownBy(() -> getPosts.apply(request(token))).isInstanceOf(CustomException.class).hasMessage("403 Invalid user id");
+        verifyNoInteractions(dynamoDbClient);
+    }
+
+    @Test
+    @DisplayName("Exception is thrown if the token signature does not match")
+    void test_4() throws Exception {
+        // given
+        var token = token(Map.of("sub", SUB, "iss", ISSUER, "token_use", "access", "client_id", "client", "exp", Instant.now().plusSeconds(300).getEpochSecond()));
+        var tampered = token.substring(0, token.lastIndexOf('.') + 1) + encode(new byte[256]);
+
+        // when
+        // then
+        assertThatThrownBy(() -> getPosts.apply(request(tampered))).isInstanceOf(CustomException.class).hasMessage("403 Invalid user id");
+        verifyNoInteractions(dynamoDbClient);
+    }
+
+    @Test
+    @DisplayName("Exception is thrown if only the user id header is sent")
+    void test_5() {
+        // given
+        var request = """
+                {"headers":{"x-function-name":"getPosts","x-user-id":"%s"}}
+                """.formatted(SUB).getBytes(StandardCharsets.UTF_8);
+
+        // when
+        // then
+        assertThatThrownBy(() -> getPosts.apply(request)).isInstanceOf(CustomException.class).hasMessage("403 Invalid user id");
+        verifyNoInteractions(dynamoDbClient);
+    }
+
+    private byte[] request(String token) {
+        return """
+                {"headers":{"x-function-name":"getPosts","x-user-id":"spoofed","Authorization":"Bearer %s"}}
+                """.formatted(token).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String token(Map<String, Object> claims) throws IOException, GeneralSecurityException {
+        var header = encode(objectMapper.writeValueAsBytes(Map.of("alg", "RS256", "kid", "test")));
+        var payload = encode(objectMapper.writeValueAsBytes(claims));
+        var signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(KEY_PAIR.getPrivate());
+        signature.update((header + "." + payload).getBytes(StandardCharsets.US_ASCII));
+        return header + "." + payload + "." + encode(signature.sign());
+    }
+
+    private static String encode(byte[] value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value);
+    }
+
+    private static KeyPair keyPair() {
+        try {
+            var generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+}
@@ -0,0 +1,171 @@
+package dev.ciprian.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.Application;
+import dev.ciprian.models.response.PostsResponse;
+import dev.ciprian.stub.InMemoryDynamoDbClient;
+import dev.ciprian.stub.StubClientsConfig;
+import dev.ciprian.stub.StubCognitoClient;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.Function;
+
+import static dev.ciprian.constants.PostConstants.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("aot")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@SpringBootTest(
+        classes = {Application.class, StubClientsConfig.class},
+        properties = {"REGION=eu-central-1", "USER_POOL_ID=eu-central-1_test", "CLIENT_ID=client", "TABLE_NAME=posts", "priming.enabled=true"}
+)
+class PrimingResourceTest {
+
+    @Autowired
+    ConfigurableApplicationContext context;
+
+    @Autowired
+    PrimingResource primingResource;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    // lazy, so injecting them does not create what priming is expected to create
+    @Lazy
+    @Autowired
+    InMemoryDynamoDbClient dynamoDbClient;
+
+    @Lazy
+    @Autowired
+    StubCognitoClient cognitoClient;
+
+    @Lazy
+    @Autowired
+    @Qualifier("getPosts")
+    Function<byte[], PostsResponse> getPosts;
+
+    @Test
+    @DisplayName("Priming before checkpoint reaches both backends without touching user posts")
+    void test_1() {
+        // given
+        savePost("e654ebca-38e0-487a-b609-0284923be582");
+
+        // when
+        primingResource.beforeCheckpoint(null);
+
+        // then
+        assertThat(dynamoDbClient.requestCount()).isGreaterThan(1);
+        assertThat(cognitoClient.requestCount()).isPositive();
+        assertThat(dynamoDbClient.item("posts", "e654ebca-38e0-487a-b609-0284923be582", "Tests are important")).isNotNull();
+        assertThat(dynamoDbClient.item("posts", "priming", "priming")).isNull();
+    }
+
+    @Test
+    @DisplayName("Connections are re-established after restore")
+    void test_2() {
+        // when
+        primingResource.afterRestore(null);
+
+        // then
+        assertThat(dynamoDbClient.requestCount()).isPositive();
+        assertThat(cognitoClient.requestCount()).isPositive();
+    }
+
+    @Test
+    @DisplayName("First invocation after restore builds no new serializers")
+    void test_3() throws IOException {
+        // given
+        primingResource.beforeCheckpoint(null);
+        primingResource.afterRestore(null);
+        savePost("e654ebca-38e0-487a-b609-0284923be582");
+        var request = new ClassPathResource("/requests/get-posts.json").getInputStream().readAllBytes();
+        var serializers = objectMapper.getSerializerProviderInstance().cachedSerializersCount();
+
+        // when
+        var response = objectMapper.writeValueAsBytes(getPosts.apply(request));
+
+        // then
+        assertThat(response).isNotEmpty();
+        assertThat(objectMapper.getSerializerProviderInstance().cachedSerializersCount()).isEqualTo(serializers);
+    }
+
+    @Test
+    @DisplayName("Priming builds the function beans and clients, so the first invocation only sends its own request")
+    void test_4() throws IOException {
+        // given
+        var beanFactory = context.getBeanFactory();
+        var beans = new String[]{"postsService", "loginService", "inMemoryDynamoDbClient", "stubCognitoClient",
+                "getPosts", "deleteAllPosts", "loginUser"};
+
+        for (var bean : beans) {
+            assertThat(beanFactory.containsSingleton(bean)).as(bean).isFalse();
+        }
+
+        // when
+        primingResource.beforeCheckpoint(null);
+
+        // then
+        for (var bean : beans) {
+            assertThat(beanFactory.containsSingleton(bean)).as(bean).isTrue();
+        }
+
+        // given
+        var requests = dynamoDbClient.requestCount();
+        var request = new ClassPathResource("/requests/get-posts.json").getInputStream().readAllBytes();
+
+        // when
+        getPosts.apply(request);
+
+        // then
+        assertThat(dynamoDbClient.requestCount()).isEqualTo(requests + 1);
+    }
+
+    @Nested
+    @TestPropertySource(properties = {"jwt.enabled=true", "jwt.region=eu-central-1", "jwt.user-pool-id=eu-central-1_test", "jwt.client-id=client"})
+    class WithJwt {
+
+        @Test
+        @DisplayName("Priming reaches the posts backend through the service when routed payloads stop at token validation")
+        void test_5() {
+            // given
+            savePost("e654ebca-38e0-487a-b609-0284923be582");
+            var requests = dynamoDbClient.requestCount();
+
+            // when
+            primingResource.beforeCheckpoint(null);
+
+            // then
+            assertThat(dynamoDbClient.requestCount()).isGreaterThanOrEqualTo(requests + 3);
+            assertThat(dynamoDbClient.item("posts", "e654ebca-38e0-487a-b609-0284923be582", "Tests are important")).isNotNull();
+        }
+
+    }
+
+    private void savePost(String userId) {
+        dynamoDbClient.putItem(PutItemRequest.builder()
+                .tableName("posts")
+                .item(Map.of(
+                        USER_ID, AttributeValue.builder().s(userId).build(),
+                        POST_TITLE, AttributeValue.builder().s("Tests are important").build(),
+                        POST_BODY, AttributeValue.builder().s("Lorem ipsum").build(),
+                        POST_TAGS, AttributeValue.builder().s("testing,junit").build()
+                ))
+                .build());
+    }
+
+}
@@ -0,0 +1,121 @@
+package dev.ciprian.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.config.ResponseCompressionConfig;
+import dev.ciprian.service.BodyCodec;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCompressorTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String POSTS_BODY = "{\"posts\":[" + "{\"postTitle\":\"Remember to test\",\"postBody\":\"Lorem ipsum\"},".repeat(100) + "{}],\"statusCode\":200}";
+
+    @Test
+    @DisplayName("Large responses are gzipped and flagged as base64 when the client accepts gzip")
+    void test_1() throws Exception {
+        // given
+        var responseCompressor = new ResponseCompressor(responseCompression(true, 1024), OBJECT_MAPPER);
+        var request = request(Map.of("x-function-name", "getPosts", "Accept-Encoding", "gzip, deflate, br"));
+
+        // when
+        var result = OBJECT_MAPPER.readTree(responseCompressor.compress(request, response(POSTS_BODY)));
+
+        // then
+        var encoded = Base64.getDecoder().decode(result.get("body").textValue());
+        assertThat(result.get("isBase64Encoded").booleanValue()).isTrue();
+        assertThat(result.get("statusCode").intValue()).isEqualTo(200);
+        assertThat(result.at("/headers/Content-Type").textValue()).isEqualTo("application/json");
+        assertThat(result.at("/headers/Content-Encoding").textValue()).isEqualTo("gzip");
+        assertThat(result.at("/headers/Vary").textValue()).isEqualTo("Accept-Encoding");
+        assertThat(encoded.length).isLessThan(POSTS_BODY.length());
+        assertThat(new String(BodyCodec.GZIP.decode(encoded), StandardCharsets.UTF_8)).isEqualTo(POSTS_BODY);
+    }
+
+    @Test
+    @DisplayName("Responses below the threshold are returned unchanged")
+    void test_2() {
+        // given
+        var responseCompressor = new ResponseCompressor(responseCompression(true, 1024), OBJECT_MAPPER);
+        var request = request(Map.of("accept-encoding", "gzip"));
+        var response = response("{\"posts\":[],\"statusCode\":200}");
+
+        // when
+        var result = responseCompressor.compress(request, response);
+
+        // then
+        assertThat(result).isSameAs(response);
+    }
+
+    @Test
+    @DisplayName("Responses are returned unchanged for other functions, without the header or when disabled")
+    void test_3() {
+        // given
+        var enabled = new ResponseCompressor(responseCompression(true, 16), OBJECT_MAPPER);
+        var disabled = new ResponseCompressor(responseCompression(false, 16), OBJECT_MAPPER);
+        var response = response(POSTS_BODY);
+
+        // when
+        var otherFunction = enabled.compress(request(Map.of("x-function-name", "savePost", "accept-encoding", "gzip")), response);
+        var noHeader = enabled.compress(request(Map.of("x-function-name", "getPosts")), response);
+        var turnedOff = disabled.compress(request(Map.of("accept-encoding", "gzip")), response);
+
+        // then
+        assertThat(otherFunction).isSameAs(response);
+        assertThat(noHeader).isSameAs(response);
+        assertThat(turnedOff).isSameAs(response);
+    }
+
+    @ParameterizedTest
+    @CsvSource(nullValues = "none", value = {
+            "gzip, gzip",
+            "'deflate, gzip', gzip",
+            "'gzip;q=0.5, deflate', deflate",
+            "'gzip;q=0, deflate;q=0', none",
+            "'*', gzip",
+            "'*;q=0.1, deflate;q=0.5', deflate",
+            "'br, identity', none",
+            "'GZIP ; q=0.8', gzip"
+    })
+    @DisplayName("The codec is negotiated from the accepted encodings and their quality values")
+    void test_4(String acceptEncoding, String expected) {
+        // when
+        var codec = ResponseCompressor.negotiate(acceptEncoding);
+
+        // then
+        assertThat(codec == null ? null : codec.encoding()).isEqualTo(expected);
+    }
+
+    private static byte[] request(Map<String, String> headers) {
+        try {
+            return OBJECT_MAPPER.writeValueAsBytes(Map.of("headers", headers));
+        } catch (Exception exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static byte[] response(String body) {
+        try {
+            return OBJECT_MAPPER.writeValueAsBytes(Map.of("statusCode", 200, "isBase64Encoded", false,
+                    "headers", Map.of("Content-Type", "application/json"), "body", body));
+        } catch (Exception exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static ResponseCompressionConfig responseCompression(boolean enabled, int thresholdBytes) {
+        var responseCompressionConfig = new ResponseCompressionConfig();
+        responseCompressionConfig.setEnabled(enabled);
+        responseCompressionConfig.setThresholdBytes(thresholdBytes);
+        return responseCompressionConfig;
+    }
+
+}
@@ -0,0 +1,212 @@
+package dev.ciprian.http;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.Application;
+import dev.ciprian.config.NativeHints;
+import dev.ciprian.models.domain.Post;
+import dev.ciprian.models.request.PostRequest;
+import dev.ciprian.models.response.PostsResponse;
+import dev.ciprian.stub.InMemoryDynamoDbClient;
+import dev.ciprian.stub.StubClientsConfig;
+import dev.ciprian.stub.StubCognitoClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.function.context.FunctionCatalog;
+import org.springframework.cloud.function.context.config.RoutingFunction;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("aot")
+@SpringBootTest(
+        classes = {Application.class, StubClientsConfig.class},
+        properties = {"REGION=eu-central-1", "USER_POOL_ID=eu-central-1_test", "CLIENT_ID=client", "TABLE_NAME=posts"}
+)
+class RoutedFunctionsTest {
+
+    private static final String SUB = "e654ebca-38e0-487a-b609-0284923be582";
+
+    @Autowired
+    FunctionCatalog functionCatalog;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    InMemoryDynamoDbClient dynamoDbClient;
+
+    @Autowired
+    StubCognitoClient cognitoClient;
+
+    @BeforeEach
+    void setUp() {
+        dynamoDbClient.clear();
+        cognitoClient.clear();
+    }
+
+    @Test
+    @DisplayName("Should route to the register user function")
+    void test_1() throws IOException {
+        // when
+        var response = route("registerUser", "register-user.json");
+
+        // then
+        assertThat(response.path("statusCode").asInt()).isEqualTo(201);
+    }
+
+    @Test
+    @DisplayName("Should route to the login user function")
+    void test_2() throws IOException {
+        // when
+        var response = route("loginUser", "login-user.json");
+
+        // then
+        assertThat(response.path("statusCode").asInt()).isEqualTo(200);
+        assertThat(response.path("accessToken").asText()).isEqualTo("access-token");
+    }
+
+    @Test
+    @DisplayName("Should route to the refresh login function")
+    void test_3() throws IOException {
+        // when
+        var response = route("refreshLogin", "refresh-login.json");
+
+        // then
+        assertThat(response.path("statusCode").asInt()).isEqualTo(200);
+        assertThat(response.path("idToken").asText()).isEqualTo("id-token");
+    }
+
+    @Test
+    @DisplayName("Should route to the save post and get posts functions")
+    void test_4() throws IOException {
+        // when
+        var saved = route("savePost", "save-post.json");
+        var response = objectMapper.treeToValue(route("getPosts", "get-posts.json"), PostsResponse.class);
+
+        // then
+        assertThat(saved.path("statusCode").asInt()).isEqualTo(201);
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThat(response.getPosts().getFirst().postTitle()).isEqualTo("Remember to test");
+        assertThat(response.getPosts().getFirst().postTags()).containsExactly("junit", "assertj");
+    }
+
+    @Test
+    @DisplayName("Should route to the save posts function")
+    void test_5() throws IOException {
+        // when
+        var response = route("savePosts", "save-posts.json");
+
+        // then
+        assertThat(response.path("statusCode").asInt()).isEqualTo(201);
+        assertThat(dynamoDbClient.query(queryAll()).count()).isEqualTo(response.path("items").size());
+    }
+
+    @Test
+    @DisplayName("Should route to the delete post function")
+    void test_6() throws IOException {
+        // given
+        route("savePost", "save-post.json");
+
+        // when
+        var response = route("deletePost", "delete-post.json");
+
+        // then
+        assertThat(response.path("statusCode").asInt()).isEqualTo(204);
+    }
+
+    @Test
+    @DisplayName("Should route to the delete all posts function")
+    void test_7() throws IOException {
+        // given
+        route("savePosts", "save-posts.json");
+
+        // when
+        var response = route("deleteAllPosts", "delete-all-posts.json");
+
+        // then
+        assertThat(response.path("statusCode").asInt()).isEqualTo(200);
+        assertThat(response.path("complete").asBoolean()).isTrue();
+        assertThat(dynamoDbClient.query(queryAll()).count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Runtime hints cover the request and response models")
+    void test_8() {
+        // given
+        var hints = new RuntimeHints();
+
+        // when
+        new NativeHints().registerHints(hints, getClass().getClassLoader());
+
+        // then
+        assertThat(RuntimeHintsPredicates.reflection().onType(PostsResponse.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(PostRequest.class)).accepts(hints);
+    }
+
+    @Test
+    @DisplayName("Should route to the get posts by tag function")
+    void test_9() throws IOException {
+        // given
+        route("savePosts", "save-posts.json");
+
+        // when
+        var response = objectMapper.treeToValue(route("getPostsByTag", "get-posts-by-tag.json"), PostsResponse.class);
+
+        // then
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThat(response.getPosts()).extracting(Post::postTitle).containsExactly("Remember to test");
+        assertThat(response.getPosts().getFirst().postTags()).containsExactly("junit", "assertj");
+    }
+
+    @Test
+    @DisplayName("Tag index follows retagged and deleted posts")
+    void test_10() throws IOException {
+        // given
+        route("savePost", "save-post.json");
+        route("savePost", "save-post-retagged.json");
+
+        // when
+        var retagged = objectMapper.treeToValue(route("getPostsByTag", "get-posts-by-tag.json"), PostsResponse.class);
+        route("deleteAllPosts", "delete-all-posts.json");
+
+        // then
+        assertThat(retagged.getPosts()).isEmpty();
+        assertThat(dynamoDbClient.item("posts", SUB + "#TAG#junit", "Remember to test")).isNull();
+        assertThat(dynamoDbClient.item("posts", SUB + "#TAG#assertj", "Remember to test")).isNull();
+    }
+
+    private JsonNode route(String functionName, String fixture) throws IOException {
+        Function<Message<byte[]>, Object> router = functionCatalog.lookup(RoutingFunction.FUNCTION_NAME);
+        var payload = new ClassPathResource("/requests/" + fixture).getInputStream().readAllBytes();
+        var result = router.apply(MessageBuilder.withPayload(payload).setHeader("x-function-name", functionName).build());
+
+        if (result instanceof Message<?> message) {
+            result = message.getPayload();
+        }
+
+        return result instanceof byte[] bytes ? objectMapper.readTree(bytes) : objectMapper.valueToTree(result);
+    }
+
+    private QueryRequest queryAll() {
+        return QueryRequest.builder()
+                .tableName("posts")
+                .expressionAttributeValues(Map.of(":sub", AttributeValue.builder().s(SUB).build()))
+                .build();
+    }
+
+}
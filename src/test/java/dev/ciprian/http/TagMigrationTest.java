@@ -0,0 +1,133 @@
+package dev.ciprian.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.Application;
+import dev.ciprian.models.response.PostsResponse;
+import dev.ciprian.models.response.ProgressResponse;
+import dev.ciprian.stub.InMemoryDynamoDbClient;
+import dev.ciprian.stub.StubClientsConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.Function;
+
+import static dev.ciprian.constants.PostConstants.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(
+        classes = {Application.class, StubClientsConfig.class},
+        properties = {"REGION=eu-central-1", "USER_POOL_ID=eu-central-1_test", "CLIENT_ID=client", "TABLE_NAME=posts",
+                "dynamodb.tag-migration-enabled=true", "dynamodb.max-page-size=2", "dynamodb.tag-migration-budget-millis=0"}
+)
+class TagMigrationTest {
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    InMemoryDynamoDbClient dynamoDbClient;
+
+    @Autowired
+    @Qualifier("migratePostTags")
+    Function<byte[], ProgressResponse> migratePostTags;
+
+    @Autowired
+    @Qualifier("getPosts")
+    Function<byte[], PostsResponse> getPosts;
+
+    @BeforeEach
+    void setUp() {
+        dynamoDbClient.clear();
+    }
+
+    @Test
+    @DisplayName("Legacy tags are rewritten as indexed lists one budgeted page at a time")
+    void test_1() throws IOException {
+        // given
+        put("e654ebca-38e0-487a-b609-0284923be582", "First", AttributeValue.builder().s("testing,junit").build());
+        put("e654ebca-38e0-487a-b609-0284923be582", "Second", AttributeValue.builder().s("").build());
+        put("e654ebca-38e0-487a-b609-0284923be582", "Third", AttributeValue.builder().l(AttributeValue.builder().s("a,b").build()).build());
+        put("f2c1b7a0-1d5e-4f4e-9a53-8b0f7a6c2d11", "Fourth", AttributeValue.builder().s("assertj").build());
+        var request = new ClassPathResource("/requests/migrate-post-tags.json").getInputStream().readAllBytes();
+
+        // when
+        var first = migratePostTags.apply(request);
+        var last = first;
+        var migrated = first.getProcessedCount();
+
+        while (!last.isComplete()) {
+            last = migratePostTags.apply(objectMapper.writeValueAsBytes(Map.of(
+                    "headers", Map.of("x-function-name", "migratePostTags", "x-next-token", last.getNextToken()))));
+            migrated += last.getProcessedCount();
+        }
+
+        // then
+        assertThat(first.getStatusCode()).isEqualTo(206);
+        assertThat(first.getProcessedCount()).isEqualTo(2);
+        assertThat(first.getNextToken()).isNotNull();
+        assertThat(last.getStatusCode()).isEqualTo(200);
+        assertThat(last.getNextToken()).isNull();
+        assertThat(migrated).isEqualTo(3);
+        assertThat(tags("e654ebca-38e0-487a-b609-0284923be582", "First").l()).extracting(AttributeValue::s).containsExactly("testing", "junit");
+        assertThat(tags("e654ebca-38e0-487a-b609-0284923be582", "Second").l()).isEmpty();
+        assertThat(tags("e654ebca-38e0-487a-b609-0284923be582", "Third").l()).extracting(AttributeValue::s).containsExactly("a,b");
+        assertThat(tags("f2c1b7a0-1d5e-4f4e-9a53-8b0f7a6c2d11", "Fourth").l()).extracting(AttributeValue::s).containsExactly("assertj");
+        assertThat(dynamoDbClient.item("posts", "e654ebca-38e0-487a-b609-0284923be582#TAG#junit", "First")).isNotNull();
+        assertThat(dynamoDbClient.item("posts", "f2c1b7a0-1d5e-4f4e-9a53-8b0f7a6c2d11#TAG#assertj", "Fourth")).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Posts read the same before and after the migration")
+    void test_2() throws IOException {
+        // given
+        put("e654ebca-38e0-487a-b609-0284923be582", "First", AttributeValue.builder().s("testing,junit").build());
+        var request = new ClassPathResource("/requests/get-posts.json").getInputStream().readAllBytes();
+        var before = getPosts.apply(request).getPosts();
+
+        // when
+        migratePostTags.apply(new ClassPathResource("/requests/migrate-post-tags.json").getInputStream().readAllBytes());
+
+        // then
+        assertThat(tags("e654ebca-38e0-487a-b609-0284923be582", "First").hasL()).isTrue();
+        assertThat(getPosts.apply(request).getPosts()).isEqualTo(before);
+    }
+
+    @Test
+    @DisplayName("Malformed next tokens are rejected")
+    void test_3() throws IOException {
+        // given
+        var request = objectMapper.writeValueAsBytes(Map.of(
+                "headers", Map.of("x-function-name", "migratePostTags", "x-next-token", "not-a-token")));
+
+        // when
+        // then
+        assertThatThrownBy(() -> migratePostTags.apply(request)).hasMessage("400 Invalid next token");
+    }
+
+    private void put(String userId, String postTitle, AttributeValue postTags) {
+        dynamoDbClient.putItem(PutItemRequest.builder()
+                .tableName("posts")
+                .item(Map.of(
+                        USER_ID, AttributeValue.builder().s(userId).build(),
+                        POST_TITLE, AttributeValue.builder().s(postTitle).build(),
+                        POST_BODY, AttributeValue.builder().s("Lorem ipsum").build(),
+                        POST_TAGS, postTags
+                ))
+                .build());
+    }
+
+    private AttributeValue tags(String userId, String postTitle) {
+        return dynamoDbClient.item("posts", userId, postTitle).get(POST_TAGS);
+    }
+
+}
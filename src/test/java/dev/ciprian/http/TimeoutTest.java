@@ -0,0 +1,141 @@
+package dev.ciprian.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.config.BodyCompressionConfig;
+import dev.ciprian.config.CacheConfig;
+import dev.ciprian.config.DynamoDbConfig;
+import dev.ciprian.config.JwtConfig;
+import dev.ciprian.config.MetricsConfig;
+import dev.ciprian.config.SdkClientProperties;
+import dev.ciprian.config.SdkClients;
+import dev.ciprian.config.TracingConfig;
+import dev.ciprian.exceptions.CustomException;
+import dev.ciprian.metrics.MetricsRecorder;
+import dev.ciprian.models.response.PostsResponse;
+import dev.ciprian.service.AsyncPostsService;
+import dev.ciprian.service.BatchWriter;
+import dev.ciprian.service.HedgedReader;
+import dev.ciprian.service.PostMapper;
+import dev.ciprian.service.PostsCache;
+import dev.ciprian.service.PostsService;
+import dev.ciprian.service.TokenVerifier;
+import dev.ciprian.stub.StubAwsServer;
+import dev.ciprian.tracing.Tracer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(
+        classes = {PostsConfig.class, DynamoDbConfig.class, ObjectMapper.class, PostsService.class, PostMapper.class, BodyCompressionConfig.class, BatchWriter.class, HedgedReader.class, PostsCache.class, CacheConfig.class, TokenVerifier.class, JwtConfig.class, MetricsRecorder.class, MetricsConfig.class, Tracer.class, TracingConfig.class, AsyncPostsService.class, TimeoutTest.SlowClientsConfig.class},
+        properties = "dynamodb.async=true"
+)
+class TimeoutTest {
+
+    private static final String QUERY = "DynamoDB_20120810.Query";
+    private static final StubAwsServer SERVER = server();
+
+    @Autowired
+    @Qualifier("getPosts")
+    Function<byte[], PostsResponse> getPosts;
+
+    @Autowired
+    @Qualifier("getPostsByTag")
+    Function<byte[], PostsResponse> getPostsByTag;
+
+    @AfterAll
+    static void stopServer() {
+        SERVER.close();
+    }
+
+    @Test
+    @DisplayName("Should answer with a 504 when the async client gives up waiting for DynamoDB")
+    void test_1() throws IOException {
+        // given
+        var request = new ClassPathResource("/requests/get-posts.json").getInputStream().readAllBytes();
+
+        // when
+        // then
+        assertThatThrownBy(() -> getPosts.apply(request))
+                .isInstanceOf(CustomException.class)
+                .hasMessageStartingWith("504 ");
+    }
+
+    @Test
+    @DisplayName("Should answer with a 504 when the sync client gives up waiting for DynamoDB")
+    void test_2() throws IOException {
+        // given
+        var request = new ClassPathResource("/requests/get-posts-by-tag.json").getInputStream().readAllBytes();
+
+        // when
+        // then
+        assertThatThrownBy(() -> getPostsByTag.apply(request))
+                .isInstanceOf(CustomException.class)
+                .hasMessageStartingWith("504 ");
+    }
+
+    private static StubAwsServer server() {
+        try {
+            return new StubAwsServer().delay(QUERY, 2000);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static SdkClientProperties properties() {
+        var properties = new SdkClientProperties();
+        properties.setEndpointOverride(SERVER.endpoint());
+        properties.setApiCallTimeoutMillis(300L);
+        properties.setApiCallAttemptTimeoutMillis(100L);
+        properties.getRetry().setBaseDelayMillis(1);
+        properties.getRetry().setMaxBackoffMillis(5);
+        return properties;
+    }
+
+    // real clients with short timeouts against a DynamoDB that answers too late
+    @TestConfiguration
+    static class SlowClientsConfig {
+
+        @Bean
+        @Lazy
+        @Primary
+        DynamoDbClient slowDynamoDbClient() {
+            var builder = DynamoDbClient.builder()
+                    .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("key", "secret")));
+            return SdkClients.build(builder, "eu-central-1", properties());
+        }
+
+        @Bean
+        @Lazy
+        @Primary
+        DynamoDbAsyncClient slowDynamoDbAsyncClient() {
+            return DynamoDbAsyncClient.builder()
+                    .region(Region.EU_CENTRAL_1)
+                    .endpointOverride(URI.create(SERVER.endpoint()))
+                    .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("key", "secret")))
+                    .overrideConfiguration(SdkClients.overrideConfiguration(properties(), true))
+                    .build();
+        }
+
+    }
+
+}
@@ -2,16 +2,21 @@ package dev.ciprian.http;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.ciprian.config.CognitoConfig;
+import dev.ciprian.config.MetricsConfig;
+import dev.ciprian.config.TracingConfig;
 import dev.ciprian.exceptions.CustomException;
+import dev.ciprian.metrics.MetricsRecorder;
 import dev.ciprian.models.response.AccessResponse;
 import dev.ciprian.models.response.GenericResponse;
 import dev.ciprian.service.LoginService;
 import dev.ciprian.service.RegisterService;
+import dev.ciprian.tracing.Tracer;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.core.io.ClassPathResource;
@@ -25,19 +30,25 @@ import java.util.function.Function;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.when;
 
-@SpringBootTest(classes = {UsersConfig.class, CognitoConfig.class, RegisterService.class, LoginService.class, ObjectMapper.class})
+@SpringBootTest(classes = {UsersConfig.class, CognitoConfig.class, RegisterService.class, LoginService.class, ObjectMapper.class, MetricsRecorder.class, MetricsConfig.class, Tracer.class, TracingConfig.class})
 class UsersConfigTest {
 
     @MockBean
     CognitoIdentityProviderClient cognitoIdentityProviderClient;
 
     @Autowired
-    Function<String, GenericResponse> registerUser;
+    Function<byte[], GenericResponse> registerUser;
 
     @Autowired
-    Function<String, AccessResponse> loginUser;
+    @Qualifier("loginUser")
+    Function<byte[], AccessResponse> loginUser;
+
+    @Autowired
+    @Qualifier("refreshLogin")
+    Function<byte[], AccessResponse> refreshLogin;
 
     @Test
     @DisplayName("Context loads fine")
@@ -50,8 +61,7 @@ class UsersConfigTest {
         // given
         when(cognitoIdentityProviderClient.adminCreateUser(any(AdminCreateUserRequest.class))).thenReturn(AdminCreateUserResponse.builder().build());
         when(cognitoIdentityProviderClient.adminSetUserPassword(any(AdminSetUserPasswordRequest.class))).thenReturn(AdminSetUserPasswordResponse.builder().build());
-        var fileContent = new ClassPathResource("/requests/register-user.json").getInputStream().readAllBytes();
-        var request = new String(fileContent);
+        var request = new ClassPathResource("/requests/register-user.json").getInputStream().readAllBytes();
 
         // when
         var response = registerUser.apply(request);
@@ -68,8 +78,7 @@ class UsersConfigTest {
         // given
         var exception = SdkServiceException.builder().statusCode(500).message("Call failed").build();
         when(cognitoIdentityProviderClient.adminCreateUser(any(AdminCreateUserRequest.class))).thenThrow(exception);
-        var fileContent = new ClassPathResource("/requests/register-user.json").getInputStream().readAllBytes();
-        var request = new String(fileContent);
+        var request = new ClassPathResource("/requests/register-user.json").getInputStream().readAllBytes();
 
         // when
         // then
@@ -84,8 +93,7 @@ class UsersConfigTest {
         var exception = SdkServiceException.builder().statusCode(500).message("Call failed").build();
         when(cognitoIdentityProviderClient.adminCreateUser(any(AdminCreateUserRequest.class))).thenReturn(AdminCreateUserResponse.builder().build());
         when(cognitoIdentityProviderClient.adminSetUserPassword(any(AdminSetUserPasswordRequest.class))).thenThrow(exception);
-        var fileContent = new ClassPathResource("/requests/register-user.json").getInputStream().readAllBytes();
-        var request = new String(fileContent);
+        var request = new ClassPathResource("/requests/register-user.json").getInputStream().readAllBytes();
 
         // when
         // then
@@ -98,8 +106,7 @@ class UsersConfigTest {
     @DisplayName("Exception is thrown if the registration request is invalid")
     void test_4(String filename) throws IOException {
         // given
-        var fileContent = new ClassPathResource("/requests/%s.json".formatted(filename)).getInputStream().readAllBytes();
-        var request = new String(fileContent);
+        var request = new ClassPathResource("/requests/%s.json".formatted(filename)).getInputStream().readAllBytes();
 
         // when
         // then
@@ -114,8 +121,7 @@ class UsersConfigTest {
         var resultType = AuthenticationResultType.builder().tokenType("Bearer").expiresIn(3600).accessToken("token").refreshToken("token").idToken("token").build();
         var authResponse = AdminInitiateAuthResponse.builder().authenticationResult(resultType).build();
         when(cognitoIdentityProviderClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class))).thenReturn(authResponse);
-        var fileContent = new ClassPathResource("/requests/login-user.json").getInputStream().readAllBytes();
-        var request = new String(fileContent);
+        var request = new ClassPathResource("/requests/login-user.json").getInputStream().readAllBytes();
 
         // when
         var response = loginUser.apply(request);
@@ -137,8 +143,7 @@ class UsersConfigTest {
         // given
         var exception = SdkServiceException.builder().statusCode(500).message("Call failed").build();
         when(cognitoIdentityProviderClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class))).thenThrow(exception);
-        var fileContent = new ClassPathResource("/requests/login-user.json").getInputStream().readAllBytes();
-        var request = new String(fileContent);
+        var request = new ClassPathResource("/requests/login-user.json").getInputStream().readAllBytes();
 
         // when
         // then
@@ -151,8 +156,7 @@ class UsersConfigTest {
     @DisplayName("Exception is thrown if the login request is invalid")
     void test_7(String filename) throws IOException {
         // given
-        var fileContent = new ClassPathResource("/requests/%s.json".formatted(filename)).getInputStream().readAllBytes();
-        var request = new String(fileContent);
+        var request = new ClassPathResource("/requests/%s.json".formatted(filename)).getInputStream().readAllBytes();
 
         // when
         // then
@@ -160,4 +164,52 @@ class UsersConfigTest {
         assertThatThrownBy(() -> loginUser.apply(request)).hasMessage("400 Invalid data");
     }
 
+    @Test
+    @DisplayName("User should be able to refresh the login with a refresh token")
+    void test_8() throws IOException {
+        // given
+        var resultType = AuthenticationResultType.builder().tokenType("Bearer").expiresIn(3600).accessToken("token").idToken("token").build();
+        var authResponse = AdminInitiateAuthResponse.builder().authenticationResult(resultType).build();
+        when(cognitoIdentityProviderClient.adminInitiateAuth(argThat((AdminInitiateAuthRequest request) ->
+                request.authFlow() == AuthFlowType.REFRESH_TOKEN_AUTH && "token".equals(request.authParameters().get("REFRESH_TOKEN")))))
+                .thenReturn(authResponse);
+        var request = new ClassPathResource("/requests/refresh-login.json").getInputStream().readAllBytes();
+
+        // when
+        var response = refreshLogin.apply(request);
+
+        // then
+        assertThat(response).isNotNull();
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThat(response.getAccessToken()).isNotBlank();
+        assertThat(response.getIdToken()).isNotBlank();
+        assertThat(response.getRefreshToken()).isNull();
+    }
+
+    @Test
+    @DisplayName("Exception is thrown if the AWS call fails for the refresh login function")
+    void test_9() throws IOException {
+        // given
+        var exception = SdkServiceException.builder().statusCode(400).message("Refresh Token has expired").build();
+        when(cognitoIdentityProviderClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class))).thenThrow(exception);
+        var request = new ClassPathResource("/requests/refresh-login.json").getInputStream().readAllBytes();
+
+        // when
+        // then
+        assertThatThrownBy(() -> refreshLogin.apply(request)).isInstanceOf(CustomException.class);
+        assertThatThrownBy(() -> refreshLogin.apply(request)).hasMessage("400 Refresh Token has expired");
+    }
+
+    @Test
+    @DisplayName("Exception is thrown if the refresh token is missing")
+    void test_10() throws IOException {
+        // given
+        var request = new ClassPathResource("/requests/refresh-login-no-token.json").getInputStream().readAllBytes();
+
+        // when
+        // then
+        assertThatThrownBy(() -> refreshLogin.apply(request)).isInstanceOf(CustomException.class);
+        assertThatThrownBy(() -> refreshLogin.apply(request)).hasMessage("400 Invalid data");
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,210 @@
+package dev.ciprian.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.Application;
+import dev.ciprian.models.domain.Post;
+import dev.ciprian.models.response.GenericResponse;
+import dev.ciprian.models.response.PostResponse;
+import dev.ciprian.models.response.PostsResponse;
+import dev.ciprian.models.response.ProgressResponse;
+import dev.ciprian.service.PostMapper;
+import dev.ciprian.stub.InMemoryDynamoDbClient;
+import dev.ciprian.stub.StubClientsConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import static dev.ciprian.constants.PostConstants.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+        classes = {Application.class, StubClientsConfig.class},
+        properties = {"REGION=eu-central-1", "USER_POOL_ID=eu-central-1_test", "CLIENT_ID=client", "TABLE_NAME=posts",
+                "dynamodb.version-tags-enabled=true", "cache.enabled=true"}
+)
+class VersionTagsTest {
+
+    private static final String USER_ID_VALUE = "e654ebca-38e0-487a-b609-0284923be582";
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    InMemoryDynamoDbClient dynamoDbClient;
+
+    @Autowired
+    PostMapper postMapper;
+
+    @Autowired
+    @Qualifier("getPosts")
+    Function<byte[], PostsResponse> getPosts;
+
+    @Autowired
+    @Qualifier("getPost")
+    Function<byte[], PostResponse> getPost;
+
+    @Autowired
+    @Qualifier("savePost")
+    Function<byte[], GenericResponse> savePost;
+
+    @Autowired
+    @Qualifier("deletePost")
+    Function<byte[], GenericResponse> deletePost;
+
+    @Autowired
+    @Qualifier("deleteAllPosts")
+    Function<byte[], ProgressResponse> deleteAllPosts;
+
+    @BeforeEach
+    void setUp() {
+        dynamoDbClient.clear();
+    }
+
+    @Test
+    @DisplayName("A matching version tag is answered as not modified after a single read")
+    void test_1() throws IOException {
+        // given
+        put("First");
+        var etag = getPosts.apply(getPostsRequest(null, null)).getEtag();
+        var requests = dynamoDbClient.requestCount();
+
+        // when
+        var response = getPosts.apply(getPostsRequest(etag, null));
+
+        // then
+        assertThat(etag).isNotNull();
+        assertThat(response.getStatusCode()).isEqualTo(304);
+        assertThat(response.getEtag()).isEqualTo(etag);
+        assertThat(response.getPosts()).isNull();
+        assertThat(dynamoDbClient.requestCount()).isEqualTo(requests + 1);
+    }
+
+    @Test
+    @DisplayName("Saving and deleting posts moves the version tag")
+    void test_2() throws IOException {
+        // given
+        put("My new post");
+        var initial = getPosts.apply(getPostsRequest(null, null)).getEtag();
+
+        // when
+        savePost.apply(new ClassPathResource("/requests/save-post.json").getInputStream().readAllBytes());
+        var saved = getPosts.apply(getPostsRequest(initial, null));
+        deletePost.apply(new ClassPathResource("/requests/delete-post.json").getInputStream().readAllBytes());
+        var deleted = getPosts.apply(getPostsRequest(saved.getEtag(), null));
+
+        // then
+        assertThat(saved.getStatusCode()).isEqualTo(200);
+        assertThat(saved.getPosts()).hasSize(2);
+        assertThat(saved.getEtag()).isNotEqualTo(initial);
+        assertThat(deleted.getStatusCode()).isEqualTo(200);
+        assertThat(deleted.getPosts()).hasSize(1);
+        assertThat(deleted.getEtag()).isNotIn(initial, saved.getEtag());
+        assertThat(dynamoDbClient.item("posts", USER_ID_VALUE + "#VERSION", "#VERSION").get(POSTS_VERSION).n()).isEqualTo("2");
+    }
+
+    @Test
+    @DisplayName("Version tags differ between pages of the same version")
+    void test_3() throws IOException {
+        // given
+        put("First");
+        var etag = getPosts.apply(getPostsRequest(null, null)).getEtag();
+
+        // when
+        var response = getPosts.apply(getPostsRequest(etag, "1"));
+
+        // then
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThat(response.getEtag()).isNotEqualTo(etag);
+    }
+
+    @Test
+    @DisplayName("Cached posts are skipped once another instance moved the version")
+    void test_4() throws IOException {
+        // given
+        put("First");
+        getPosts.apply(getPostsRequest(null, null));
+        put("Second");
+        dynamoDbClient.updateItem(postMapper.versionUpdateRequest("posts", USER_ID_VALUE));
+
+        // when
+        var response = getPosts.apply(getPostsRequest(null, null));
+
+        // then
+        assertThat(response.getPosts()).extracting(Post::postTitle).containsExactly("First", "Second");
+    }
+
+    @Test
+    @DisplayName("A single post is not served from a list cached at an older version")
+    void test_5() throws IOException {
+        // given
+        put("First");
+        getPosts.apply(getPostsRequest(null, null));
+        put("Remember to test");
+        dynamoDbClient.updateItem(postMapper.versionUpdateRequest("posts", USER_ID_VALUE));
+
+        // when
+        var response = getPost.apply(new ClassPathResource("/requests/get-post.json").getInputStream().readAllBytes());
+
+        // then
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThat(response.getPost().postTitle()).isEqualTo("Remember to test");
+    }
+
+    @Test
+    @DisplayName("Deletes that remove nothing leave the version tag alone")
+    void test_6() throws IOException {
+        // given
+        var initial = getPosts.apply(getPostsRequest(null, null)).getEtag();
+
+        // when
+        var deleted = deletePost.apply(new ClassPathResource("/requests/delete-post.json").getInputStream().readAllBytes());
+        var deletedAll = deleteAllPosts.apply(new ClassPathResource("/requests/delete-all-posts.json").getInputStream().readAllBytes());
+        var response = getPosts.apply(getPostsRequest(initial, null));
+
+        // then
+        assertThat(deleted.getStatusCode()).isEqualTo(204);
+        assertThat(deletedAll.getProcessedCount()).isZero();
+        assertThat(response.getStatusCode()).isEqualTo(304);
+        assertThat(dynamoDbClient.item("posts", USER_ID_VALUE + "#VERSION", "#VERSION")).isNull();
+    }
+
+    private byte[] getPostsRequest(String ifNoneMatch, String pageSize) throws IOException {
+        var headers = new HashMap<String, String>();
+        headers.put("x-function-name", "getPosts");
+        headers.put("x-user-id", USER_ID_VALUE);
+
+        if (ifNoneMatch != null) {
+            headers.put("if-none-match", ifNoneMatch);
+        }
+
+        if (pageSize != null) {
+            headers.put("x-page-size", pageSize);
+        }
+
+        return objectMapper.writeValueAsBytes(Map.of("headers", headers));
+    }
+
+    private void put(String postTitle) {
+        dynamoDbClient.putItem(PutItemRequest.builder()
+                .tableName("posts")
+                .item(Map.of(
+                        USER_ID, AttributeValue.builder().s(USER_ID_VALUE).build(),
+                        POST_TITLE, AttributeValue.builder().s(postTitle).build(),
+                        POST_BODY, AttributeValue.builder().s("Lorem ipsum").build(),
+                        POST_TAGS, AttributeValue.builder().l(AttributeValue.builder().s("junit").build()).build()
+                ))
+                .build());
+    }
+
+}
@@ -0,0 +1,235 @@
+package dev.ciprian.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.config.CacheConfig;
+import dev.ciprian.config.MetricsConfig;
+import dev.ciprian.config.SdkClientProperties;
+import dev.ciprian.config.SdkClients;
+import dev.ciprian.config.TracingConfig;
+import dev.ciprian.exceptions.CustomException;
+import dev.ciprian.models.domain.Post;
+import dev.ciprian.models.response.GenericResponse;
+import dev.ciprian.service.InvocationContext;
+import dev.ciprian.service.PostsCache;
+import dev.ciprian.stub.StubAwsServer;
+import dev.ciprian.tracing.Tracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MetricsRecorderTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final Tracer TRACER = new Tracer(new TracingConfig(), OBJECT_MAPPER);
+
+    private final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+    private PrintStream originalOut;
+
+    @BeforeEach
+    void setUp() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(stdout, true, StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Test
+    @DisplayName("Every invocation flushes one EMF document with phases, status and sizes")
+    void test_1() throws IOException {
+        // given
+        var metricsRecorder = new MetricsRecorder(metrics(true), TRACER, OBJECT_MAPPER);
+        Function<byte[], GenericResponse> function = metricsRecorder.wrap("savePost", request -> {
+            metricsRecorder.lap(Phase.DECODE);
+            metricsRecorder.userId("e654ebca-38e0-487a-b609-0284923be582");
+            metricsRecorder.lap(Phase.VALIDATE);
+            metricsRecorder.lap(Phase.BACKEND);
+            return new GenericResponse(true, 201);
+        });
+
+        // when
+        function.apply("{\"headers\":{}}".getBytes(StandardCharsets.UTF_8));
+
+        // then
+        var document = document();
+        var definition = document.at("/_aws/CloudWatchMetrics/0");
+        var metricNames = new ArrayList<String>();
+        definition.get("Metrics").forEach(metric -> metricNames.add(metric.get("Name").textValue()));
+        assertThat(definition.get("Namespace").textValue()).isEqualTo("UserPostsLambda");
+        assertThat(definition.at("/Dimensions/0/0").textValue()).isEqualTo("Function");
+        assertThat(metricNames).contains("Duration", "DecodeTime", "ValidateTime", "BackendTime",
+                "RequestBytes", "SdkCalls", "SdkAttempts", "Throttles", "Retries", "GiveUps", "ReadCapacityUnits",
+                "WriteCapacityUnits");
+        assertThat(document.get("Function").textValue()).isEqualTo("savePost");
+        assertThat(document.get("StatusCode").intValue()).isEqualTo(201);
+        assertThat(document.get("UserId").textValue()).isEqualTo("e654ebca-38e0-487a-b609-0284923be582");
+        assertThat(document.get("RequestBytes").intValue()).isEqualTo(14);
+        assertThat(metricNames).doesNotContain("EncodeTime", "ResponseBytes");
+        assertThat(document.get("Error").intValue()).isZero();
+        assertThat(document.get("Fault").intValue()).isZero();
+    }
+
+    @Test
+    @DisplayName("Failed invocations are flushed with the status of the exception")
+    void test_2() throws IOException {
+        // given
+        var metricsRecorder = new MetricsRecorder(metrics(true), TRACER, OBJECT_MAPPER);
+        Function<byte[], GenericResponse> function = metricsRecorder.wrap("getPosts", request -> {
+            throw new CustomException("403 Invalid user id");
+        });
+
+        // when
+        // then
+        assertThatThrownBy(() -> function.apply(new byte[0])).hasMessage("403 Invalid user id");
+        var document = document();
+        assertThat(document.get("StatusCode").intValue()).isEqualTo(403);
+        assertThat(document.get("Error").intValue()).isEqualTo(1);
+        assertThat(InvocationMetrics.current()).isNull();
+    }
+
+    @Test
+    @DisplayName("Functions are left unwrapped when metrics are disabled")
+    void test_3() {
+        // given
+        var metricsRecorder = new MetricsRecorder(metrics(false), TRACER, OBJECT_MAPPER);
+        Function<byte[], GenericResponse> function = request -> new GenericResponse(true, 200);
+
+        // when
+        var wrapped = metricsRecorder.wrap("getPosts", function);
+        wrapped.apply(new byte[0]);
+
+        // then
+        assertThat(wrapped).isSameAs(function);
+        assertThat(stdout.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("SDK calls, attempts and consumed capacity are recorded by the interceptor")
+    void test_4() throws IOException {
+        try (var server = new StubAwsServer()) {
+            // given
+            server.respond("DynamoDB_20120810.Query", "{\"Count\":0,\"Items\":[],\"ConsumedCapacity\":{\"TableName\":\"posts\",\"CapacityUnits\":0.5}}");
+            var properties = new SdkClientProperties();
+            properties.setEndpointOverride(server.endpoint());
+            var builder = DynamoDbClient.builder()
+                    .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("key", "secret")));
+
+            try (var client = SdkClients.build(builder, "eu-central-1", properties)) {
+                var metrics = InvocationMetrics.start("getPosts", 0);
+
+                // when
+                client.query(QueryRequest.builder()
+                        .tableName("posts")
+                        .keyConditionExpression("UserId = :sub")
+                        .expressionAttributeValues(Map.of(":sub", AttributeValue.builder().s("sub").build()))
+                        .build());
+                metrics.finish();
+
+                // then
+                assertThat(server.lastRequestBody()).contains("\"ReturnConsumedCapacity\":\"TOTAL\"");
+                assertThat(metrics.sdkCalls()).isEqualTo(1);
+                assertThat(metrics.sdkAttempts()).isEqualTo(1);
+                assertThat(metrics.readCapacityUnits()).isEqualTo(0.5);
+                assertThat(metrics.writeCapacityUnits()).isZero();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Threads started during an invocation only see its metrics when they are handed over")
+    void test_5() throws Exception {
+        // given
+        var metricsRecorder = new MetricsRecorder(metrics(true), TRACER, OBJECT_MAPPER);
+        var inherited = new AtomicReference<InvocationMetrics>();
+        var handedOver = new AtomicReference<InvocationMetrics>();
+        var restored = new AtomicReference<InvocationMetrics>();
+        var executor = Executors.newSingleThreadExecutor();
+
+        try {
+            // when
+            metricsRecorder.wrap("getPosts", request -> {
+                var propagated = InvocationContext.propagate(InvocationMetrics::current);
+
+                try {
+                    inherited.set(executor.submit(InvocationMetrics::current).get());
+                    handedOver.set(executor.submit(propagated::get).get());
+                    restored.set(executor.submit(InvocationMetrics::current).get());
+                } catch (InterruptedException | ExecutionException exception) {
+                    throw new IllegalStateException(exception);
+                }
+
+                return new GenericResponse(true, 200);
+            }).apply(new byte[0]);
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        assertThat(inherited.get()).isNull();
+        assertThat(handedOver.get()).isNotNull();
+        assertThat(handedOver.get().functionName()).isEqualTo("getPosts");
+        assertThat(restored.get()).isNull();
+    }
+
+    @Test
+    @DisplayName("Posts cache hits and misses are counted for the invocation that caused them")
+    void test_6() throws IOException {
+        // given
+        var cacheConfig = new CacheConfig();
+        cacheConfig.setEnabled(true);
+        var postsCache = new PostsCache(cacheConfig);
+        var metricsRecorder = new MetricsRecorder(metrics(true), TRACER, OBJECT_MAPPER);
+
+        // when
+        metricsRecorder.wrap("getPosts", request -> {
+            postsCache.get("e654ebca-38e0-487a-b609-0284923be582");
+            postsCache.put("e654ebca-38e0-487a-b609-0284923be582", List.of(new Post("Title", "Body", List.of())),
+                    postsCache.generation("e654ebca-38e0-487a-b609-0284923be582"));
+            postsCache.get("e654ebca-38e0-487a-b609-0284923be582");
+            return new GenericResponse(true, 200);
+        }).apply(new byte[0]);
+
+        // then
+        var document = document();
+        assertThat(document.get("CacheHits").intValue()).isEqualTo(1);
+        assertThat(document.get("CacheMisses").intValue()).isEqualTo(1);
+        assertThat(document.get("CacheEvictions").intValue()).isZero();
+    }
+
+    private JsonNode document() throws IOException {
+        var lines = stdout.toString(StandardCharsets.UTF_8).strip().split("\n");
+        assertThat(lines).hasSize(1);
+        return OBJECT_MAPPER.readTree(lines[0]);
+    }
+
+    private static MetricsConfig metrics(boolean enabled) {
+        var metricsConfig = new MetricsConfig();
+        metricsConfig.setEnabled(enabled);
+        return metricsConfig;
+    }
+
+}
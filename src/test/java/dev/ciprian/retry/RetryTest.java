@@ -0,0 +1,266 @@
+package dev.ciprian.retry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.config.MetricsConfig;
+import dev.ciprian.config.SdkClientProperties;
+import dev.ciprian.config.SdkClients;
+import dev.ciprian.config.TracingConfig;
+import dev.ciprian.metrics.MetricsRecorder;
+import dev.ciprian.models.response.GenericResponse;
+import dev.ciprian.stub.StubAwsServer;
+import dev.ciprian.tracing.Tracer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.exception.AbortedException;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.retry.RetryPolicyContext;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RetryTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String QUERY = "DynamoDB_20120810.Query";
+    private static final String EMPTY_QUERY = "{\"Count\":0,\"Items\":[]}";
+
+    @Test
+    @DisplayName("Throttled attempts are retried, counted and slow the backend's rate limiter down")
+    void test_1() throws IOException {
+        try (var server = new StubAwsServer().respond(QUERY, EMPTY_QUERY).throttle(QUERY, "xx");
+             var client = client(server, null)) {
+            // when
+            client.query(query());
+
+            // then
+            var backend = Backend.get(Backend.name("DynamoDb", server.endpoint()));
+            assertThat(server.requestCount()).isEqualTo(3);
+            assertThat(backend.throttles()).isEqualTo(2);
+            assertThat(backend.retries()).isEqualTo(2);
+            assertThat(backend.giveUps()).isZero();
+            assertThat(backend.rateLimiter().rate()).isLessThan(1000);
+        }
+    }
+
+    @Test
+    @DisplayName("Throttles that outlast the attempts reach the caller and count as a give-up")
+    void test_2() throws IOException {
+        try (var server = new StubAwsServer().respond(QUERY, EMPTY_QUERY).throttle(QUERY, "xxxxx");
+             var client = client(server, 3)) {
+            // when
+            // then
+            assertThatThrownBy(() -> client.query(query())).isInstanceOf(ProvisionedThroughputExceededException.class);
+            var backend = Backend.get(Backend.name("DynamoDb", server.endpoint()));
+            assertThat(server.requestCount()).isEqualTo(3);
+            assertThat(backend.throttles()).isEqualTo(3);
+            assertThat(backend.retries()).isEqualTo(2);
+            assertThat(backend.giveUps()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Throttles, retries and give-ups are reported in the invocation metrics")
+    void test_3() throws IOException {
+        var originalOut = System.out;
+        var stdout = new ByteArrayOutputStream();
+
+        try (var server = new StubAwsServer().respond(QUERY, EMPTY_QUERY).throttle(QUERY, "x.");
+             var client = client(server, null)) {
+            // given
+            System.setOut(new PrintStream(stdout, true, StandardCharsets.UTF_8));
+            var metricsConfig = new MetricsConfig();
+            metricsConfig.setEnabled(true);
+            var metricsRecorder = new MetricsRecorder(metricsConfig, new Tracer(new TracingConfig(), OBJECT_MAPPER), OBJECT_MAPPER);
+
+            // when
+            metricsRecorder.wrap("getPosts", request -> {
+                client.query(query());
+                return new GenericResponse(true, 200);
+            }).apply(new byte[0]);
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        // then
+        var document = OBJECT_MAPPER.readTree(stdout.toString(StandardCharsets.UTF_8).strip());
+        assertThat(document.get("Throttles").intValue()).isEqualTo(1);
+        assertThat(document.get("Retries").intValue()).isEqualTo(1);
+        assertThat(document.get("GiveUps").intValue()).isZero();
+        assertThat(document.get("SdkAttempts").intValue()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Decorrelated jitter delays stay between the base and the cap")
+    void test_4() {
+        // given
+        var backoff = new DecorrelatedJitterBackoff(10, 200);
+        var executionAttributes = new ExecutionAttributes();
+
+        for (var retry = 0; retry < 20; retry++) {
+            // when
+            var delay = backoff.computeDelayBeforeNextRetry(RetryPolicyContext.builder()
+                    .executionAttributes(executionAttributes)
+                    .retriesAttempted(retry)
+                    .build());
+
+            // then
+            assertThat(delay.toMillis()).isBetween(10L, 200L);
+        }
+    }
+
+    @Test
+    @DisplayName("The rate limiter halves on throttles down to its floor and recovers with successes")
+    void test_5() {
+        // given
+        var rateLimiter = new AdaptiveRateLimiter(2, 8);
+
+        // when
+        rateLimiter.onThrottle();
+        rateLimiter.onThrottle();
+        rateLimiter.onThrottle();
+
+        // then
+        assertThat(rateLimiter.rate()).isEqualTo(2);
+
+        for (var index = 0; index < 2; index++) {
+            rateLimiter.reserve();
+        }
+
+        assertThat(rateLimiter.reserve()).isPositive();
+
+        for (var index = 0; index < 10; index++) {
+            rateLimiter.onSuccess();
+        }
+
+        assertThat(rateLimiter.rate()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("Async clients delay rate limited retries instead of blocking the caller")
+    void test_6() throws IOException {
+        try (var server = new StubAwsServer().respond(QUERY, EMPTY_QUERY).throttle(QUERY, "x");
+             var client = asyncClient(server)) {
+            // given
+            var start = System.nanoTime();
+
+            // when
+            var future = client.query(query());
+
+            // then
+            assertThat(future).isNotDone();
+            future.join();
+            var backend = Backend.get(Backend.name("DynamoDb", server.endpoint()));
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(900);
+            assertThat(server.requestCount()).isEqualTo(2);
+            assertThat(backend.throttles()).isEqualTo(1);
+            assertThat(backend.retries()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Waiting for the rate limiter does not count against the attempt timeout")
+    void test_7() throws IOException {
+        try (var server = new StubAwsServer().respond(QUERY, EMPTY_QUERY).throttle(QUERY, "x");
+             var client = pacedClient(server)) {
+            // given
+            var start = System.nanoTime();
+
+            // when
+            client.query(query());
+
+            // then
+            var backend = Backend.get(Backend.name("DynamoDb", server.endpoint()));
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(900);
+            assertThat(server.requestCount()).isEqualTo(2);
+            assertThat(backend.throttles()).isEqualTo(1);
+            assertThat(backend.retries()).isEqualTo(1);
+            assertThat(backend.giveUps()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("An interrupted wait for the rate limiter aborts the call and keeps the interrupt")
+    void test_8() {
+        // given
+        var rateLimiter = new AdaptiveRateLimiter(1, 1);
+        rateLimiter.reserve();
+        Thread.currentThread().interrupt();
+
+        // when
+        // then
+        assertThatThrownBy(rateLimiter::acquire).isInstanceOf(AbortedException.class);
+        assertThat(Thread.interrupted()).isTrue();
+    }
+
+    private static DynamoDbClient client(StubAwsServer server, Integer maxAttempts) {
+        var properties = new SdkClientProperties();
+        properties.setEndpointOverride(server.endpoint());
+        properties.getRetry().setMaxAttempts(maxAttempts);
+        properties.getRetry().setBaseDelayMillis(1);
+        properties.getRetry().setThrottleBaseDelayMillis(1);
+        properties.getRetry().setMaxBackoffMillis(5);
+        properties.getRetry().setMaxRequestsPerSecond(1000);
+
+        var builder = DynamoDbClient.builder()
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("key", "secret")));
+        return SdkClients.build(builder, "eu-central-1", properties);
+    }
+
+    // one request per second and attempts capped far below that, so the retry only succeeds if it waits outside the attempt timer
+    private static DynamoDbClient pacedClient(StubAwsServer server) {
+        var properties = new SdkClientProperties();
+        properties.setEndpointOverride(server.endpoint());
+        properties.setApiCallAttemptTimeoutMillis(200L);
+        properties.getRetry().setBaseDelayMillis(1);
+        properties.getRetry().setThrottleBaseDelayMillis(1);
+        properties.getRetry().setMaxBackoffMillis(5);
+        properties.getRetry().setMaxRequestsPerSecond(1);
+        properties.getRetry().setMinRequestsPerSecond(1);
+
+        var builder = DynamoDbClient.builder()
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("key", "secret")));
+        return SdkClients.build(builder, "eu-central-1", properties);
+    }
+
+    // one request per second, so the retry after the throttle owes the limiter about a second
+    private static DynamoDbAsyncClient asyncClient(StubAwsServer server) {
+        var properties = new SdkClientProperties();
+        properties.getRetry().setBaseDelayMillis(1);
+        properties.getRetry().setThrottleBaseDelayMillis(1);
+        properties.getRetry().setMaxBackoffMillis(5);
+        properties.getRetry().setMaxRequestsPerSecond(1);
+        properties.getRetry().setMinRequestsPerSecond(1);
+
+        return DynamoDbAsyncClient.builder()
+                .region(Region.EU_CENTRAL_1)
+                .endpointOverride(URI.create(server.endpoint()))
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("key", "secret")))
+                .overrideConfiguration(SdkClients.overrideConfiguration(properties, true))
+                .build();
+    }
+
+    private static QueryRequest query() {
+        return QueryRequest.builder()
+                .tableName("posts")
+                .keyConditionExpression("UserId = :sub")
+                .expressionAttributeValues(Map.of(":sub", AttributeValue.builder().s("sub").build()))
+                .build();
+    }
+
+}
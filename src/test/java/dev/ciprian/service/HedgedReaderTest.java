@@ -0,0 +1,153 @@
+package dev.ciprian.service;
+
+import dev.ciprian.config.DynamoDbConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HedgedReaderTest {
+
+    private static final int MIN_SAMPLES = 5;
+
+    @Test
+    @DisplayName("Reads run inline and are never hedged when hedging is disabled")
+    void test_1() {
+        // given
+        var hedgedReader = new HedgedReader(new DynamoDbConfig());
+        var caller = Thread.currentThread();
+
+        // when
+        var onCaller = hedgedReader.read(() -> Thread.currentThread() == caller);
+
+        // then
+        assertThat(onCaller).isTrue();
+        assertThat(hedgedReader.hedges()).isZero();
+    }
+
+    @Test
+    @DisplayName("A primary slower than the latency percentile is raced by a hedge that wins")
+    void test_2() {
+        // given
+        var hedgedReader = warmedUp(1.0);
+        var calls = new AtomicInteger();
+        var start = System.nanoTime();
+
+        // when
+        var value = hedgedReader.read(() -> calls.incrementAndGet() == 1 ? slow("primary") : "hedge");
+
+        // then
+        assertThat(value).isEqualTo("hedge");
+        assertThat(hedgedReader.hedges()).isEqualTo(1);
+        assertThat(hedgedReader.hedgeWins()).isEqualTo(1);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+    }
+
+    @Test
+    @DisplayName("Without budget left the slow primary is simply awaited")
+    void test_3() {
+        // given
+        var hedgedReader = warmedUp(0);
+        var calls = new AtomicInteger();
+
+        // when
+        var value = hedgedReader.read(() -> calls.incrementAndGet() == 1 ? slow("primary") : "hedge");
+
+        // then
+        assertThat(value).isEqualTo("primary");
+        assertThat(calls).hasValue(1);
+        assertThat(hedgedReader.hedges()).isZero();
+    }
+
+    @Test
+    @DisplayName("Async reads complete with the hedge and cancel the primary that lost")
+    void test_4() {
+        // given
+        var hedgedReader = warmedUp(1.0);
+        var primary = new CompletableFuture<String>();
+        var calls = new AtomicInteger();
+
+        // when
+        var value = hedgedReader.readAsync(() -> calls.incrementAndGet() == 1 ? primary : CompletableFuture.completedFuture("hedge")).join();
+
+        // then
+        assertThat(value).isEqualTo("hedge");
+        assertThat(primary).isCancelled();
+    }
+
+    @Test
+    @DisplayName("The read fails only after both the primary and the hedge failed")
+    void test_5() {
+        // given
+        var hedgedReader = warmedUp(1.0);
+        var calls = new AtomicInteger();
+
+        // when
+        // then
+        assertThatThrownBy(() -> hedgedReader.read(() -> {
+            if (calls.incrementAndGet() == 1) {
+                slow("primary");
+            }
+
+            throw new IllegalStateException("attempt " + calls.get() + " failed");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("The hedging delay follows slower primaries once per refresh interval, not on every read")
+    void test_6() {
+        // given
+        var hedgedReader = warmedUp(0);
+        var warmedUpDelay = hedgedReader.delayNanos();
+
+        // when
+        for (int i = 1; i < HedgedReader.REFRESH_INTERVAL; i++) {
+            hedgedReader.read(() -> pause(20));
+        }
+
+        var staleDelay = hedgedReader.delayNanos();
+        hedgedReader.read(() -> pause(20));
+
+        // then
+        assertThat(staleDelay).isEqualTo(warmedUpDelay);
+        assertThat(hedgedReader.delayNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    private static HedgedReader warmedUp(double budgetRatio) {
+        var dynamoDbConfig = new DynamoDbConfig();
+        dynamoDbConfig.getHedging().setEnabled(true);
+        dynamoDbConfig.getHedging().setMinSamples(MIN_SAMPLES);
+        dynamoDbConfig.getHedging().setMinDelayMillis(1);
+        dynamoDbConfig.getHedging().setBudgetRatio(budgetRatio);
+
+        var hedgedReader = new HedgedReader(dynamoDbConfig);
+
+        for (int i = 0; i < MIN_SAMPLES; i++) {
+            hedgedReader.read(() -> "warm-up");
+        }
+
+        return hedgedReader;
+    }
+
+    private static String slow(String value) {
+        pause(300);
+        return value;
+    }
+
+    private static String pause(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+
+        return "primary";
+    }
+
+}
@@ -0,0 +1,112 @@
+package dev.ciprian.service;
+
+import dev.ciprian.config.BodyCompressionConfig;
+import dev.ciprian.models.domain.Post;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static dev.ciprian.constants.PostConstants.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PostMapperTest {
+
+    private static final String USER_ID_VALUE = "e654ebca-38e0-487a-b609-0284923be582";
+
+    @ParameterizedTest
+    @EnumSource(BodyCodec.class)
+    @DisplayName("Bodies above the threshold are stored compressed and read back unchanged")
+    void test_1(BodyCodec codec) {
+        // given
+        var postMapper = new PostMapper(bodyCompression(codec, 1024));
+        var post = new Post("Long post", "Lorem ipsum dolor sit amet, żółć ".repeat(200), List.of("junit"));
+
+        // when
+        var item = postMapper.toItem(USER_ID_VALUE, post);
+
+        // then
+        assertThat(item.get(POST_BODY).s()).isNull();
+        assertThat(item.get(POST_BODY).b().asByteArray().length).isLessThan(post.postBody().length());
+        assertThat(item.get(POST_BODY_ENCODING).s()).isEqualTo(codec.encoding());
+        assertThat(postMapper.toPost(item)).isEqualTo(post);
+    }
+
+    @Test
+    @DisplayName("Bodies below the threshold stay plain strings")
+    void test_2() {
+        // given
+        var postMapper = new PostMapper(bodyCompression(BodyCodec.GZIP, 1024));
+        var post = new Post("Short post", "Lorem ipsum", List.of());
+
+        // when
+        var item = postMapper.toItem(USER_ID_VALUE, post);
+
+        // then
+        assertThat(item.get(POST_BODY).s()).isEqualTo("Lorem ipsum");
+        assertThat(item).doesNotContainKey(POST_BODY_ENCODING);
+    }
+
+    @Test
+    @DisplayName("Bodies that do not shrink stay plain strings")
+    void test_3() {
+        // given
+        var postMapper = new PostMapper(bodyCompression(BodyCodec.GZIP, 16));
+        var random = new Random(42);
+        var body = new StringBuilder();
+
+        for (int i = 0; i < 64; i++) {
+            body.append((char) ('!' + random.nextInt(90)));
+        }
+
+        // when
+        var item = postMapper.toItem(USER_ID_VALUE, new Post("Random post", body.toString(), List.of()));
+
+        // then
+        assertThat(item.get(POST_BODY).s()).isEqualTo(body.toString());
+        assertThat(item).doesNotContainKey(POST_BODY_ENCODING);
+    }
+
+    @Test
+    @DisplayName("Compressed bodies are still read once compression is turned off")
+    void test_4() {
+        // given
+        var post = new Post("Long post", "Lorem ipsum ".repeat(500), List.of());
+        var item = new PostMapper(bodyCompression(BodyCodec.DEFLATE, 1024)).toItem(USER_ID_VALUE, post);
+
+        // when
+        var read = new PostMapper(new BodyCompressionConfig()).toPost(item);
+
+        // then
+        assertThat(read.postBody()).isEqualTo(post.postBody());
+    }
+
+    @Test
+    @DisplayName("A binary body without its encoding marker is a decode error")
+    void test_5() {
+        // given
+        var post = new Post("Long post", "Lorem ipsum ".repeat(500), List.of());
+        var item = new HashMap<>(new PostMapper(bodyCompression(BodyCodec.DEFLATE, 1024)).toItem(USER_ID_VALUE, post));
+        item.remove(POST_BODY_ENCODING);
+
+        // when
+        // then
+        assertThatThrownBy(() -> new PostMapper(new BodyCompressionConfig()).toPost(item))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Binary body without an encoding for post: Long post");
+    }
+
+    private BodyCompressionConfig bodyCompression(BodyCodec codec, int thresholdBytes) {
+        var bodyCompressionConfig = new BodyCompressionConfig();
+        bodyCompressionConfig.setEnabled(true);
+        bodyCompressionConfig.setCodec(codec);
+        bodyCompressionConfig.setThresholdBytes(thresholdBytes);
+        return bodyCompressionConfig;
+    }
+
+}
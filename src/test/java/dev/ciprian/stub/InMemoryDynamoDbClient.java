@@ -0,0 +1,316 @@
+package dev.ciprian.stub;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import static dev.ciprian.constants.PostConstants.POST_TITLE;
+import static dev.ciprian.constants.PostConstants.USER_ID;
+
+public class InMemoryDynamoDbClient implements DynamoDbClient {
+
+    private final Map<String, ConcurrentSkipListMap<String, Map<String, AttributeValue>>> tables = new ConcurrentHashMap<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    public void clear() {
+        tables.clear();
+        requestCount.set(0);
+    }
+
+    public int requestCount() {
+        return requestCount.get();
+    }
+
+    public Map<String, AttributeValue> item(String tableName, String userId, String postTitle) {
+        return table(tableName).get(key(userId, postTitle));
+    }
+
+    @Override
+    public PutItemResponse putItem(PutItemRequest putItemRequest) {
+        requestCount.incrementAndGet();
+
+        var item = putItemRequest.item();
+        table(putItemRequest.tableName()).put(key(item), Map.copyOf(item));
+        return PutItemResponse.builder().build();
+    }
+
+    @Override
+    public GetItemResponse getItem(GetItemRequest getItemRequest) {
+        requestCount.incrementAndGet();
+
+        var item = table(getItemRequest.tableName()).get(key(getItemRequest.key()));
+        return GetItemResponse.builder()
+                .item(item == null ? null : project(item, getItemRequest.projectionExpression(), getItemRequest.expressionAttributeNames()))
+                .build();
+    }
+
+    @Override
+    public DeleteItemResponse deleteItem(DeleteItemRequest deleteItemRequest) {
+        requestCount.incrementAndGet();
+
+        var previous = table(deleteItemRequest.tableName()).remove(key(deleteItemRequest.key()));
+        var returnOld = deleteItemRequest.returnValues() == ReturnValue.ALL_OLD && previous != null;
+        return DeleteItemResponse.builder().attributes(returnOld ? previous : null).build();
+    }
+
+    @Override
+    public BatchWriteItemResponse batchWriteItem(BatchWriteItemRequest batchWriteItemRequest) {
+        requestCount.incrementAndGet();
+
+        batchWriteItemRequest.requestItems().forEach((tableName, writeRequests) -> {
+            for (var writeRequest : writeRequests) {
+                if (writeRequest.putRequest() != null) {
+                    table(tableName).put(key(writeRequest.putRequest().item()), Map.copyOf(writeRequest.putRequest().item()));
+                } else if (writeRequest.deleteRequest() != null) {
+                    table(tableName).remove(key(writeRequest.deleteRequest().key()));
+                }
+            }
+        });
+
+        return BatchWriteItemResponse.builder().build();
+    }
+
+    @Override
+    public QueryResponse query(QueryRequest queryRequest) {
+        requestCount.incrementAndGet();
+
+        var userId = queryRequest.expressionAttributeValues().get(":sub").s();
+        var table = table(queryRequest.tableName());
+        var from = queryRequest.hasExclusiveStartKey() ? key(queryRequest.exclusiveStartKey()) : key(userId, "");
+        var limit = queryRequest.limit() != null ? queryRequest.limit() : Integer.MAX_VALUE;
+        var items = new ArrayList<Map<String, AttributeValue>>();
+        Map<String, AttributeValue> lastEvaluatedKey = null;
+
+        for (var entry : table.tailMap(from, !queryRequest.hasExclusiveStartKey()).entrySet()) {
+            if (!entry.getKey().startsWith(userId + "\u0000")) {
+                break;
+            }
+
+            if (items.size() == limit) {
+                var last = items.getLast();
+                lastEvaluatedKey = Map.of(USER_ID, last.get(USER_ID), POST_TITLE, last.get(POST_TITLE));
+                break;
+            }
+
+            items.add(project(entry.getValue(), queryRequest.projectionExpression(), queryRequest.expressionAttributeNames()));
+        }
+
+        return QueryResponse.builder()
+                .items(items)
+                .count(items.size())
+                .lastEvaluatedKey(lastEvaluatedKey)
+                .build();
+    }
+
+    @Override
+    public ScanResponse scan(ScanRequest scanRequest) {
+        requestCount.incrementAndGet();
+
+        var table = table(scanRequest.tableName());
+        var entries = scanRequest.hasExclusiveStartKey() ? table.tailMap(key(scanRequest.exclusiveStartKey()), false) : table;
+        var limit = scanRequest.limit() != null ? scanRequest.limit() : Integer.MAX_VALUE;
+        var items = new ArrayList<Map<String, AttributeValue>>();
+        var evaluated = 0;
+        Map<String, AttributeValue> lastEvaluatedKey = null;
+
+        // like DynamoDB, the limit counts evaluated items and the filter only runs afterwards
+        for (var item : entries.values()) {
+            if (evaluated == limit) {
+                break;
+            }
+
+            evaluated++;
+            lastEvaluatedKey = Map.of(USER_ID, item.get(USER_ID), POST_TITLE, item.get(POST_TITLE));
+
+            if (matchesTypeFilter(item, scanRequest)) {
+                items.add(project(item, scanRequest.projectionExpression(), scanRequest.expressionAttributeNames()));
+            }
+        }
+
+        var hasMore = lastEvaluatedKey != null && table.higherKey(key(lastEvaluatedKey)) != null;
+
+        return ScanResponse.builder()
+                .items(items)
+                .count(items.size())
+                .scannedCount(evaluated)
+                .lastEvaluatedKey(hasMore ? lastEvaluatedKey : null)
+                .build();
+    }
+
+    @Override
+    public UpdateItemResponse updateItem(UpdateItemRequest updateItemRequest) {
+        requestCount.incrementAndGet();
+
+        var table = table(updateItemRequest.tableName());
+
+        synchronized (tables) {
+            if (!conditionHolds(table.get(key(updateItemRequest.key())), updateItemRequest.conditionExpression(),
+                    updateItemRequest.expressionAttributeNames(), updateItemRequest.expressionAttributeValues())) {
+                throw ConditionalCheckFailedException.builder().message("The conditional request failed").statusCode(400).build();
+            }
+
+            update(table, updateItemRequest.key(), updateItemRequest.updateExpression(),
+                    updateItemRequest.expressionAttributeNames(), updateItemRequest.expressionAttributeValues());
+        }
+
+        return UpdateItemResponse.builder().build();
+    }
+
+    @Override
+    public TransactWriteItemsResponse transactWriteItems(TransactWriteItemsRequest transactWriteItemsRequest) {
+        requestCount.incrementAndGet();
+
+        synchronized (tables) {
+            var reasons = new ArrayList<CancellationReason>();
+
+            for (var transactItem : transactWriteItemsRequest.transactItems()) {
+                var update = transactItem.update();
+                var holds = update == null || conditionHolds(table(update.tableName()).get(key(update.key())),
+                        update.conditionExpression(), update.expressionAttributeNames(), update.expressionAttributeValues());
+                reasons.add(CancellationReason.builder().code(holds ? "None" : "ConditionalCheckFailed").build());
+            }
+
+            if (reasons.stream().anyMatch(reason -> !"None".equals(reason.code()))) {
+                throw TransactionCanceledException.builder().cancellationReasons(reasons).message("Transaction cancelled").statusCode(400).build();
+            }
+
+            for (var transactItem : transactWriteItemsRequest.transactItems()) {
+                if (transactItem.put() != null) {
+                    table(transactItem.put().tableName()).put(key(transactItem.put().item()), Map.copyOf(transactItem.put().item()));
+                } else if (transactItem.delete() != null) {
+                    table(transactItem.delete().tableName()).remove(key(transactItem.delete().key()));
+                } else if (transactItem.update() != null) {
+                    var update = transactItem.update();
+                    update(table(update.tableName()), update.key(), update.updateExpression(), update.expressionAttributeNames(), update.expressionAttributeValues());
+                }
+            }
+        }
+
+        return TransactWriteItemsResponse.builder().build();
+    }
+
+    @Override
+    public BatchGetItemResponse batchGetItem(BatchGetItemRequest batchGetItemRequest) {
+        requestCount.incrementAndGet();
+
+        var responses = new HashMap<String, List<Map<String, AttributeValue>>>();
+
+        batchGetItemRequest.requestItems().forEach((tableName, keysAndAttributes) -> {
+            var items = new ArrayList<Map<String, AttributeValue>>();
+
+            for (var key : keysAndAttributes.keys()) {
+                var item = table(tableName).get(key(key));
+
+                if (item != null) {
+                    items.add(project(item, keysAndAttributes.projectionExpression(), keysAndAttributes.expressionAttributeNames()));
+                }
+            }
+
+            responses.put(tableName, items);
+        });
+
+        return BatchGetItemResponse.builder().responses(responses).build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private ConcurrentSkipListMap<String, Map<String, AttributeValue>> table(String tableName) {
+        return tables.computeIfAbsent(tableName, name -> new ConcurrentSkipListMap<>());
+    }
+
+    // supports a single "#name = :expected" condition
+    private boolean conditionHolds(Map<String, AttributeValue> current, String conditionExpression,
+                                   Map<String, String> names, Map<String, AttributeValue> values) {
+        if (conditionExpression == null) {
+            return true;
+        }
+
+        var condition = conditionExpression.split("=");
+        var actual = current == null ? null : current.get(names.get(condition[0].trim()));
+        return actual != null && actual.equals(values.get(condition[1].trim()));
+    }
+
+    // supports a single "SET #name = :value" assignment or "ADD #name :number" increment
+    private void update(ConcurrentSkipListMap<String, Map<String, AttributeValue>> table, Map<String, AttributeValue> key,
+                        String updateExpression, Map<String, String> names, Map<String, AttributeValue> values) {
+        var current = table.get(key(key));
+        var item = current == null ? new HashMap<>(key) : new HashMap<>(current);
+
+        if (updateExpression.startsWith("ADD ")) {
+            var operands = updateExpression.substring("ADD ".length()).trim().split("\\s+");
+            var name = names.get(operands[0]);
+            var previous = item.get(name) == null ? 0L : Long.parseLong(item.get(name).n());
+            var increment = Long.parseLong(values.get(operands[1]).n());
+            item.put(name, AttributeValue.builder().n(String.valueOf(previous + increment)).build());
+        } else {
+            var assignment = updateExpression.substring("SET ".length()).split("=");
+            item.put(names.get(assignment[0].trim()), values.get(assignment[1].trim()));
+        }
+
+        table.put(key(key), Map.copyOf(item));
+    }
+
+    private boolean matchesTypeFilter(Map<String, AttributeValue> item, ScanRequest scanRequest) {
+        if (scanRequest.filterExpression() == null) {
+            return true;
+        }
+
+        // supports "attribute_type(#name, :type)" for string and list attributes
+        var arguments = scanRequest.filterExpression().replaceAll(".*\\((.*)\\).*", "$1").split(",");
+        var value = item.get(scanRequest.expressionAttributeNames().get(arguments[0].trim()));
+        var type = scanRequest.expressionAttributeValues().get(arguments[1].trim()).s();
+
+        if (value == null) {
+            return false;
+        }
+
+        return switch (type) {
+            case "S" -> value.s() != null;
+            case "L" -> value.hasL();
+            case "SS" -> value.hasSs();
+            default -> false;
+        };
+    }
+
+    private Map<String, AttributeValue> project(Map<String, AttributeValue> item, String projectionExpression, Map<String, String> names) {
+        if (projectionExpression == null) {
+            return item;
+        }
+
+        var projected = new HashMap<String, AttributeValue>();
+
+        for (var attribute : projectionExpression.split(",")) {
+            var name = names == null ? attribute.trim() : names.getOrDefault(attribute.trim(), attribute.trim());
+            var value = item.get(name);
+
+            if (value != null) {
+                projected.put(name, value);
+            }
+        }
+
+        return projected;
+    }
+
+    private String key(Map<String, AttributeValue> item) {
+        return key(item.get(USER_ID).s(), item.get(POST_TITLE).s());
+    }
+
+    private String key(String userId, String postTitle) {
+        return userId + "\u0000" + postTitle;
+    }
+
+}
@@ -0,0 +1,113 @@
+package dev.ciprian.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StubAwsServer implements AutoCloseable {
+
+    private static final String EMPTY_RESPONSE = "{}";
+    private static final String THROTTLED_RESPONSE = "{\"__type\":\"com.amazonaws.dynamodb.v20120810#ProvisionedThroughputExceededException\",\"message\":\"Throughput exceeded\"}";
+
+    private final HttpServer server;
+    private final Map<String, String> responses = new ConcurrentHashMap<>();
+    private final Map<String, Failure> failures = new ConcurrentHashMap<>();
+    private final Map<String, Long> delays = new ConcurrentHashMap<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private volatile String lastRequestBody;
+
+    public StubAwsServer() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    public String endpoint() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    // keyed by the X-Amz-Target header, e.g. DynamoDB_20120810.Query
+    public StubAwsServer respond(String target, String body) {
+        responses.put(target, body);
+        return this;
+    }
+
+    // the next requests to the target fail with the given status before the regular response is served again
+    public StubAwsServer fail(String target, int times, int statusCode, String body) {
+        return schedule(target, "x".repeat(times), statusCode, body);
+    }
+
+    // one character per request to the target, x fails it and anything else serves the regular response
+    public StubAwsServer schedule(String target, String schedule, int statusCode, String body) {
+        failures.put(target, new Failure(schedule, new AtomicInteger(), statusCode, body));
+        return this;
+    }
+
+    public StubAwsServer throttle(String target, String schedule) {
+        return schedule(target, schedule, 400, THROTTLED_RESPONSE);
+    }
+
+    // every request to the target waits this long before it is answered
+    public StubAwsServer delay(String target, long millis) {
+        delays.put(target, millis);
+        return this;
+    }
+
+    public int requestCount() {
+        return requestCount.get();
+    }
+
+    public String lastRequestBody() {
+        return lastRequestBody;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        lastRequestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+
+        var target = exchange.getRequestHeaders().getFirst("X-Amz-Target");
+        pause(delays.getOrDefault(target, 0L));
+
+        var failure = failures.get(target);
+        var failed = failure != null && failure.fails();
+        var body = (failed ? failure.body() : responses.getOrDefault(target, EMPTY_RESPONSE)).getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().add("Content-Type", "application/x-amz-json-1.0");
+        exchange.sendResponseHeaders(failed ? failure.statusCode() : 200, body.length);
+
+        try (var output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Failure(String schedule, AtomicInteger position, int statusCode, String body) {
+
+        boolean fails() {
+            var index = position.getAndIncrement();
+            return index < schedule.length() && schedule.charAt(index) == 'x';
+        }
+
+    }
+
+}
@@ -0,0 +1,26 @@
+package dev.ciprian.stub;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+
+@TestConfiguration
+public class StubClientsConfig {
+
+    // lazy like the real clients they replace, so tests can tell when a client is first needed
+    @Bean
+    @Lazy
+    @Primary
+    InMemoryDynamoDbClient inMemoryDynamoDbClient() {
+        return new InMemoryDynamoDbClient();
+    }
+
+    @Bean
+    @Lazy
+    @Primary
+    StubCognitoClient stubCognitoClient() {
+        return new StubCognitoClient();
+    }
+
+}
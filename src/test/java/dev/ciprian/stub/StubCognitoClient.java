@@ -0,0 +1,66 @@
+package dev.ciprian.stub;
+
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.*;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StubCognitoClient implements CognitoIdentityProviderClient {
+
+    private final Set<String> usernames = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    public void clear() {
+        usernames.clear();
+        requestCount.set(0);
+    }
+
+    public int requestCount() {
+        return requestCount.get();
+    }
+
+    @Override
+    public AdminCreateUserResponse adminCreateUser(AdminCreateUserRequest adminCreateUserRequest) {
+        requestCount.incrementAndGet();
+
+        if (!usernames.add(adminCreateUserRequest.username())) {
+            throw UsernameExistsException.builder().statusCode(400).message("User account already exists").build();
+        }
+
+        return AdminCreateUserResponse.builder().build();
+    }
+
+    @Override
+    public AdminSetUserPasswordResponse adminSetUserPassword(AdminSetUserPasswordRequest adminSetUserPasswordRequest) {
+        requestCount.incrementAndGet();
+
+        return AdminSetUserPasswordResponse.builder().build();
+    }
+
+    @Override
+    public AdminInitiateAuthResponse adminInitiateAuth(AdminInitiateAuthRequest adminInitiateAuthRequest) {
+        requestCount.incrementAndGet();
+
+        var authenticationResult = AuthenticationResultType.builder()
+                .tokenType("Bearer")
+                .expiresIn(3600)
+                .accessToken("access-token")
+                .idToken("id-token")
+                .refreshToken(adminInitiateAuthRequest.authFlow() == AuthFlowType.REFRESH_TOKEN_AUTH ? null : "refresh-token")
+                .build();
+
+        return AdminInitiateAuthResponse.builder().authenticationResult(authenticationResult).build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+}
@@ -0,0 +1,235 @@
+package dev.ciprian.tracing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.config.MetricsConfig;
+import dev.ciprian.config.SdkClientProperties;
+import dev.ciprian.config.SdkClients;
+import dev.ciprian.config.TracingConfig;
+import dev.ciprian.exceptions.CustomException;
+import dev.ciprian.metrics.MetricsRecorder;
+import dev.ciprian.metrics.Phase;
+import dev.ciprian.models.response.GenericResponse;
+import dev.ciprian.service.InvocationContext;
+import dev.ciprian.stub.StubAwsServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TracerTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+    private PrintStream originalOut;
+
+    @BeforeEach
+    void setUp() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(stdout, true, StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Test
+    @DisplayName("Slow invocations emit a segment with one subsegment per phase and the service spans nested inside")
+    void test_1() throws IOException {
+        // given
+        var metricsRecorder = new MetricsRecorder(new MetricsConfig(), tracer(0, 0), OBJECT_MAPPER);
+        Function<byte[], GenericResponse> function = metricsRecorder.wrap("deletePost", request -> {
+            metricsRecorder.lap(Phase.DECODE);
+            metricsRecorder.lap(Phase.VALIDATE);
+
+            try (var ignored = Span.open("PostsService.delete")) {
+                Span.open("DynamoDb").close();
+            }
+
+            metricsRecorder.lap(Phase.BACKEND);
+            return new GenericResponse(true, 204);
+        });
+
+        // when
+        function.apply(new byte[0]);
+
+        // then
+        var document = document();
+        assertThat(document.get("name").textValue()).isEqualTo("user-posts-lambda");
+        assertThat(document.get("id").textValue()).matches("[0-9a-f]{16}");
+        assertThat(document.get("trace_id").textValue()).matches("1-[0-9a-f]{8}-[0-9a-f]{24}");
+        assertThat(document.has("parent_id")).isFalse();
+        assertThat(document.at("/annotations/function").textValue()).isEqualTo("deletePost");
+        assertThat(document.at("/http/response/status").intValue()).isEqualTo(204);
+        assertThat(document.get("end_time").doubleValue()).isGreaterThanOrEqualTo(document.get("start_time").doubleValue());
+        assertThat(names(document)).containsExactly("deserialization", "validation", "backend");
+        var backend = document.at("/subsegments/2");
+        assertThat(names(backend)).containsExactly("PostsService.delete");
+        assertThat(names(backend.at("/subsegments/0"))).containsExactly("DynamoDb");
+        assertThat(Span.current()).isNull();
+    }
+
+    @Test
+    @DisplayName("Fast invocations outside the sample are recorded but never emitted")
+    void test_2() {
+        // given
+        var metricsRecorder = new MetricsRecorder(new MetricsConfig(), tracer(60_000, 0), OBJECT_MAPPER);
+        Function<byte[], GenericResponse> function = metricsRecorder.wrap("getPosts", request -> {
+            metricsRecorder.lap(Phase.DECODE);
+            throw new CustomException("403 Invalid user id");
+        });
+
+        // when
+        // then
+        assertThatThrownBy(() -> function.apply(new byte[0])).hasMessage("403 Invalid user id");
+        assertThat(stdout.size()).isZero();
+        assertThat(Span.current()).isNull();
+        assertThat(Span.open("PostsService.delete").isRecording()).isFalse();
+    }
+
+    @Test
+    @DisplayName("A trace started by the handler gets routing and serialization spans and joins the sampled Lambda trace")
+    void test_3() throws IOException {
+        // given
+        var tracer = tracer(0, 0);
+        Function<byte[], GenericResponse> function = tracer.wrap("getPosts", request -> new GenericResponse(true, 200));
+        System.setProperty(Tracer.TRACE_HEADER_PROPERTY, "Root=1-5759e988-bd862e3fe1be46a994272793;Parent=53995c3f42cd8ad8;Sampled=1");
+
+        try {
+            var trace = tracer.start();
+
+            // when
+            function.apply(new byte[0]);
+            trace.serialized();
+            tracer.finish(trace);
+        } finally {
+            System.clearProperty(Tracer.TRACE_HEADER_PROPERTY);
+        }
+
+        // then
+        var document = document();
+        assertThat(document.get("type").textValue()).isEqualTo("subsegment");
+        assertThat(document.get("trace_id").textValue()).isEqualTo("1-5759e988-bd862e3fe1be46a994272793");
+        assertThat(document.get("parent_id").textValue()).isEqualTo("53995c3f42cd8ad8");
+        assertThat(names(document)).containsExactly("routing", "getPosts", "serialization");
+        assertThat(document.at("/subsegments/1/http/response/status").intValue()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Every SDK attempt is recorded under its call, retries included")
+    void test_4() throws IOException {
+        try (var server = new StubAwsServer()) {
+            // given
+            server.respond("DynamoDB_20120810.Query", "{\"Count\":0,\"Items\":[]}")
+                    .fail("DynamoDB_20120810.Query", 1, 500, "{\"__type\":\"com.amazonaws.dynamodb.v20120810#InternalServerError\",\"message\":\"Internal server error\"}");
+            var properties = new SdkClientProperties();
+            properties.setEndpointOverride(server.endpoint());
+            var builder = DynamoDbClient.builder()
+                    .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("key", "secret")));
+            var tracer = tracer(0, 0);
+
+            try (var client = SdkClients.build(builder, "eu-central-1", properties)) {
+                var trace = tracer.start();
+
+                // when
+                client.query(QueryRequest.builder()
+                        .tableName("posts")
+                        .keyConditionExpression("UserId = :sub")
+                        .expressionAttributeValues(Map.of(":sub", AttributeValue.builder().s("sub").build()))
+                        .build());
+                tracer.finish(trace);
+            }
+
+            // then
+            var call = document().at("/subsegments/0");
+            assertThat(call.get("namespace").textValue()).isEqualTo("aws");
+            assertThat(call.at("/aws/operation").textValue()).isEqualTo("Query");
+            assertThat(call.at("/aws/retries").intValue()).isEqualTo(1);
+            assertThat(call.at("/http/response/status").intValue()).isEqualTo(200);
+            assertThat(names(call)).containsExactly("Attempt 1", "Attempt 2");
+            assertThat(call.at("/subsegments/0/fault").booleanValue()).isTrue();
+            assertThat(call.at("/subsegments/1/http/response/status").intValue()).isEqualTo(200);
+        }
+    }
+
+    @Test
+    @DisplayName("Pooled threads created during a trace keep none of its spans, work handed to them nests under the caller")
+    void test_5() throws Exception {
+        // given
+        var tracer = tracer(0, 0);
+        var executor = Executors.newSingleThreadExecutor();
+        var inherited = new AtomicReference<Span>();
+
+        try {
+            Function<byte[], GenericResponse> function = tracer.wrap("savePosts", request -> {
+                try (var ignored = Span.open("PostsService.saveAll")) {
+                    inherited.set(executor.submit(Span::current).get());
+                    executor.submit(InvocationContext.propagate(() -> {
+                        Span.open("DynamoDb").close();
+                        return null;
+                    })::get).get();
+                } catch (InterruptedException | ExecutionException exception) {
+                    throw new IllegalStateException(exception);
+                }
+
+                return new GenericResponse(true, 201);
+            });
+
+            // when
+            function.apply(new byte[0]);
+
+            // then
+            assertThat(inherited.get()).isNull();
+            assertThat(executor.submit(Span::current).get()).isNull();
+        } finally {
+            executor.shutdown();
+        }
+
+        var service = document().at("/subsegments/0");
+        assertThat(service.get("name").textValue()).isEqualTo("PostsService.saveAll");
+        assertThat(names(service)).containsExactly("DynamoDb");
+    }
+
+    private JsonNode document() throws IOException {
+        var lines = stdout.toString(StandardCharsets.UTF_8).strip().split("\n");
+        assertThat(lines).hasSize(1);
+        return OBJECT_MAPPER.readTree(lines[0]);
+    }
+
+    private static List<String> names(JsonNode segment) {
+        var names = new ArrayList<String>();
+        segment.path("subsegments").forEach(subsegment -> names.add(subsegment.get("name").textValue()));
+        return names;
+    }
+
+    private static Tracer tracer(long slowThresholdMillis, double sampleRate) {
+        var tracingConfig = new TracingConfig();
+        tracingConfig.setEnabled(true);
+        tracingConfig.setSlowThresholdMillis(slowThresholdMillis);
+        tracingConfig.setSampleRate(sampleRate);
+        return new Tracer(tracingConfig, OBJECT_MAPPER);
+    }
+
+}